@@ -0,0 +1,124 @@
+package main.java.com.heroes_task.programs.benchmarks;
+
+import com.battle.heroes.army.Army;
+import com.battle.heroes.army.Unit;
+import main.java.com.heroes_task.programs.BattleResult;
+import main.java.com.heroes_task.programs.OccupancyIndex;
+import main.java.com.heroes_task.programs.ParallelTurnPlanner;
+import main.java.com.heroes_task.programs.SimulateBattleImpl;
+import main.java.com.heroes_task.programs.SuitableForAttackUnitsFinderImpl;
+import main.java.com.heroes_task.programs.batch.ArmyCopier;
+import main.java.com.heroes_task.programs.batch.BatchBattleRunner;
+import main.java.com.heroes_task.programs.batch.UnitProgramFactory;
+import main.java.com.heroes_task.programs.clock.VirtualBattleClock;
+import main.java.com.heroes_task.programs.events.BattleEventSink;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бой целиком: копирование пресетов, назначение программ и симуляция до победы
+ * одной из сторон. Бой идет в детерминированном режиме с фиксированным зерном,
+ * поэтому каждая итерация играет один и тот же бой.
+ * <p>
+ * Бонусы юнитов пресетов заменены пустыми: с {@code damageTable = true} удары идут через
+ * {@link main.java.com.heroes_task.programs.DamageTable} с единичными множителями, бой остается
+ * тем же, и разница с {@code damageTable = false} — только стоимость урона по таблице в цикле ударов.
+ * <p>
+ * С {@code parallelTurns = true} пути ищет {@link ParallelTurnPlanner} на отдельном пуле
+ * с параллелизмом по числу ядер; его поиск — обход в ширину, поэтому сравнивать его
+ * нужно с {@code pathFinder = BfsUnitTargetPathFinderImpl}, а параметр {@code pathFinder} он не учитывает:
+ * {@code -p pathFinder=BfsUnitTargetPathFinderImpl -p armyPoints=3000}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BattleBenchmark {
+
+    /** Лимит очков каждой армии; определяет количество юнитов в бою. */
+    @Param({"500", "1500", "3000"})
+    public int armyPoints;
+
+    @Param({"UnitTargetPathFinderImpl", "BfsUnitTargetPathFinderImpl", "DistanceFieldPathFinderImpl"})
+    public String pathFinder;
+
+    /** true — урон по таблице бонусов ({@code setBonusesApplied}), false — по базовой атаке. */
+    @Param({"false", "true"})
+    public boolean damageTable;
+
+    /** true — пути ищутся планировщиком ходов на отдельном пуле, false — поиском {@code pathFinder}. */
+    @Param({"false", "true"})
+    public boolean parallelTurns;
+
+    private Army playerPreset;
+    private Army computerPreset;
+    private ForkJoinPool planningPool;
+
+    @Setup
+    public void setUp() {
+        playerPreset = BenchmarkFixtures.preset(armyPoints, BenchmarkFixtures.SEED, true);
+        computerPreset = BenchmarkFixtures.preset(armyPoints, BenchmarkFixtures.SEED + 1, false);
+        clearBonuses(playerPreset);
+        clearBonuses(computerPreset);
+        if (parallelTurns) {
+            planningPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (planningPool != null) {
+            planningPool.shutdown();
+            planningPool = null;
+        }
+    }
+
+    @Benchmark
+    public BattleResult simulate() throws InterruptedException {
+        Army playerArmy = ArmyCopier.copy(playerPreset);
+        Army computerArmy = ArmyCopier.copy(computerPreset);
+        OccupancyIndex occupancyIndex = new OccupancyIndex();
+        SplittableRandom random = new SplittableRandom(BenchmarkFixtures.SEED);
+        SuitableForAttackUnitsFinderImpl suitableForAttackUnitsFinder = new SuitableForAttackUnitsFinderImpl(false);
+        suitableForAttackUnitsFinder.setRandom(random);
+        SimulateBattleImpl simulateBattle = new SimulateBattleImpl();
+        simulateBattle.setBattleClock(new VirtualBattleClock());
+        ParallelTurnPlanner turnPlanner = parallelTurns
+                ? new ParallelTurnPlanner(occupancyIndex, planningPool, BattleEventSink.NONE)
+                : null;
+        UnitProgramFactory.assignPrograms(playerArmy, computerArmy, suitableForAttackUnitsFinder,
+                turnPlanner != null ? turnPlanner : BenchmarkFixtures.pathFinder(pathFinder, occupancyIndex),
+                simulateBattle.getGameSpeed(), random);
+
+        simulateBattle.setLoggingEnabled(false);
+        simulateBattle.setOccupancyIndex(occupancyIndex);
+        simulateBattle.setMaxRounds(BatchBattleRunner.DEFAULT_MAX_ROUNDS);
+        simulateBattle.setBonusesApplied(damageTable);
+        simulateBattle.setTurnPlanner(turnPlanner);
+        return simulateBattle.simulateBattle(playerArmy, computerArmy);
+    }
+
+    private static void clearBonuses(Army army) {
+        for (Unit unit : army.getUnits()) {
+            unit.setAttackBonuses(Map.of());
+            unit.setDefenceBonuses(Map.of());
+        }
+    }
+}
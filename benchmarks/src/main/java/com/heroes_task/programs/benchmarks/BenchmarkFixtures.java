@@ -0,0 +1,153 @@
+package main.java.com.heroes_task.programs.benchmarks;
+
+import com.battle.heroes.army.Army;
+import com.battle.heroes.army.Unit;
+import com.battle.heroes.army.programs.UnitTargetPathFinder;
+import main.java.com.heroes_task.programs.BattlefieldGrid;
+import main.java.com.heroes_task.programs.BfsUnitTargetPathFinderImpl;
+import main.java.com.heroes_task.programs.DistanceFieldPathFinderImpl;
+import main.java.com.heroes_task.programs.GeneratePresetImpl;
+import main.java.com.heroes_task.programs.OccupancyIndex;
+import main.java.com.heroes_task.programs.UnitTargetPathFinderImpl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Входные данные бенчмарков. Все данные строятся из фиксированных зерен,
+ * поэтому каждый запуск измеряет одни и те же поля, армии и бои.
+ */
+final class BenchmarkFixtures {
+    /** Зерно, из которого строятся все входные данные. */
+    static final long SEED = 42;
+    /** Смещение зоны развертывания армии игрока по x. */
+    static final int PLAYER_OFFSET_X = 24;
+    /** Ширина игрового поля. */
+    static final int FIELD_WIDTH = 27;
+    /** Высота игрового поля. */
+    static final int FIELD_HEIGHT = 21;
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * @return Прототипы четырех типов юнитов игры.
+     */
+    static List<Unit> prototypes() {
+        List<Unit> prototypes = new ArrayList<>();
+        prototypes.add(new Unit("Knight", "Knight", 100, 30, 20, "Close combat",
+                Map.of("Archer", 1.5), Map.of("Pikeman", 1.2), 0, 0));
+        prototypes.add(new Unit("Archer", "Archer", 50, 20, 19, "Ranged combat",
+                Map.of("Knight", 1.2), Map.of(), 0, 0));
+        prototypes.add(new Unit("Swordsman", "Swordsman", 70, 25, 15, "Close combat",
+                Map.of(), Map.of("Archer", 1.3), 0, 0));
+        prototypes.add(new Unit("Pikeman", "Pikeman", 60, 20, 13, "Close combat",
+                Map.of("Knight", 2.0), Map.of(), 0, 0));
+        return prototypes;
+    }
+
+    /**
+     * Строит пресет жадным генератором с заданным зерном расстановки.
+     *
+     * @param maxPoints Лимит очков.
+     * @param seed      Зерно расстановки.
+     * @param player    true, если пресет нужно сдвинуть в зону развертывания игрока.
+     * @return Пресет армии.
+     */
+    static Army preset(int maxPoints, long seed, boolean player) {
+        GeneratePresetImpl generator = new GeneratePresetImpl(false);
+        generator.setRandom(new SplittableRandom(seed));
+        Army army = generator.generate(prototypes(), maxPoints);
+        if (player) {
+            for (Unit unit : army.getUnits()) {
+                unit.setxCoordinate(unit.getxCoordinate() + PLAYER_OFFSET_X);
+            }
+        }
+        return army;
+    }
+
+    /**
+     * Создает юнит-препятствие или участника поиска пути в заданной клетке.
+     */
+    static Unit unitAt(String name, int x, int y) {
+        return new Unit(name, "Swordsman", 70, 25, 15, "Close combat", Map.of(), Map.of(), x, y);
+    }
+
+    /**
+     * Заполняет поле препятствиями с заданной плотностью, не занимая исключенные клетки.
+     * Клетки выбираются без возвращения частичным перемешиванием Фишера — Йетса.
+     *
+     * @param density  Доля занятых клеток поля от 0 до 1.
+     * @param seed     Зерно расстановки.
+     * @param excluded Юниты, клетки которых остаются свободными для препятствий.
+     * @return Препятствия.
+     */
+    static List<Unit> obstacles(double density, long seed, Unit... excluded) {
+        return obstacles(BattlefieldGrid.DEFAULT, density, seed, excluded);
+    }
+
+    /**
+     * Заполняет поле заданного размера препятствиями с заданной плотностью.
+     *
+     * @param grid     Размеры поля.
+     * @param density  Доля занятых клеток поля от 0 до 1.
+     * @param seed     Зерно расстановки.
+     * @param excluded Юниты, клетки которых остаются свободными для препятствий.
+     * @return Препятствия.
+     */
+    static List<Unit> obstacles(BattlefieldGrid grid, double density, long seed, Unit... excluded) {
+        int height = grid.getHeight();
+        int[] cells = new int[grid.getCells()];
+        int size = 0;
+        for (int cell = 0; cell < cells.length; cell++) {
+            if (!isExcluded(cell / height, cell % height, excluded)) {
+                cells[size++] = cell;
+            }
+        }
+        int count = (int) Math.round(density * size);
+        SplittableRandom random = new SplittableRandom(seed);
+        List<Unit> obstacles = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int j = i + random.nextInt(size - i);
+            int cell = cells[j];
+            cells[j] = cells[i];
+            cells[i] = cell;
+            obstacles.add(unitAt("Obstacle " + i, cell / height, cell % height));
+        }
+        return obstacles;
+    }
+
+    /**
+     * Создает поиск пути по имени класса реализации.
+     *
+     * @param implementation Простое имя класса реализации.
+     * @param occupancyIndex Индекс занятости поля; исходный поиск Дейкстры работает без него.
+     * @return Поиск пути без вывода в консоль.
+     */
+    static UnitTargetPathFinder pathFinder(String implementation, OccupancyIndex occupancyIndex) {
+        switch (implementation) {
+            case "UnitTargetPathFinderImpl":
+                return new UnitTargetPathFinderImpl(false);
+            case "BfsUnitTargetPathFinderImpl":
+                BfsUnitTargetPathFinderImpl bfs = new BfsUnitTargetPathFinderImpl(false);
+                bfs.setOccupancyIndex(occupancyIndex);
+                return bfs;
+            case "DistanceFieldPathFinderImpl":
+                return new DistanceFieldPathFinderImpl(occupancyIndex, DistanceFieldPathFinderImpl.DEFAULT_CACHE_SIZE,
+                        false);
+            default:
+                throw new IllegalArgumentException("Неизвестная реализация поиска пути: " + implementation);
+        }
+    }
+
+    private static boolean isExcluded(int x, int y, Unit[] excluded) {
+        for (Unit unit : excluded) {
+            if (unit.getxCoordinate() == x && unit.getyCoordinate() == y) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,29 @@
+package main.java.com.heroes_task.programs.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Точка входа бенчмарков. Принимает обычные параметры командной строки JMH
+ * (например, шаблон имени бенчмарка или {@code -p density=0.2}) и всегда подключает
+ * профилировщик сборщика мусора, чтобы рядом с ops/s выводилась скорость выделения памяти
+ * ({@code gc.alloc.rate.norm} — байт на операцию).
+ */
+public final class BenchmarkMain {
+
+    private BenchmarkMain() {
+    }
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
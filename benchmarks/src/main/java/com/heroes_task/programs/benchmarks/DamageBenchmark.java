@@ -0,0 +1,154 @@
+package main.java.com.heroes_task.programs.benchmarks;
+
+import com.battle.heroes.army.Army;
+import com.battle.heroes.army.Unit;
+import main.java.com.heroes_task.programs.DamageTable;
+import main.java.com.heroes_task.programs.LivingUnits;
+import main.java.com.heroes_task.programs.UnitTypeGrid;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Цикл ударов симуляции: урон, равный базовой атаке, против урона по таблице бонусов
+ * {@link DamageTable} и против поиска бонусов в {@code Map} при каждом ударе.
+ * Варианты {@code *Objects} читают юниты, как {@link main.java.com.heroes_task.programs.SimulateBattleImpl},
+ * варианты {@code *Arrays} — параллельные массивы, как {@link main.java.com.heroes_task.programs.core.BattleCore},
+ * где урон по каждому типу цели вычислен заранее. Базовая линия для симуляции на объектах —
+ * {@link #flatDamageObjects()}: текущий цикл ударов без бонусов. {@link #tableDamageObjects()}
+ * повторяет удар симуляции с бонусами: урон берется из строки атакующего в {@link LivingUnits},
+ * тип цели — по ее клетке из {@link UnitTypeGrid}.
+ * Пары атакующий — цель выбираются заранее из двух армий по фиксированному зерну.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DamageBenchmark {
+
+    /** Количество ударов за один вызов. */
+    private static final int HITS = 4096;
+
+    private final Unit[] attackers = new Unit[HITS];
+    private final Unit[] targets = new Unit[HITS];
+    private final int[] health = new int[HITS];
+    private final int[] attackerIds = new int[HITS];
+    private final int[] targetIds = new int[HITS];
+    private DamageTable damageTable;
+    private LivingUnits livingUnits;
+    private UnitTypeGrid typeGrid;
+    private int typeCount;
+    private int[] attack;
+    private int[] type;
+    private int[] damageToType;
+
+    @Setup
+    public void setUp() {
+        Army playerArmy = BenchmarkFixtures.preset(3000, BenchmarkFixtures.SEED, true);
+        Army computerArmy = BenchmarkFixtures.preset(3000, BenchmarkFixtures.SEED + 1, false);
+        damageTable = DamageTable.compile(playerArmy.getUnits(), computerArmy.getUnits());
+        typeCount = damageTable.getTypeCount();
+
+        List<Unit> units = new ArrayList<>(playerArmy.getUnits());
+        units.addAll(computerArmy.getUnits());
+        int playerCount = playerArmy.getUnits().size();
+        livingUnits = new LivingUnits(units);
+        livingUnits.compileDamage(damageTable);
+        typeGrid = new UnitTypeGrid(damageTable, playerArmy.getUnits(), computerArmy.getUnits());
+        attack = new int[units.size()];
+        type = new int[units.size()];
+        damageToType = new int[units.size() * typeCount];
+        for (int id = 0; id < units.size(); id++) {
+            attack[id] = units.get(id).getBaseAttack();
+            type[id] = damageTable.typeOf(units.get(id));
+            for (int targetType = 0; targetType < typeCount; targetType++) {
+                damageToType[id * typeCount + targetType] = damageTable.damage(attack[id], type[id], targetType);
+            }
+        }
+
+        SplittableRandom random = new SplittableRandom(BenchmarkFixtures.SEED);
+        for (int i = 0; i < HITS; i++) {
+            boolean player = random.nextBoolean();
+            int computerCount = units.size() - playerCount;
+            attackerIds[i] = player ? random.nextInt(playerCount) : playerCount + random.nextInt(computerCount);
+            targetIds[i] = player ? playerCount + random.nextInt(computerCount) : random.nextInt(playerCount);
+            attackers[i] = units.get(attackerIds[i]);
+            targets[i] = units.get(targetIds[i]);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(HITS)
+    public int flatDamageObjects() {
+        int total = 0;
+        for (int i = 0; i < HITS; i++) {
+            health[i] -= attackers[i].getBaseAttack();
+            total += health[i];
+        }
+        return total;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(HITS)
+    public int tableDamageObjects() {
+        int total = 0;
+        for (int i = 0; i < HITS; i++) {
+            health[i] -= livingUnits.damageTo(attackerIds[i], typeGrid.typeOf(targets[i]));
+            total += health[i];
+        }
+        return total;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(HITS)
+    public int mapDamageObjects() {
+        int total = 0;
+        for (int i = 0; i < HITS; i++) {
+            Unit attacker = attackers[i];
+            Unit target = targets[i];
+            Double attackBonus = attacker.getAttackBonuses().get(target.getUnitType());
+            Double defenceBonus = target.getDefenceBonuses().get(attacker.getUnitType());
+            double multiplier = (attackBonus == null ? 1 : attackBonus) / (defenceBonus == null ? 1 : defenceBonus);
+            health[i] -= (int) Math.round(attacker.getBaseAttack() * multiplier);
+            total += health[i];
+        }
+        return total;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(HITS)
+    public int flatDamageArrays() {
+        int total = 0;
+        for (int i = 0; i < HITS; i++) {
+            health[i] -= attack[attackerIds[i]];
+            total += health[i];
+        }
+        return total;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(HITS)
+    public int tableDamageArrays() {
+        int total = 0;
+        for (int i = 0; i < HITS; i++) {
+            health[i] -= damageToType[attackerIds[i] * typeCount + type[targetIds[i]]];
+            total += health[i];
+        }
+        return total;
+    }
+}
@@ -0,0 +1,63 @@
+package main.java.com.heroes_task.programs.benchmarks;
+
+import com.battle.heroes.army.Army;
+import com.battle.heroes.army.Unit;
+import com.battle.heroes.army.programs.GeneratePreset;
+import main.java.com.heroes_task.programs.GeneratePresetImpl;
+import main.java.com.heroes_task.programs.KnapsackGeneratePresetImpl;
+import main.java.com.heroes_task.programs.PresetObjective;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Генерация армии компьютера при разных лимитах очков.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeneratePresetBenchmark {
+
+    @Param({"500", "1500", "5000", "20000"})
+    public int maxPoints;
+
+    @Param({"GeneratePresetImpl", "KnapsackGeneratePresetImpl"})
+    public String implementation;
+
+    private GeneratePreset generator;
+    private List<Unit> prototypes;
+
+    @Setup
+    public void setUp() {
+        prototypes = BenchmarkFixtures.prototypes();
+        if (implementation.equals("GeneratePresetImpl")) {
+            GeneratePresetImpl greedy = new GeneratePresetImpl(false);
+            greedy.setRandom(new SplittableRandom(BenchmarkFixtures.SEED));
+            generator = greedy;
+        } else {
+            KnapsackGeneratePresetImpl knapsack = new KnapsackGeneratePresetImpl(PresetObjective.attack(), false);
+            knapsack.setRandom(new SplittableRandom(BenchmarkFixtures.SEED));
+            generator = knapsack;
+        }
+    }
+
+    @Benchmark
+    public Army generate() {
+        return generator.generate(prototypes, maxPoints);
+    }
+}
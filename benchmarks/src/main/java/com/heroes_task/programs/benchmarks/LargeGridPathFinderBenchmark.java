@@ -0,0 +1,81 @@
+package main.java.com.heroes_task.programs.benchmarks;
+
+import com.battle.heroes.army.Unit;
+import com.battle.heroes.army.programs.Edge;
+import com.battle.heroes.army.programs.UnitTargetPathFinder;
+import main.java.com.heroes_task.programs.AStarUnitTargetPathFinderImpl;
+import main.java.com.heroes_task.programs.AbstractPresetGenerator;
+import main.java.com.heroes_task.programs.BattlefieldGrid;
+import main.java.com.heroes_task.programs.UnitTargetPathFinderImpl;
+import main.java.com.heroes_task.programs.events.BattleEventSink;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Поиск пути через все квадратное поле растущего размера: атакующий в середине левого края,
+ * цель в середине правого, между ними препятствия с заданной плотностью.
+ * Время поиска Дейкстры растет с площадью поля, время A* — с длиной пути,
+ * то есть примерно как корень из площади. На поле с препятствиями к нему добавляется
+ * разметка занятых клеток, линейная по количеству юнитов.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LargeGridPathFinderBenchmark {
+
+    @Param({"27", "100", "200", "400"})
+    public int size;
+
+    @Param({"0.0", "0.2"})
+    public double density;
+
+    @Param({"UnitTargetPathFinderImpl", "AStarUnitTargetPathFinderImpl"})
+    public String implementation;
+
+    private UnitTargetPathFinder pathFinder;
+    private Unit attacker;
+    private Unit target;
+    private List<Unit> units;
+
+    @Setup
+    public void setUp() {
+        BattlefieldGrid grid = new BattlefieldGrid(size, size, AbstractPresetGenerator.DEPLOYMENT_WIDTH);
+        attacker = BenchmarkFixtures.unitAt("Attacker", 0, size / 2);
+        target = BenchmarkFixtures.unitAt("Target", size - 1, size / 2);
+        units = new ArrayList<>();
+        units.add(attacker);
+        units.add(target);
+        units.addAll(BenchmarkFixtures.obstacles(grid, density, BenchmarkFixtures.SEED, attacker, target));
+        switch (implementation) {
+            case "UnitTargetPathFinderImpl":
+                pathFinder = new UnitTargetPathFinderImpl(BattleEventSink.NONE, grid);
+                break;
+            case "AStarUnitTargetPathFinderImpl":
+                pathFinder = new AStarUnitTargetPathFinderImpl(grid, false);
+                break;
+            default:
+                throw new IllegalArgumentException("Неизвестная реализация поиска пути: " + implementation);
+        }
+    }
+
+    @Benchmark
+    public List<Edge> getTargetPath() {
+        return pathFinder.getTargetPath(attacker, target, units);
+    }
+}
@@ -0,0 +1,77 @@
+package main.java.com.heroes_task.programs.benchmarks;
+
+import com.battle.heroes.army.Unit;
+import com.battle.heroes.army.programs.Edge;
+import com.battle.heroes.army.programs.UnitTargetPathFinder;
+import main.java.com.heroes_task.programs.OccupancyIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Поиск пути через все поле: атакующий в левом краю, цель в правом,
+ * между ними препятствия с заданной плотностью. При высокой плотности пути
+ * может не быть — тогда измеряется полный безуспешный обход.
+ * <p>
+ * {@code DistanceFieldPathFinderImpl} между вызовами не видит изменений индекса,
+ * поэтому измеряется восстановление пути из кэшированного поля — случай нескольких
+ * атакующих одной цели в одном раунде.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PathFinderBenchmark {
+
+    @Param({"0.0", "0.2", "0.4"})
+    public double density;
+
+    @Param({"UnitTargetPathFinderImpl", "BfsUnitTargetPathFinderImpl", "DistanceFieldPathFinderImpl"})
+    public String implementation;
+
+    private UnitTargetPathFinder pathFinder;
+    private Unit attacker;
+    private Unit target;
+    private List<Unit> units;
+
+    @Setup
+    public void setUp() {
+        int middle = BenchmarkFixtures.FIELD_HEIGHT / 2;
+        attacker = BenchmarkFixtures.unitAt("Attacker", 0, middle);
+        target = BenchmarkFixtures.unitAt("Target", BenchmarkFixtures.FIELD_WIDTH - 1, middle);
+        List<Unit> obstacles = BenchmarkFixtures.obstacles(density, BenchmarkFixtures.SEED, attacker, target);
+
+        List<Unit> left = new ArrayList<>();
+        List<Unit> right = new ArrayList<>();
+        left.add(attacker);
+        right.add(target);
+        for (Unit obstacle : obstacles) {
+            (obstacle.getxCoordinate() < BenchmarkFixtures.FIELD_WIDTH / 2 ? left : right).add(obstacle);
+        }
+        OccupancyIndex occupancyIndex = new OccupancyIndex();
+        occupancyIndex.rebuild(left, right);
+
+        units = new ArrayList<>(left);
+        units.addAll(right);
+        pathFinder = BenchmarkFixtures.pathFinder(implementation, occupancyIndex);
+    }
+
+    @Benchmark
+    public List<Edge> getTargetPath() {
+        return pathFinder.getTargetPath(attacker, target, units);
+    }
+}
@@ -0,0 +1,72 @@
+package main.java.com.heroes_task.programs.benchmarks;
+
+import com.battle.heroes.army.Army;
+import com.battle.heroes.army.Unit;
+import main.java.com.heroes_task.programs.SuitableForAttackUnitsFinderImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Поиск подходящих для атаки юнитов армии компьютера (левая армия) так,
+ * как его вызывают программы юнитов игрока: по колонкам зоны развертывания.
+ * Измеряются также запись в буфер без выделения памяти и поиск только первого подходящего юнита.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SuitableUnitsBenchmark {
+
+    /** Лимит очков армии-цели; определяет количество юнитов в ней. */
+    @Param({"300", "1000", "3000"})
+    public int armyPoints;
+
+    private final SuitableForAttackUnitsFinderImpl finder = new SuitableForAttackUnitsFinderImpl(false);
+    private final Unit[] buffer = new Unit[3];
+    private List<List<Unit>> unitsByRow;
+
+    @Setup
+    public void setUp() {
+        Army computerArmy = BenchmarkFixtures.preset(armyPoints, BenchmarkFixtures.SEED, false);
+        unitsByRow = new ArrayList<>();
+        for (int x = 0; x < 3; x++) {
+            List<Unit> row = new ArrayList<>();
+            for (Unit unit : computerArmy.getUnits()) {
+                if (unit.getxCoordinate() == x) {
+                    row.add(unit);
+                }
+            }
+            unitsByRow.add(row);
+        }
+    }
+
+    @Benchmark
+    public List<Unit> getSuitableUnitsByRows() {
+        return finder.getSuitableUnits(unitsByRow, true);
+    }
+
+    @Benchmark
+    public int findSuitableUnitsIntoBuffer() {
+        return finder.findSuitableUnits(unitsByRow, true, buffer);
+    }
+
+    @Benchmark
+    public Unit findFirstSuitableUnit() {
+        return finder.findFirstSuitableUnit(unitsByRow, true);
+    }
+}
@@ -0,0 +1,322 @@
+package main.java.com.heroes_task.programs;
+
+import com.battle.heroes.army.Unit;
+import com.battle.heroes.army.programs.Edge;
+import com.battle.heroes.army.programs.UnitTargetPathFinder;
+import main.java.com.heroes_task.programs.events.BattleEventSink;
+import main.java.com.heroes_task.programs.events.ConsoleBattleEventSink;
+import main.java.com.heroes_task.programs.metrics.BattleMetrics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Поиск пути A* с манхэттенской эвристикой для больших полей (200 x 200 и больше).
+ * <p>
+ * Манхэттенское расстояние не превышает длину кратчайшего пути по 4-связной сетке
+ * и согласовано с весом ребер 1, поэтому A* возвращает путь той же длины, что и
+ * {@link UnitTargetPathFinderImpl}, и не раскрывает клетку дважды. Из клеток с равной
+ * оценкой первой раскрывается более удаленная от старта: на свободном поле поиск идет
+ * прямо к цели и раскрывает порядка L клеток вместо всего поля, где L — длина пути.
+ * Цена поиска растет с длиной пути и плотностью препятствий, а не с площадью поля.
+ * Если цель недостижима, раскрывается вся достижимая область, как и у поиска Дейкстры.
+ * <p>
+ * Рабочие массивы размером с поле выделяются один раз на поток и очищаются не заполнением,
+ * а сменой номера поиска, поэтому подготовка вызова стоит O(N) по количеству юнитов.
+ * Занятые клетки берутся из списка юнитов. Из нескольких кратчайших путей может быть
+ * выбран другой, чем у {@link UnitTargetPathFinderImpl}.
+ */
+public class AStarUnitTargetPathFinderImpl implements UnitTargetPathFinder {
+    private final BattlefieldGrid grid;
+    private final BattleEventSink eventSink;
+    private final ThreadLocal<Scratch> scratch;
+    private BattleMetrics metrics;
+
+    /**
+     * Создает поиск пути.
+     *
+     * @param grid           Размеры поля.
+     * @param loggingEnabled true, если ход поиска нужно выводить в консоль.
+     */
+    public AStarUnitTargetPathFinderImpl(BattlefieldGrid grid, boolean loggingEnabled) {
+        this(grid, loggingEnabled ? new ConsoleBattleEventSink() : BattleEventSink.NONE);
+    }
+
+    /**
+     * Создает поиск пути с передачей событий получателю.
+     *
+     * @param grid      Размеры поля.
+     * @param eventSink Получатель событий.
+     */
+    public AStarUnitTargetPathFinderImpl(BattlefieldGrid grid, BattleEventSink eventSink) {
+        if (grid == null) {
+            throw new IllegalArgumentException("Размеры поля не заданы");
+        }
+        this.grid = grid;
+        this.eventSink = eventSink;
+        this.scratch = ThreadLocal.withInitial(() -> new Scratch(grid.getCells()));
+    }
+
+    /**
+     * Подключает метрики поиска пути: количество раскрытых клеток и длину пути.
+     *
+     * @param metrics Метрики или null, чтобы не собирать метрики.
+     */
+    public void setMetrics(BattleMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Находит путь от атакующего юнита до целевого, избегая занятых клеток.
+     *
+     * @param attackUnit       Юнит, начинающий движение.
+     * @param targetUnit       Целевой юнит.
+     * @param existingUnitList Список всех юнитов на поле.
+     * @return Список клеток (Edge), составляющих путь.
+     * @complexity Временная сложность: O(N + E * log E), где N — количество юнитов, E — количество
+     * раскрытых клеток: порядка L на свободном поле, не больше WIDTH * HEIGHT в худшем случае.
+     * Дополнительная память на вызов: O(L) под результат, где L — длина пути.
+     */
+    @Override
+    public List<Edge> getTargetPath(Unit attackUnit, Unit targetUnit, List<Unit> existingUnitList) {
+        if (eventSink.isMessageEnabled()) {
+            log("Начало поиска пути для юнита: " + attackUnit.getName());
+        }
+        int start = grid.cellOf(attackUnit.getxCoordinate(), attackUnit.getyCoordinate());
+        int target = grid.cellOf(targetUnit.getxCoordinate(), targetUnit.getyCoordinate());
+        if (start < 0 || target < 0) {
+            log("Путь не найден. Юнит вне игрового поля");
+            return Collections.emptyList();
+        }
+
+        Scratch scratch = this.scratch.get();
+        scratch.nextSearch();
+        markOccupiedCells(scratch, existingUnitList, attackUnit, targetUnit);
+
+        List<Edge> path = search(scratch, start, target) ? constructPath(scratch, start, target) : Collections.emptyList();
+        if (metrics != null) {
+            metrics.recordPathSearch(scratch.expanded, path.size());
+        }
+        eventSink.onPathFound(attackUnit, targetUnit, path.size());
+        return path;
+    }
+
+    /**
+     * @return Размеры поля поиска пути.
+     */
+    public BattlefieldGrid getGrid() {
+        return grid;
+    }
+
+    /**
+     * Отмечает занятые клетки номером текущего поиска.
+     *
+     * @complexity Временная сложность: O(N), где N — количество юнитов.
+     */
+    private void markOccupiedCells(Scratch scratch, List<Unit> existingUnitList, Unit attackUnit, Unit targetUnit) {
+        int[] blocked = scratch.blocked;
+        int stamp = scratch.stamp;
+        for (int i = 0, size = existingUnitList.size(); i < size; i++) {
+            Unit unit = existingUnitList.get(i);
+            if (unit.isAlive() && unit != attackUnit && unit != targetUnit) {
+                int cell = grid.cellOf(unit.getxCoordinate(), unit.getyCoordinate());
+                if (cell >= 0) {
+                    blocked[cell] = stamp;
+                }
+            }
+        }
+    }
+
+    /**
+     * Ищет путь A* от стартовой клетки до целевой.
+     * Соседи перебираются в том же порядке, что и в {@link UnitTargetPathFinderImpl}.
+     *
+     * @return true, если цель достигнута.
+     * @complexity Временная сложность: O(E * log E), где E — количество раскрытых клеток.
+     */
+    private boolean search(Scratch scratch, int start, int target) {
+        int width = grid.getWidth();
+        int height = grid.getHeight();
+        int targetX = target / height;
+        int targetY = target - targetX * height;
+        int[] distance = scratch.distance;
+        int[] seen = scratch.seen;
+        int[] closed = scratch.closed;
+        int stamp = scratch.stamp;
+
+        seen[start] = stamp;
+        distance[start] = 0;
+        scratch.push(start, 0, manhattan(start / height, start % height, targetX, targetY));
+        int expanded = 0;
+        while (scratch.heapSize > 0) {
+            int current = scratch.pop();
+            if (closed[current] == stamp) {
+                continue; // Устаревшая запись кучи: клетка уже раскрыта с меньшей оценкой
+            }
+            closed[current] = stamp;
+            expanded++;
+            if (current == target) {
+                scratch.expanded = expanded;
+                return true;
+            }
+            int x = current / height;
+            int y = current - x * height;
+            int next = distance[current] + 1;
+            if (x > 0) {
+                relax(scratch, current, current - height, next, manhattan(x - 1, y, targetX, targetY));
+            }
+            if (x < width - 1) {
+                relax(scratch, current, current + height, next, manhattan(x + 1, y, targetX, targetY));
+            }
+            if (y > 0) {
+                relax(scratch, current, current - 1, next, manhattan(x, y - 1, targetX, targetY));
+            }
+            if (y < height - 1) {
+                relax(scratch, current, current + 1, next, manhattan(x, y + 1, targetX, targetY));
+            }
+        }
+        scratch.expanded = expanded;
+        return false;
+    }
+
+    /**
+     * Ставит соседнюю клетку в кучу, если она свободна и путь до нее короче известного.
+     *
+     * @complexity Временная сложность: O(log E).
+     */
+    private static void relax(Scratch scratch, int current, int neighbor, int distance, int heuristic) {
+        int stamp = scratch.stamp;
+        if (scratch.blocked[neighbor] == stamp || scratch.closed[neighbor] == stamp) {
+            return;
+        }
+        if (scratch.seen[neighbor] == stamp && scratch.distance[neighbor] <= distance) {
+            return;
+        }
+        scratch.seen[neighbor] = stamp;
+        scratch.distance[neighbor] = distance;
+        scratch.previous[neighbor] = current;
+        scratch.push(neighbor, distance, distance + heuristic);
+    }
+
+    private static int manhattan(int x, int y, int targetX, int targetY) {
+        return Math.abs(x - targetX) + Math.abs(y - targetY);
+    }
+
+    /**
+     * Строит путь от начальной до целевой клетки по массиву предшественников.
+     *
+     * @complexity Временная сложность: O(L), где L — длина пути.
+     */
+    private List<Edge> constructPath(Scratch scratch, int start, int target) {
+        int height = grid.getHeight();
+        Edge[] path = new Edge[scratch.distance[target] + 1];
+        int cell = target;
+        for (int i = path.length - 1; i > 0; i--) {
+            path[i] = new Edge(cell / height, cell % height);
+            cell = scratch.previous[cell];
+        }
+        path[0] = new Edge(start / height, start % height);
+        return new ArrayList<>(Arrays.asList(path));
+    }
+
+    /**
+     * Передает текстовое сообщение получателю событий, если он их обрабатывает.
+     *
+     * @param message Сообщение.
+     */
+    private void log(String message) {
+        if (eventSink.isMessageEnabled()) {
+            eventSink.onMessage(message);
+        }
+    }
+
+    /**
+     * Рабочие массивы одного потока. Клетка считается занятой, посещенной или раскрытой,
+     * если в соответствующем массиве записан номер текущего поиска.
+     * Куча — двоичная, с ключом (оценка, -расстояние от старта) в одном {@code long}.
+     */
+    private static final class Scratch {
+        final int[] distance;
+        final int[] previous;
+        final int[] seen;
+        final int[] closed;
+        final int[] blocked;
+        long[] heapKeys;
+        int[] heapCells;
+        int heapSize;
+        int stamp;
+        int expanded;
+
+        Scratch(int cells) {
+            distance = new int[cells];
+            previous = new int[cells];
+            seen = new int[cells];
+            closed = new int[cells];
+            blocked = new int[cells];
+            heapKeys = new long[Math.min(cells, 1024) + 1];
+            heapCells = new int[heapKeys.length];
+        }
+
+        /**
+         * Начинает новый поиск. При переполнении номера массивы очищаются.
+         */
+        void nextSearch() {
+            heapSize = 0;
+            expanded = 0;
+            if (++stamp == 0) {
+                Arrays.fill(seen, 0);
+                Arrays.fill(closed, 0);
+                Arrays.fill(blocked, 0);
+                stamp = 1;
+            }
+        }
+
+        void push(int cell, int distance, int estimate) {
+            if (heapSize == heapKeys.length) {
+                heapKeys = Arrays.copyOf(heapKeys, heapSize * 2);
+                heapCells = Arrays.copyOf(heapCells, heapSize * 2);
+            }
+            long key = (long) estimate << 32 | (0xFFFF_FFFFL & ~distance); // При равной оценке — дальше от старта
+            int index = heapSize++;
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                if (heapKeys[parent] <= key) {
+                    break;
+                }
+                heapKeys[index] = heapKeys[parent];
+                heapCells[index] = heapCells[parent];
+                index = parent;
+            }
+            heapKeys[index] = key;
+            heapCells[index] = cell;
+        }
+
+        int pop() {
+            int top = heapCells[0];
+            int size = --heapSize;
+            long key = heapKeys[size];
+            int cell = heapCells[size];
+            int index = 0;
+            while (true) {
+                int child = 2 * index + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && heapKeys[child + 1] < heapKeys[child]) {
+                    child++;
+                }
+                if (heapKeys[child] >= key) {
+                    break;
+                }
+                heapKeys[index] = heapKeys[child];
+                heapCells[index] = heapCells[child];
+                index = child;
+            }
+            heapKeys[index] = key;
+            heapCells[index] = cell;
+            return top;
+        }
+    }
+}
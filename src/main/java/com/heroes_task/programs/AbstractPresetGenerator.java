@@ -0,0 +1,201 @@
+package main.java.com.heroes_task.programs;
+
+import com.battle.heroes.army.Army;
+import com.battle.heroes.army.Unit;
+import com.battle.heroes.army.programs.GeneratePreset;
+import main.java.com.heroes_task.programs.events.BattleEventSink;
+import main.java.com.heroes_task.programs.events.ConsoleBattleEventSink;
+import main.java.com.heroes_task.programs.metrics.BattleMetrics;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Общая часть генераторов армии: создание экземпляров юнитов по прототипам
+ * и расстановка их в зоне развертывания компьютера.
+ */
+public abstract class AbstractPresetGenerator implements GeneratePreset {
+    /** Максимальное количество экземпляров одного типа юнита в армии. */
+    public static final int MAX_UNITS_PER_TYPE = 11;
+    /** Ширина зоны развертывания на поле по умолчанию (координаты x от 0 до 2). */
+    public static final int DEPLOYMENT_WIDTH = 3;
+    /** Высота зоны развертывания на поле по умолчанию (координаты y от 0 до 20). */
+    public static final int DEPLOYMENT_HEIGHT = 21;
+    /** Количество клеток зоны развертывания на поле по умолчанию. */
+    public static final int DEPLOYMENT_CELLS = DEPLOYMENT_WIDTH * DEPLOYMENT_HEIGHT;
+
+    private final BattleEventSink eventSink;
+    private SplittableRandom random = new SplittableRandom();
+    private BattlefieldGrid battlefield = BattlefieldGrid.DEFAULT;
+    private BattleMetrics metrics;
+
+    /**
+     * @param loggingEnabled true, если ход генерации нужно выводить в консоль.
+     */
+    protected AbstractPresetGenerator(boolean loggingEnabled) {
+        this(loggingEnabled ? new ConsoleBattleEventSink() : BattleEventSink.NONE);
+    }
+
+    /**
+     * @param eventSink Получатель событий генерации.
+     */
+    protected AbstractPresetGenerator(BattleEventSink eventSink) {
+        this.eventSink = eventSink;
+    }
+
+    /**
+     * @return Получатель событий генерации.
+     */
+    protected BattleEventSink getEventSink() {
+        return eventSink;
+    }
+
+    /**
+     * Устанавливает генератор случайных чисел, по которому расставляются юниты.
+     * С генератором, созданным из зерна, одинаковые входные данные дают одинаковую армию.
+     * По умолчанию используется генератор без зерна.
+     *
+     * @param random Генератор случайных чисел.
+     */
+    public void setRandom(SplittableRandom random) {
+        if (random == null) {
+            throw new IllegalArgumentException("Генератор случайных чисел не задан");
+        }
+        this.random = random;
+    }
+
+    /**
+     * @return Генератор случайных чисел генератора армии.
+     */
+    protected SplittableRandom getRandom() {
+        return random;
+    }
+
+    /**
+     * Устанавливает размеры поля, по зоне развертывания которого расставляются юниты.
+     * По умолчанию — поле игры {@link BattlefieldGrid#DEFAULT}.
+     *
+     * @param battlefield Размеры поля.
+     */
+    public void setBattlefield(BattlefieldGrid battlefield) {
+        if (battlefield == null) {
+            throw new IllegalArgumentException("Размеры поля не заданы");
+        }
+        this.battlefield = battlefield;
+    }
+
+    /**
+     * @return Размеры поля генератора армии.
+     */
+    public BattlefieldGrid getBattlefield() {
+        return battlefield;
+    }
+
+    /**
+     * Подключает метрики генерации: использование лимита очков.
+     *
+     * @param metrics Метрики или null, чтобы не собирать метрики.
+     */
+    public void setMetrics(BattleMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Сообщает о готовой армии получателю событий и учитывает использование очков в метриках.
+     *
+     * @param army      Сгенерированная армия.
+     * @param maxPoints Лимит очков.
+     */
+    protected void presetBuilt(Army army, int maxPoints) {
+        if (metrics != null) {
+            metrics.recordPreset(army.getPoints(), maxPoints);
+        }
+        eventSink.onPresetBuilt(army, maxPoints);
+    }
+
+    /**
+     * @return true, если получатель событий обрабатывает текстовые сообщения.
+     */
+    protected boolean isLoggingEnabled() {
+        return eventSink.isMessageEnabled();
+    }
+
+    /**
+     * Добавляет указанный юнит в армию.
+     *
+     * @param unit          Юнит.
+     * @param unitsToAdd    Количество экземпляров.
+     * @param selectedUnits Список выбранных юнитов.
+     */
+    protected void addUnitsToArmy(Unit unit, int unitsToAdd, List<Unit> selectedUnits) {
+        for (int i = 0; i < unitsToAdd; i++) {
+            Unit newUnit = createNewUnit(unit, i);
+            selectedUnits.add(newUnit);
+            if (isLoggingEnabled()) {
+                log("Добавлен юнит: " + newUnit.getName() + ".");
+            }
+        }
+    }
+
+    /**
+     * Создает новый экземпляр юнита с уникальным именем.
+     *
+     * @param unit  Прототип юнита.
+     * @param index Индекс юнита.
+     * @return Новый юнит.
+     */
+    protected Unit createNewUnit(Unit unit, int index) {
+        Unit newUnit = new Unit(unit.getName(), unit.getUnitType(), unit.getHealth(),
+                unit.getBaseAttack(), unit.getCost(), unit.getAttackType(),
+                unit.getAttackBonuses(), unit.getDefenceBonuses(), -1, -1);
+        newUnit.setName(unit.getUnitType() + " " + index);
+        return newUnit;
+    }
+
+    /**
+     * Назначает случайные координаты всем юнитам из списка выборкой без возвращения
+     * по клеткам зоны развертывания (частичное перемешивание Фишера — Йетса):
+     * каждая клетка выбирается ровно за один вызов генератора, без повторных попыток.
+     *
+     * @param units Список юнитов.
+     *
+     * Сложность: O(D + n), где D — количество клеток зоны развертывания, n — количество юнитов.
+     */
+    protected void assignCoordinates(List<Unit> units) {
+        int deploymentCells = battlefield.getDeploymentCells();
+        int deploymentHeight = battlefield.getHeight();
+        if (units.size() > deploymentCells) {
+            throw new IllegalArgumentException("Юнитов больше, чем клеток зоны развертывания: " + units.size());
+        }
+        int[] cells = new int[deploymentCells];
+        for (int i = 0; i < deploymentCells; i++) {
+            cells[i] = i;
+        }
+        for (int i = 0; i < units.size(); i++) {
+            int j = i + random.nextInt(deploymentCells - i); // O(1)
+            int cell = cells[j];
+            cells[j] = cells[i];
+            cells[i] = cell;
+
+            Unit unit = units.get(i);
+            int coordX = cell / deploymentHeight;
+            int coordY = cell % deploymentHeight;
+            if (isLoggingEnabled()) {
+                log("Юнит " + unit.getName() + " получил координаты (" + coordX + ", " + coordY + ").");
+            }
+            unit.setxCoordinate(coordX);
+            unit.setyCoordinate(coordY);
+        }
+    }
+
+    /**
+     * Передает текстовое сообщение получателю событий, если он их обрабатывает.
+     *
+     * @param message Сообщение.
+     */
+    protected void log(String message) {
+        if (eventSink.isMessageEnabled()) {
+            eventSink.onMessage(message);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package main.java.com.heroes_task.programs;
+
+/**
+ * Итог боя между армией игрока и армией компьютера.
+ */
+public enum BattleOutcome {
+    /** Армия компьютера уничтожена. */
+    PLAYER_WON,
+    /** Армия игрока уничтожена. */
+    COMPUTER_WON,
+    /** Бой остановлен по лимиту раундов, обе армии живы. */
+    DRAW
+}
@@ -0,0 +1,90 @@
+package main.java.com.heroes_task.programs;
+
+import java.util.Objects;
+
+/**
+ * Результат одного боя, возвращаемый {@link SimulateBattleImpl#simulateBattle}.
+ */
+public final class BattleResult {
+
+    private final BattleOutcome outcome;
+    private final int rounds;
+    private final int playerSurvivors;
+    private final int playerSurvivingHealth;
+    private final int computerSurvivors;
+    private final int computerSurvivingHealth;
+
+    /**
+     * Создает результат боя.
+     *
+     * @param outcome                 Итог боя.
+     * @param rounds                  Количество сыгранных раундов.
+     * @param playerSurvivors         Количество выживших юнитов игрока.
+     * @param playerSurvivingHealth   Суммарное здоровье выживших юнитов игрока.
+     * @param computerSurvivors       Количество выживших юнитов компьютера.
+     * @param computerSurvivingHealth Суммарное здоровье выживших юнитов компьютера.
+     */
+    public BattleResult(BattleOutcome outcome, int rounds,
+                        int playerSurvivors, int playerSurvivingHealth,
+                        int computerSurvivors, int computerSurvivingHealth) {
+        this.outcome = outcome;
+        this.rounds = rounds;
+        this.playerSurvivors = playerSurvivors;
+        this.playerSurvivingHealth = playerSurvivingHealth;
+        this.computerSurvivors = computerSurvivors;
+        this.computerSurvivingHealth = computerSurvivingHealth;
+    }
+
+    public BattleOutcome getOutcome() {
+        return outcome;
+    }
+
+    public int getRounds() {
+        return rounds;
+    }
+
+    public int getPlayerSurvivors() {
+        return playerSurvivors;
+    }
+
+    public int getPlayerSurvivingHealth() {
+        return playerSurvivingHealth;
+    }
+
+    public int getComputerSurvivors() {
+        return computerSurvivors;
+    }
+
+    public int getComputerSurvivingHealth() {
+        return computerSurvivingHealth;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof BattleResult)) {
+            return false;
+        }
+        BattleResult result = (BattleResult) other;
+        return outcome == result.outcome && rounds == result.rounds
+                && playerSurvivors == result.playerSurvivors
+                && playerSurvivingHealth == result.playerSurvivingHealth
+                && computerSurvivors == result.computerSurvivors
+                && computerSurvivingHealth == result.computerSurvivingHealth;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(outcome, rounds, playerSurvivors, playerSurvivingHealth,
+                computerSurvivors, computerSurvivingHealth);
+    }
+
+    @Override
+    public String toString() {
+        return "BattleResult{outcome=" + outcome + ", rounds=" + rounds
+                + ", playerSurvivors=" + playerSurvivors + ", playerSurvivingHealth=" + playerSurvivingHealth
+                + ", computerSurvivors=" + computerSurvivors + ", computerSurvivingHealth=" + computerSurvivingHealth + "}";
+    }
+}
@@ -0,0 +1,92 @@
+package main.java.com.heroes_task.programs;
+
+/**
+ * Размеры игрового поля и зоны развертывания армии компьютера.
+ * Зона развертывания — левые колонки поля на всю его высоту.
+ * Клетка поля имеет индекс {@code x * height + y}, как во всех поисках пути.
+ * <p>
+ * Индекс занятости, симуляция боя и эволюционный генератор работают только с полем
+ * по умолчанию; поиск пути {@link UnitTargetPathFinderImpl}, {@link AStarUnitTargetPathFinderImpl}
+ * и расстановка жадным и рюкзачным генераторами принимают поле любого размера.
+ */
+public final class BattlefieldGrid {
+    /** Поле игры: 27 x 21 клеток, зона развертывания из 3 колонок. */
+    public static final BattlefieldGrid DEFAULT = new BattlefieldGrid(
+            UnitTargetPathFinderImpl.WIDTH, UnitTargetPathFinderImpl.HEIGHT, AbstractPresetGenerator.DEPLOYMENT_WIDTH);
+
+    private final int width;
+    private final int height;
+    private final int deploymentWidth;
+
+    /**
+     * @param width           Ширина поля в клетках.
+     * @param height          Высота поля в клетках.
+     * @param deploymentWidth Количество колонок зоны развертывания; от 1 до ширины поля.
+     */
+    public BattlefieldGrid(int width, int height, int deploymentWidth) {
+        if (width < 1 || height < 1) {
+            throw new IllegalArgumentException("Размеры поля должны быть положительными: " + width + " x " + height);
+        }
+        if ((long) width * height > Integer.MAX_VALUE / 4) {
+            throw new IllegalArgumentException("Поле слишком велико: " + width + " x " + height);
+        }
+        if (deploymentWidth < 1 || deploymentWidth > width) {
+            throw new IllegalArgumentException("Ширина зоны развертывания должна быть от 1 до " + width + ": "
+                    + deploymentWidth);
+        }
+        this.width = width;
+        this.height = height;
+        this.deploymentWidth = deploymentWidth;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getDeploymentWidth() {
+        return deploymentWidth;
+    }
+
+    /**
+     * @return Количество клеток поля.
+     */
+    public int getCells() {
+        return width * height;
+    }
+
+    /**
+     * @return Количество клеток зоны развертывания.
+     */
+    public int getDeploymentCells() {
+        return deploymentWidth * height;
+    }
+
+    /**
+     * Возвращает индекс клетки.
+     *
+     * @return Индекс клетки или -1, если координаты вне поля.
+     */
+    public int cellOf(int x, int y) {
+        if (x < 0 || x >= width || y < 0 || y >= height) {
+            return -1;
+        }
+        return x * height + y;
+    }
+
+    /**
+     * @return true, если размеры поля и зоны развертывания совпадают с полем игры {@link #DEFAULT}.
+     */
+    public boolean isDefault() {
+        return width == UnitTargetPathFinderImpl.WIDTH && height == UnitTargetPathFinderImpl.HEIGHT
+                && deploymentWidth == AbstractPresetGenerator.DEPLOYMENT_WIDTH;
+    }
+
+    @Override
+    public String toString() {
+        return width + " x " + height + ", зона развертывания " + deploymentWidth;
+    }
+}
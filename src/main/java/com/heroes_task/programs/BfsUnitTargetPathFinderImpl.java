@@ -0,0 +1,386 @@
+package main.java.com.heroes_task.programs;
+
+import com.battle.heroes.army.Unit;
+import com.battle.heroes.army.programs.Edge;
+import com.battle.heroes.army.programs.UnitTargetPathFinder;
+import main.java.com.heroes_task.programs.events.BattleEventSink;
+import main.java.com.heroes_task.programs.events.ConsoleBattleEventSink;
+import main.java.com.heroes_task.programs.metrics.BattleMetrics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static main.java.com.heroes_task.programs.UnitTargetPathFinderImpl.HEIGHT;
+import static main.java.com.heroes_task.programs.UnitTargetPathFinderImpl.WIDTH;
+
+/**
+ * Поиск пути между юнитами без выделения памяти на каждый вызов.
+ * Все ребра сетки имеют вес 1, поэтому вместо алгоритма Дейкстры с очередью
+ * с приоритетом используется обход в ширину по кольцевой очереди.
+ * Клетки поля хранятся в плоских массивах с индексом {@code x * HEIGHT + y},
+ * занятые клетки — в битовой карте {@code long[]}. Рабочие массивы
+ * выделяются один раз на поток и переиспользуются между вызовами.
+ * <p>
+ * Возвращает кратчайший путь той же длины, что и {@link UnitTargetPathFinderImpl}:
+ * пустой список, если цель недостижима, и список из одной клетки, если юнит уже на ней.
+ * Из нескольких кратчайших путей может быть выбран другой.
+ */
+public class BfsUnitTargetPathFinderImpl implements UnitTargetPathFinder {
+    private static final int CELLS = WIDTH * HEIGHT; // Количество клеток поля
+
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    private final BattleEventSink eventSink;
+    private OccupancyIndex occupancyIndex;
+    private BattleMetrics metrics;
+
+    /**
+     * Создает поиск пути с выводом хода поиска в консоль.
+     */
+    public BfsUnitTargetPathFinderImpl() {
+        this(true);
+    }
+
+    /**
+     * Создает поиск пути.
+     *
+     * @param loggingEnabled true, если ход поиска нужно выводить в консоль.
+     */
+    public BfsUnitTargetPathFinderImpl(boolean loggingEnabled) {
+        this(loggingEnabled ? new ConsoleBattleEventSink() : BattleEventSink.NONE);
+    }
+
+    /**
+     * Создает поиск пути с передачей событий получателю.
+     *
+     * @param eventSink Получатель событий.
+     */
+    public BfsUnitTargetPathFinderImpl(BattleEventSink eventSink) {
+        this.eventSink = eventSink;
+    }
+
+    /**
+     * Устанавливает индекс занятости поля. Если индекс задан, битовая карта занятых клеток
+     * копируется из него, а список юнитов, переданный в {@link #getTargetPath}, не обходится.
+     * Индекс должен поддерживаться в актуальном состоянии симуляцией боя.
+     *
+     * @param occupancyIndex Индекс занятости поля или null.
+     */
+    public void setOccupancyIndex(OccupancyIndex occupancyIndex) {
+        this.occupancyIndex = occupancyIndex;
+    }
+
+    /**
+     * Подключает метрики поиска пути: количество раскрытых клеток и длину пути.
+     *
+     * @param metrics Метрики или null, чтобы не собирать метрики.
+     */
+    public void setMetrics(BattleMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Находит путь от атакующего юнита до целевого, избегая занятых клеток.
+     *
+     * @param attackUnit       Юнит, начинающий движение.
+     * @param targetUnit       Целевой юнит.
+     * @param existingUnitList Список всех юнитов на поле.
+     * @return Список клеток (Edge), составляющих путь.
+     * @complexity Временная сложность: O(N + WIDTH * HEIGHT), где N — количество юнитов;
+     * O(WIDTH * HEIGHT), если задан индекс занятости.
+     * Дополнительная память на вызов: O(L) под результат, где L — длина пути.
+     */
+    @Override
+    public List<Edge> getTargetPath(Unit attackUnit, Unit targetUnit, List<Unit> existingUnitList) {
+        if (eventSink.isMessageEnabled()) {
+            log("Начало поиска пути для юнита: " + attackUnit.getName());
+        }
+        int start = cellOf(attackUnit.getxCoordinate(), attackUnit.getyCoordinate());
+        int target = cellOf(targetUnit.getxCoordinate(), targetUnit.getyCoordinate());
+        if (start < 0 || target < 0) {
+            log("Путь не найден. Юнит вне игрового поля");
+            return Collections.emptyList();
+        }
+
+        Scratch scratch = SCRATCH.get();
+        scratch.nextSearch();
+        if (occupancyIndex == null) {
+            markOccupiedCells(scratch.occupied, existingUnitList, attackUnit, targetUnit);
+        } else {
+            copyOccupiedCells(scratch.occupied, start, target, attackUnit, targetUnit);
+        }
+
+        List<Edge> path = search(scratch, start, target) ? constructPath(scratch, start, target) : Collections.emptyList();
+        if (metrics != null) {
+            metrics.recordPathSearch(scratch.expanded, path.size());
+        }
+        eventSink.onPathFound(attackUnit, targetUnit, path.size());
+        return path;
+    }
+
+    /**
+     * Обходит в ширину клетки, достижимые от стартовой, по заданной карте занятых клеток,
+     * пока не будут обнаружены все клетки-цели. Занятые клетки, которых касается обход,
+     * получают предшественника и глубину, но не раскрываются. Поэтому для любого юнита,
+     * клетку которого коснулся обход, цепочка предшественников совпадает с путем, который
+     * {@link #getTargetPath} нашел бы при той же занятости: до извлечения цели из очереди
+     * цель тоже не раскрывается.
+     * <p>
+     * Обход останавливается при обнаружении последней цели на глубине D. К этому моменту
+     * обнаружены все клетки глубины меньше D, а все свободные клетки глубины меньше D - 1
+     * раскрыты. Если какая-то цель недостижима, обход проходит всю достижимую область.
+     * Карта не изменяется, поэтому метод можно вызывать из нескольких потоков
+     * с общей картой (см. {@link ParallelTurnPlanner}).
+     *
+     * @param occupied    Битовая карта занятых клеток; клетка атакующего считается свободной.
+     * @param start       Клетка атакующего.
+     * @param targets     Битовая карта клеток-целей.
+     * @param targetCount Количество клеток-целей в карте.
+     * @param previous    Массив длиной WIDTH * HEIGHT; получает предшественников обнаруженных клеток.
+     * @param depth       Массив длиной WIDTH * HEIGHT; получает глубину обнаруженных клеток, -1 для остальных.
+     * @complexity Временная сложность: O(WIDTH * HEIGHT) в худшем случае; O(r) при остановке,
+     * где r — количество клеток, обнаруженных до последней цели.
+     */
+    static void explore(long[] occupied, int start, long[] targets, int targetCount, int[] previous, short[] depth) {
+        int[] queue = SCRATCH.get().queue;
+        Arrays.fill(depth, (short) -1);
+        int head = 0;
+        int tail = 0;
+        depth[start] = 0;
+        queue[tail++] = start;
+        int remaining = targetCount - ((targets[start >>> 6] & (1L << start)) != 0 ? 1 : 0);
+        while (head != tail && remaining > 0) {
+            int current = queue[head++];
+            if (current != start && (occupied[current >>> 6] & (1L << current)) != 0) {
+                continue; // Клетка юнита: путь может закончиться в ней, но не пройти через нее
+            }
+            int x = current / HEIGHT;
+            int y = current - x * HEIGHT;
+            int discovered = tail;
+            if (x > 0) {
+                tail = discover(current, current - HEIGHT, previous, depth, queue, tail);
+            }
+            if (x < WIDTH - 1) {
+                tail = discover(current, current + HEIGHT, previous, depth, queue, tail);
+            }
+            if (y > 0) {
+                tail = discover(current, current - 1, previous, depth, queue, tail);
+            }
+            if (y < HEIGHT - 1) {
+                tail = discover(current, current + 1, previous, depth, queue, tail);
+            }
+            for (int i = discovered; i < tail; i++) {
+                int cell = queue[i];
+                if ((targets[cell >>> 6] & (1L << cell)) != 0) {
+                    remaining--;
+                }
+            }
+        }
+    }
+
+    /**
+     * Строит путь по предшественникам, записанным {@link #explore}.
+     *
+     * @return Список клеток пути или пустой список, если обход не коснулся цели.
+     * @complexity Временная сложность: O(L), где L — длина пути.
+     */
+    static List<Edge> constructPath(int[] previous, short[] depth, int start, int target) {
+        if (depth[target] < 0) {
+            return Collections.emptyList();
+        }
+        Edge[] path = new Edge[depth[target] + 1];
+        int cell = target;
+        for (int i = path.length - 1; i > 0; i--) {
+            path[i] = new Edge(cell / HEIGHT, cell % HEIGHT);
+            cell = previous[cell];
+        }
+        path[0] = new Edge(start / HEIGHT, start % HEIGHT);
+        return new ArrayList<>(Arrays.asList(path));
+    }
+
+    private static int discover(int current, int neighbor, int[] previous, short[] depth, int[] queue, int tail) {
+        if (depth[neighbor] < 0) {
+            depth[neighbor] = (short) (depth[current] + 1);
+            previous[neighbor] = current;
+            queue[tail++] = neighbor;
+        }
+        return tail;
+    }
+
+    /**
+     * Заполняет битовую карту занятых клеток.
+     *
+     * @param occupied         Битовая карта занятых клеток.
+     * @param existingUnitList Список юнитов на поле.
+     * @param attackUnit       Атакующий юнит.
+     * @param targetUnit       Целевой юнит.
+     * @complexity Временная сложность: O(N + WIDTH * HEIGHT / 64), где N — количество юнитов.
+     */
+    private void markOccupiedCells(long[] occupied, List<Unit> existingUnitList, Unit attackUnit, Unit targetUnit) {
+        Arrays.fill(occupied, 0L);
+        for (int i = 0, size = existingUnitList.size(); i < size; i++) {
+            Unit unit = existingUnitList.get(i);
+            if (unit.isAlive() && unit != attackUnit && unit != targetUnit) {
+                int cell = cellOf(unit.getxCoordinate(), unit.getyCoordinate());
+                if (cell >= 0) {
+                    occupied[cell >>> 6] |= 1L << cell;
+                }
+            }
+        }
+    }
+
+    /**
+     * Копирует битовую карту занятых клеток из индекса и освобождает клетки атакующего и цели.
+     *
+     * @param occupied   Битовая карта занятых клеток.
+     * @param start      Клетка атакующего.
+     * @param target     Клетка цели.
+     * @param attackUnit Атакующий юнит.
+     * @param targetUnit Целевой юнит.
+     * @complexity Временная сложность: O(WIDTH * HEIGHT / 64).
+     */
+    private void copyOccupiedCells(long[] occupied, int start, int target, Unit attackUnit, Unit targetUnit) {
+        occupancyIndex.copyOccupiedCells(occupied);
+        if (occupancyIndex.getUnitAt(attackUnit.getxCoordinate(), attackUnit.getyCoordinate()) == attackUnit) {
+            occupied[start >>> 6] &= ~(1L << start);
+        }
+        if (occupancyIndex.getUnitAt(targetUnit.getxCoordinate(), targetUnit.getyCoordinate()) == targetUnit) {
+            occupied[target >>> 6] &= ~(1L << target);
+        }
+    }
+
+    /**
+     * Обходит поле в ширину от стартовой клетки до целевой.
+     * Соседи перебираются в том же порядке, что и в {@link UnitTargetPathFinderImpl}.
+     *
+     * @param scratch Рабочие массивы потока.
+     * @param start   Стартовая клетка.
+     * @param target  Целевая клетка.
+     * @return true, если цель достигнута.
+     * @complexity Временная сложность: O(WIDTH * HEIGHT).
+     */
+    private boolean search(Scratch scratch, int start, int target) {
+        int[] seen = scratch.seen;
+        int[] previous = scratch.previous;
+        int[] queue = scratch.queue;
+        long[] occupied = scratch.occupied;
+        int stamp = scratch.stamp;
+
+        int head = 0;
+        int tail = 0;
+        seen[start] = stamp;
+        queue[tail++] = start;
+        while (head != tail) {
+            int current = queue[head++];
+            if (current == target) {
+                scratch.expanded = head;
+                return true;
+            }
+            int x = current / HEIGHT;
+            int y = current - x * HEIGHT;
+            if (x > 0) {
+                tail = visit(current, current - HEIGHT, seen, previous, queue, occupied, stamp, tail);
+            }
+            if (x < WIDTH - 1) {
+                tail = visit(current, current + HEIGHT, seen, previous, queue, occupied, stamp, tail);
+            }
+            if (y > 0) {
+                tail = visit(current, current - 1, seen, previous, queue, occupied, stamp, tail);
+            }
+            if (y < HEIGHT - 1) {
+                tail = visit(current, current + 1, seen, previous, queue, occupied, stamp, tail);
+            }
+        }
+        scratch.expanded = head;
+        return false;
+    }
+
+    /**
+     * Ставит соседнюю клетку в очередь, если она свободна и еще не посещена.
+     * Каждая клетка попадает в очередь не более одного раза, поэтому очередь
+     * размером WIDTH * HEIGHT не переполняется.
+     *
+     * @return Новый конец очереди.
+     * @complexity Временная сложность: O(1).
+     */
+    private static int visit(int current, int neighbor, int[] seen, int[] previous, int[] queue,
+                             long[] occupied, int stamp, int tail) {
+        if (seen[neighbor] != stamp && (occupied[neighbor >>> 6] & (1L << neighbor)) == 0) {
+            seen[neighbor] = stamp;
+            previous[neighbor] = current;
+            queue[tail++] = neighbor;
+        }
+        return tail;
+    }
+
+    /**
+     * Строит путь от начальной до целевой клетки по массиву предшественников.
+     *
+     * @param scratch Рабочие массивы потока.
+     * @param start   Стартовая клетка.
+     * @param target  Целевая клетка.
+     * @return Список клеток пути.
+     * @complexity Временная сложность: O(L), где L — длина пути.
+     */
+    private List<Edge> constructPath(Scratch scratch, int start, int target) {
+        int[] reversed = scratch.queue; // Очередь обхода больше не нужна
+        int length = 0;
+        for (int cell = target; cell != start; cell = scratch.previous[cell]) {
+            reversed[length++] = cell;
+        }
+        reversed[length++] = start;
+
+        List<Edge> path = new ArrayList<>(length);
+        for (int i = length - 1; i >= 0; i--) {
+            int cell = reversed[i];
+            path.add(new Edge(cell / HEIGHT, cell % HEIGHT));
+        }
+        return path;
+    }
+
+    /**
+     * Возвращает индекс клетки в плоских массивах.
+     *
+     * @return Индекс клетки или -1, если координаты вне поля.
+     * @complexity Временная сложность: O(1).
+     */
+    static int cellOf(int x, int y) {
+        if (x < 0 || x >= WIDTH || y < 0 || y >= HEIGHT) {
+            return -1;
+        }
+        return x * HEIGHT + y;
+    }
+
+    /**
+     * Передает текстовое сообщение получателю событий, если он их обрабатывает.
+     *
+     * @param message Сообщение.
+     */
+    private void log(String message) {
+        if (eventSink.isMessageEnabled()) {
+            eventSink.onMessage(message);
+        }
+    }
+
+    /**
+     * Рабочие массивы одного потока. Отметки посещения сравниваются с номером
+     * текущего поиска, поэтому массивы не очищаются между вызовами.
+     */
+    private static final class Scratch {
+        final int[] seen = new int[CELLS];
+        final int[] previous = new int[CELLS];
+        final int[] queue = new int[CELLS];
+        final long[] occupied = new long[(CELLS + 63) >>> 6];
+        int stamp;
+        int expanded; // Количество раскрытых клеток последнего поиска
+
+        void nextSearch() {
+            if (++stamp == 0) {
+                Arrays.fill(seen, 0);
+                stamp = 1;
+            }
+        }
+    }
+}
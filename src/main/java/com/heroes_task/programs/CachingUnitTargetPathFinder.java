@@ -0,0 +1,259 @@
+package main.java.com.heroes_task.programs;
+
+import com.battle.heroes.army.Unit;
+import com.battle.heroes.army.programs.Edge;
+import com.battle.heroes.army.programs.UnitTargetPathFinder;
+import main.java.com.heroes_task.programs.events.BattleEventSink;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static main.java.com.heroes_task.programs.UnitTargetPathFinderImpl.HEIGHT;
+import static main.java.com.heroes_task.programs.UnitTargetPathFinderImpl.WIDTH;
+
+/**
+ * Кэш путей перед любым поиском пути с вытеснением давно не использованных записей (LRU).
+ * <p>
+ * Путь зависит только от клеток атакующего и цели и от набора занятых клеток, поэтому
+ * ключ записи — хэш Зобриста занятости поля из {@link OccupancyIndex#getOccupancyHash()},
+ * смешанный с ключами стартовой и целевой клеток. Запись хранит и саму битовую карту
+ * занятости, и при попадании карты сравниваются, так что совпадение хэшей разных полей
+ * не приводит к неверному пути. Внутри одного боя поле между ходами меняется почти всегда,
+ * поэтому попадания приходятся в основном на повторные бои тех же армий в одной расстановке.
+ * <p>
+ * Записи лежат в заранее выделенных массивах: цепочки по хэшу и двусвязный список LRU
+ * хранятся номерами записей, поэтому попадание не выделяет память и возвращает общий
+ * неизменяемый список {@link Edge}. Клетки пути нельзя изменять: список может быть
+ * выдан повторно.
+ * <p>
+ * Поиск пути за кэшем должен брать занятость из того же индекса. Экземпляр не потокобезопасен:
+ * его можно переиспользовать от боя к бою в одном потоке, заново задавая индекс занятости.
+ */
+public class CachingUnitTargetPathFinder implements UnitTargetPathFinder {
+    /** Емкость кэша по умолчанию. */
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    private static final int CELLS = WIDTH * HEIGHT; // Количество клеток поля
+    private static final int WORDS = (CELLS + 63) >>> 6; // Длина битовой карты клеток
+    private static final int NONE = -1; // Отсутствие записи в цепочке или списке
+    private static final long[] START_KEYS = OccupancyIndex.zobristKeys(CELLS, 0x57A2_7C0D_E5L);
+    private static final long[] TARGET_KEYS = OccupancyIndex.zobristKeys(CELLS, 0x7A26_E7C0_DE5L);
+
+    private final UnitTargetPathFinder delegate;
+    private final BattleEventSink eventSink;
+    private final int capacity;
+    private final int[] buckets; // Первая запись цепочки по хэшу
+    private final long[] keys;
+    private final int[] startCells;
+    private final int[] targetCells;
+    private final long[][] boards;
+    private final List<Edge>[] paths;
+    private final int[] chainNext;
+    private final int[] newer; // Соседи в списке LRU
+    private final int[] older;
+    private OccupancyIndex occupancyIndex;
+    private int size;
+    private int newest = NONE;
+    private int oldest = NONE;
+    private long hits;
+    private long misses;
+
+    /**
+     * @param delegate Поиск пути, результаты которого кэшируются.
+     * @param capacity Максимальное количество путей в кэше.
+     */
+    public CachingUnitTargetPathFinder(UnitTargetPathFinder delegate, int capacity) {
+        this(delegate, capacity, BattleEventSink.NONE);
+    }
+
+    /**
+     * @param delegate  Поиск пути, результаты которого кэшируются.
+     * @param capacity  Максимальное количество путей в кэше.
+     * @param eventSink Получатель событий найденного пути при попадании в кэш.
+     */
+    @SuppressWarnings("unchecked")
+    public CachingUnitTargetPathFinder(UnitTargetPathFinder delegate, int capacity, BattleEventSink eventSink) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("Поиск пути не задан");
+        }
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Емкость кэша путей должна быть положительной: " + capacity);
+        }
+        this.delegate = delegate;
+        this.eventSink = eventSink;
+        this.capacity = capacity;
+        this.buckets = new int[Integer.highestOneBit(capacity * 2 - 1) * 2];
+        Arrays.fill(buckets, NONE);
+        this.keys = new long[capacity];
+        this.startCells = new int[capacity];
+        this.targetCells = new int[capacity];
+        this.boards = new long[capacity][WORDS];
+        this.paths = (List<Edge>[]) new List<?>[capacity];
+        this.chainNext = new int[capacity];
+        this.newer = new int[capacity];
+        this.older = new int[capacity];
+    }
+
+    /**
+     * Устанавливает индекс занятости поля, по которому строится ключ кэша.
+     * Без индекса кэш не используется и все запросы передаются поиску пути.
+     *
+     * @param occupancyIndex Индекс занятости поля или null.
+     */
+    public void setOccupancyIndex(OccupancyIndex occupancyIndex) {
+        this.occupancyIndex = occupancyIndex;
+    }
+
+    /**
+     * Возвращает путь из кэша или ищет его и запоминает.
+     *
+     * @param attackUnit       Юнит, начинающий движение.
+     * @param targetUnit       Целевой юнит.
+     * @param existingUnitList Список всех юнитов на поле.
+     * @return Неизменяемый список клеток пути.
+     * @complexity Временная сложность: O(WIDTH * HEIGHT / 64) при попадании;
+     * при промахе — сложность поиска пути за кэшем.
+     */
+    @Override
+    public List<Edge> getTargetPath(Unit attackUnit, Unit targetUnit, List<Unit> existingUnitList) {
+        int start = BfsUnitTargetPathFinderImpl.cellOf(attackUnit.getxCoordinate(), attackUnit.getyCoordinate());
+        int target = BfsUnitTargetPathFinderImpl.cellOf(targetUnit.getxCoordinate(), targetUnit.getyCoordinate());
+        if (occupancyIndex == null || start < 0 || target < 0) {
+            return delegate.getTargetPath(attackUnit, targetUnit, existingUnitList);
+        }
+        long key = occupancyIndex.getOccupancyHash() ^ START_KEYS[start] ^ TARGET_KEYS[target];
+        int bucket = bucketOf(key);
+        for (int entry = buckets[bucket]; entry != NONE; entry = chainNext[entry]) {
+            if (keys[entry] == key && startCells[entry] == start && targetCells[entry] == target
+                    && occupancyIndex.hasOccupiedCells(boards[entry])) {
+                hits++;
+                moveToNewest(entry);
+                eventSink.onPathFound(attackUnit, targetUnit, paths[entry].size());
+                return paths[entry];
+            }
+        }
+        misses++;
+        List<Edge> found = delegate.getTargetPath(attackUnit, targetUnit, existingUnitList);
+        List<Edge> path = found.isEmpty()
+                ? Collections.emptyList()
+                : Collections.unmodifiableList(new ArrayList<>(found));
+        put(key, bucket, start, target, path);
+        return path;
+    }
+
+    /**
+     * @return Количество запросов, обслуженных из кэша.
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return Количество запросов, переданных поиску пути.
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return Максимальное количество путей в кэше.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return Количество путей в кэше.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Удаляет все пути из кэша. Счетчики попаданий и промахов сохраняются.
+     *
+     * Сложность: O(C), где C — емкость кэша.
+     */
+    public void clear() {
+        Arrays.fill(buckets, NONE);
+        Arrays.fill(paths, null);
+        size = 0;
+        newest = NONE;
+        oldest = NONE;
+    }
+
+    /**
+     * Запоминает путь; если кэш заполнен, вытесняет давно не использованную запись.
+     *
+     * Сложность: O(WIDTH * HEIGHT / 64 + k), где k — длина цепочки вытесняемой записи.
+     */
+    private void put(long key, int bucket, int start, int target, List<Edge> path) {
+        int entry;
+        if (size < capacity) {
+            entry = size++;
+        } else {
+            entry = oldest;
+            unlink(entry);
+            unchain(entry);
+        }
+        keys[entry] = key;
+        startCells[entry] = start;
+        targetCells[entry] = target;
+        occupancyIndex.copyOccupiedCells(boards[entry]);
+        paths[entry] = path;
+        chainNext[entry] = buckets[bucket];
+        buckets[bucket] = entry;
+        linkNewest(entry);
+    }
+
+    private void moveToNewest(int entry) {
+        if (entry != newest) {
+            unlink(entry);
+            linkNewest(entry);
+        }
+    }
+
+    private void linkNewest(int entry) {
+        older[entry] = newest;
+        newer[entry] = NONE;
+        if (newest != NONE) {
+            newer[newest] = entry;
+        }
+        newest = entry;
+        if (oldest == NONE) {
+            oldest = entry;
+        }
+    }
+
+    private void unlink(int entry) {
+        if (older[entry] != NONE) {
+            newer[older[entry]] = newer[entry];
+        } else {
+            oldest = newer[entry];
+        }
+        if (newer[entry] != NONE) {
+            older[newer[entry]] = older[entry];
+        } else {
+            newest = older[entry];
+        }
+    }
+
+    private void unchain(int entry) {
+        int bucket = bucketOf(keys[entry]);
+        if (buckets[bucket] == entry) {
+            buckets[bucket] = chainNext[entry];
+            return;
+        }
+        int previous = buckets[bucket];
+        while (chainNext[previous] != entry) {
+            previous = chainNext[previous];
+        }
+        chainNext[previous] = chainNext[entry];
+    }
+
+    private int bucketOf(long key) {
+        return (int) (key ^ (key >>> 32)) & (buckets.length - 1);
+    }
+}
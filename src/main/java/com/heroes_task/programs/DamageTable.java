@@ -0,0 +1,169 @@
+package main.java.com.heroes_task.programs;
+
+import com.battle.heroes.army.Unit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Таблица множителей урона тип атакующего × тип цели, скомпилированная из бонусов юнитов.
+ * Множитель равен бонусу атаки атакующего против типа цели, деленному на бонус защиты цели
+ * против типа атакующего; отсутствующий или неположительный бонус считается равным 1.
+ * Бонусы типа берутся у первого юнита этого типа.
+ * <p>
+ * Таблица строится один раз на бой, поэтому при каждом ударе не выполняется поиск
+ * в {@code Map<String, Double>}. Номер типа находится просмотром имен типов (их не больше
+ * нескольких) сначала по ссылке, затем по {@code equals}, без хэширования.
+ * Симуляция на объектах ({@link LivingUnits#compileDamage}) и ядра боя на массивах
+ * ({@link main.java.com.heroes_task.programs.core.BattleCore}) заранее вычисляют урон
+ * каждого юнита по каждому типу цели, а тип цели в бою берут по ее клетке
+ * ({@link UnitTypeGrid}), поэтому удар обходится без просмотра имен.
+ */
+public final class DamageTable {
+
+    private final String[] typeNames;
+    private final double[] multipliers; // [тип атакующего * количество типов + тип цели]
+
+    private DamageTable(String[] typeNames, double[] multipliers) {
+        this.typeNames = typeNames;
+        this.multipliers = multipliers;
+    }
+
+    /**
+     * Компилирует таблицу по юнитам обеих армий.
+     *
+     * @param firstUnits  Юниты первой армии.
+     * @param secondUnits Юниты второй армии.
+     * @return Таблица урона.
+     *
+     * Сложность: O(N * T + T^2), где N — количество юнитов, T — количество типов.
+     */
+    public static DamageTable compile(List<Unit> firstUnits, List<Unit> secondUnits) {
+        List<Unit> prototypes = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        addPrototypes(firstUnits, prototypes, names);
+        addPrototypes(secondUnits, prototypes, names);
+
+        int types = prototypes.size();
+        double[] multipliers = new double[types * types];
+        for (int attacker = 0; attacker < types; attacker++) {
+            Unit attackUnit = prototypes.get(attacker);
+            for (int target = 0; target < types; target++) {
+                Unit targetUnit = prototypes.get(target);
+                multipliers[attacker * types + target] = bonus(attackUnit.getAttackBonuses(), targetUnit.getUnitType())
+                        / bonus(targetUnit.getDefenceBonuses(), attackUnit.getUnitType());
+            }
+        }
+        return new DamageTable(names.toArray(new String[0]), multipliers);
+    }
+
+    /**
+     * @return Количество типов юнитов в таблице.
+     */
+    public int getTypeCount() {
+        return typeNames.length;
+    }
+
+    /**
+     * @param type Номер типа.
+     * @return Имя типа юнита.
+     */
+    public String getTypeName(int type) {
+        return typeNames[type];
+    }
+
+    /**
+     * Возвращает номер типа юнита.
+     *
+     * @param unit Юнит.
+     * @return Номер типа.
+     * @throws IllegalArgumentException Если типа юнита нет в таблице.
+     * @complexity Временная сложность: O(T), где T — количество типов.
+     */
+    public int typeOf(Unit unit) {
+        return typeOf(unit.getUnitType());
+    }
+
+    /**
+     * Возвращает номер типа по имени. Имена типов юнитов армий обычно одни и те же строки,
+     * поэтому сначала они сравниваются по ссылке.
+     *
+     * @param unitType Имя типа юнита.
+     * @return Номер типа.
+     * @throws IllegalArgumentException Если типа нет в таблице.
+     * @complexity Временная сложность: O(T), где T — количество типов.
+     */
+    public int typeOf(String unitType) {
+        for (int type = 0; type < typeNames.length; type++) {
+            if (typeNames[type] == unitType) {
+                return type;
+            }
+        }
+        for (int type = 0; type < typeNames.length; type++) {
+            if (typeNames[type].equals(unitType)) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Тип юнита отсутствует в таблице урона: " + unitType);
+    }
+
+    /**
+     * @param attackerType Номер типа атакующего.
+     * @param targetType   Номер типа цели.
+     * @return Множитель урона.
+     */
+    public double getMultiplier(int attackerType, int targetType) {
+        return multipliers[attackerType * typeNames.length + targetType];
+    }
+
+    /**
+     * Урон по номерам типов.
+     *
+     * @param baseAttack   Базовая атака атакующего.
+     * @param attackerType Номер типа атакующего.
+     * @param targetType   Номер типа цели.
+     * @return Урон, округленный до целого.
+     * @complexity Временная сложность: O(1).
+     */
+    public int damage(int baseAttack, int attackerType, int targetType) {
+        return (int) Math.round(baseAttack * multipliers[attackerType * typeNames.length + targetType]);
+    }
+
+    /**
+     * Урон, который атакующий наносит цели.
+     *
+     * @param attacker Атакующий юнит.
+     * @param target   Цель атаки.
+     * @return Урон, округленный до целого.
+     * @complexity Временная сложность: O(T), где T — количество типов.
+     */
+    public int damage(Unit attacker, Unit target) {
+        return damage(attacker.getBaseAttack(), typeOf(attacker), typeOf(target));
+    }
+
+    private static void addPrototypes(List<Unit> units, List<Unit> prototypes, List<String> names) {
+        for (Unit unit : units) {
+            if (unit.getUnitType() == null) {
+                throw new IllegalArgumentException("Не задан тип юнита: " + unit.getName());
+            }
+            if (!names.contains(unit.getUnitType())) {
+                names.add(unit.getUnitType());
+                prototypes.add(unit);
+            }
+        }
+    }
+
+    /**
+     * Возвращает бонус против типа юнита. Общий для таблицы урона и целевых функций
+     * {@link PresetObjective}, чтобы генерация армии оценивала бонусы так же, как бой.
+     *
+     * @param bonuses  Бонусы юнита или null.
+     * @param unitType Тип юнита.
+     * @return Бонус или 1, если он не задан или не положителен.
+     */
+    static double bonus(Map<String, Double> bonuses, String unitType) {
+        Double value = bonuses == null ? null : bonuses.get(unitType);
+        return value == null || value <= 0 ? 1 : value;
+    }
+}
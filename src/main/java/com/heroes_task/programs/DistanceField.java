@@ -0,0 +1,219 @@
+package main.java.com.heroes_task.programs;
+
+import com.battle.heroes.army.Unit;
+import com.battle.heroes.army.programs.Edge;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static main.java.com.heroes_task.programs.UnitTargetPathFinderImpl.HEIGHT;
+import static main.java.com.heroes_task.programs.UnitTargetPathFinderImpl.WIDTH;
+
+/**
+ * Поле расстояний до одной или нескольких целей на игровом поле.
+ * Строится одним обходом в ширину от клеток целей, после чего путь любого
+ * атакующего до ближайшей цели восстанавливается спуском по полю за O(L), где L — длина пути.
+ * <p>
+ * Клетки всех юнитов, кроме целей, считаются препятствиями — как и в
+ * {@link UnitTargetPathFinderImpl}, где свободны только клетки атакующего и цели.
+ * Кратчайший путь никогда не проходит через клетку атакующего повторно,
+ * поэтому длина восстановленного пути совпадает с длиной пути отдельного поиска.
+ * <p>
+ * Поле вычисляется по {@link OccupancyIndex} и становится неактуальным
+ * при любом изменении индекса (см. {@link #isValid()}).
+ */
+public final class DistanceField {
+    /** Расстояние до клеток, из которых цель недостижима. */
+    public static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    private static final int CELLS = WIDTH * HEIGHT; // Количество клеток поля
+
+    private final OccupancyIndex occupancyIndex;
+    private final int[] distance = new int[CELLS];
+    private final int[] queue = new int[CELLS];
+    private final long[] blocked = new long[(CELLS + 63) >>> 6];
+    private long version = -1;
+
+    /**
+     * Создает пустое поле расстояний. Поле не актуально до первого вызова {@link #compute}.
+     *
+     * @param occupancyIndex Индекс занятости поля.
+     */
+    public DistanceField(OccupancyIndex occupancyIndex) {
+        this.occupancyIndex = occupancyIndex;
+    }
+
+    /**
+     * Вычисляет поле расстояний до ближайшей из целей.
+     *
+     * @param targets Целевые юниты.
+     * @return Это же поле.
+     * @complexity Временная сложность: O(T + WIDTH * HEIGHT), где T — количество целей.
+     */
+    public DistanceField compute(List<Unit> targets) {
+        Arrays.fill(distance, UNREACHABLE);
+        occupancyIndex.copyOccupiedCells(blocked);
+        int tail = 0;
+        for (Unit target : targets) {
+            int cell = cellOf(target.getxCoordinate(), target.getyCoordinate());
+            if (cell >= 0 && distance[cell] != 0) {
+                blocked[cell >>> 6] &= ~(1L << cell); // Клетка цели свободна
+                distance[cell] = 0;
+                queue[tail++] = cell;
+            }
+        }
+        breadthFirstSearch(tail);
+        version = occupancyIndex.getVersion();
+        return this;
+    }
+
+    /**
+     * Вычисляет поле расстояний до одной цели.
+     *
+     * @param target Целевой юнит.
+     * @return Это же поле.
+     * @complexity Временная сложность: O(WIDTH * HEIGHT).
+     */
+    public DistanceField compute(Unit target) {
+        return compute(Collections.singletonList(target));
+    }
+
+    /**
+     * @return true, если с момента вычисления поля индекс занятости не менялся.
+     */
+    public boolean isValid() {
+        return version == occupancyIndex.getVersion();
+    }
+
+    /**
+     * Возвращает расстояние от свободной клетки до ближайшей цели.
+     *
+     * @param x Координата X.
+     * @param y Координата Y.
+     * @return Количество шагов или {@link #UNREACHABLE}.
+     * @complexity Временная сложность: O(1).
+     */
+    public int getDistance(int x, int y) {
+        int cell = cellOf(x, y);
+        return cell < 0 ? UNREACHABLE : distance[cell];
+    }
+
+    /**
+     * Возвращает количество шагов от атакующего до ближайшей цели.
+     *
+     * @param attackUnit Атакующий юнит.
+     * @return Количество шагов или {@link #UNREACHABLE}, если цели недостижимы.
+     * @complexity Временная сложность: O(1).
+     */
+    public int getStepsFrom(Unit attackUnit) {
+        int start = cellOf(attackUnit.getxCoordinate(), attackUnit.getyCoordinate());
+        if (start < 0) {
+            return UNREACHABLE;
+        }
+        if (distance[start] == 0) {
+            return 0;
+        }
+        int next = bestNeighbor(start);
+        return next < 0 ? UNREACHABLE : distance[next] + 1;
+    }
+
+    /**
+     * Восстанавливает путь от атакующего до ближайшей цели спуском по полю.
+     * Формат пути совпадает с {@link UnitTargetPathFinderImpl#getTargetPath}:
+     * первая клетка — позиция атакующего, последняя — позиция цели.
+     *
+     * @param attackUnit Атакующий юнит.
+     * @return Список клеток пути или пустой список, если цели недостижимы.
+     * @complexity Временная сложность: O(L), где L — длина пути.
+     */
+    public List<Edge> getPathFrom(Unit attackUnit) {
+        int steps = getStepsFrom(attackUnit);
+        if (steps == UNREACHABLE) {
+            return Collections.emptyList();
+        }
+        int cell = cellOf(attackUnit.getxCoordinate(), attackUnit.getyCoordinate());
+        List<Edge> path = new ArrayList<>(steps + 1);
+        path.add(new Edge(cell / HEIGHT, cell % HEIGHT));
+        while (distance[cell] != 0) {
+            cell = bestNeighbor(cell);
+            path.add(new Edge(cell / HEIGHT, cell % HEIGHT));
+        }
+        return path;
+    }
+
+    /**
+     * Обходит поле в ширину от клеток, уже поставленных в очередь.
+     *
+     * @param tail Количество клеток в очереди.
+     * @complexity Временная сложность: O(WIDTH * HEIGHT).
+     */
+    private void breadthFirstSearch(int tail) {
+        int head = 0;
+        while (head != tail) {
+            int current = queue[head++];
+            int next = distance[current] + 1;
+            int x = current / HEIGHT;
+            int y = current - x * HEIGHT;
+            if (x > 0) {
+                tail = visit(current - HEIGHT, next, tail);
+            }
+            if (x < WIDTH - 1) {
+                tail = visit(current + HEIGHT, next, tail);
+            }
+            if (y > 0) {
+                tail = visit(current - 1, next, tail);
+            }
+            if (y < HEIGHT - 1) {
+                tail = visit(current + 1, next, tail);
+            }
+        }
+    }
+
+    private int visit(int neighbor, int nextDistance, int tail) {
+        if (distance[neighbor] == UNREACHABLE && (blocked[neighbor >>> 6] & (1L << neighbor)) == 0) {
+            distance[neighbor] = nextDistance;
+            queue[tail++] = neighbor;
+        }
+        return tail;
+    }
+
+    /**
+     * Выбирает соседнюю клетку с наименьшим расстоянием до цели.
+     * Соседи перебираются в том же порядке, что и в {@link UnitTargetPathFinderImpl}.
+     *
+     * @param cell Текущая клетка.
+     * @return Соседняя клетка или -1, если все соседи недостижимы.
+     * @complexity Временная сложность: O(1).
+     */
+    private int bestNeighbor(int cell) {
+        int x = cell / HEIGHT;
+        int y = cell - x * HEIGHT;
+        int best = -1;
+        int bestDistance = UNREACHABLE;
+        if (x > 0 && distance[cell - HEIGHT] < bestDistance) {
+            best = cell - HEIGHT;
+            bestDistance = distance[best];
+        }
+        if (x < WIDTH - 1 && distance[cell + HEIGHT] < bestDistance) {
+            best = cell + HEIGHT;
+            bestDistance = distance[best];
+        }
+        if (y > 0 && distance[cell - 1] < bestDistance) {
+            best = cell - 1;
+            bestDistance = distance[best];
+        }
+        if (y < HEIGHT - 1 && distance[cell + 1] < bestDistance) {
+            best = cell + 1;
+        }
+        return best;
+    }
+
+    private static int cellOf(int x, int y) {
+        if (x < 0 || x >= WIDTH || y < 0 || y >= HEIGHT) {
+            return -1;
+        }
+        return x * HEIGHT + y;
+    }
+}
@@ -0,0 +1,185 @@
+package main.java.com.heroes_task.programs;
+
+import com.battle.heroes.army.Unit;
+import com.battle.heroes.army.programs.Edge;
+import com.battle.heroes.army.programs.UnitTargetPathFinder;
+import main.java.com.heroes_task.programs.events.BattleEventSink;
+import main.java.com.heroes_task.programs.events.ConsoleBattleEventSink;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static main.java.com.heroes_task.programs.UnitTargetPathFinderImpl.HEIGHT;
+import static main.java.com.heroes_task.programs.UnitTargetPathFinderImpl.WIDTH;
+
+/**
+ * Поиск пути через кэшированные поля расстояний.
+ * Когда несколько атакующих выбирают одну и ту же цель, поле расстояний до нее
+ * строится один раз, а путь каждого атакующего восстанавливается из поля за O(L).
+ * Поля хранятся в кэше фиксированного размера и перестраиваются после любого
+ * изменения индекса занятости — перемещения или гибели юнита.
+ * <p>
+ * Занятость берется только из {@link OccupancyIndex}, список юнитов, переданный
+ * в {@link #getTargetPath}, не используется. Индекс должен поддерживаться
+ * симуляцией боя (см. {@link SimulateBattleImpl#setOccupancyIndex}).
+ * Экземпляр не потокобезопасен и принадлежит одному бою.
+ */
+public class DistanceFieldPathFinderImpl implements UnitTargetPathFinder {
+    /** Размер кэша полей расстояний по умолчанию. */
+    public static final int DEFAULT_CACHE_SIZE = 16;
+
+    private final OccupancyIndex occupancyIndex;
+    private final BattleEventSink eventSink;
+    private final DistanceField[] fields;
+    private final int[] fieldTargetCells;
+    private final int[] slotByTargetCell = new int[WIDTH * HEIGHT];
+    private int nextSlot;
+    private long hits;
+    private long misses;
+
+    /**
+     * Создает поиск пути с кэшем по умолчанию и выводом хода поиска в консоль.
+     *
+     * @param occupancyIndex Индекс занятости поля.
+     */
+    public DistanceFieldPathFinderImpl(OccupancyIndex occupancyIndex) {
+        this(occupancyIndex, DEFAULT_CACHE_SIZE, true);
+    }
+
+    /**
+     * Создает поиск пути.
+     *
+     * @param occupancyIndex Индекс занятости поля.
+     * @param cacheSize      Количество одновременно хранимых полей расстояний.
+     * @param loggingEnabled true, если ход поиска нужно выводить в консоль.
+     */
+    public DistanceFieldPathFinderImpl(OccupancyIndex occupancyIndex, int cacheSize, boolean loggingEnabled) {
+        this(occupancyIndex, cacheSize, loggingEnabled ? new ConsoleBattleEventSink() : BattleEventSink.NONE);
+    }
+
+    /**
+     * Создает поиск пути с передачей событий получателю.
+     *
+     * @param occupancyIndex Индекс занятости поля.
+     * @param cacheSize      Количество одновременно хранимых полей расстояний.
+     * @param eventSink      Получатель событий.
+     */
+    public DistanceFieldPathFinderImpl(OccupancyIndex occupancyIndex, int cacheSize, BattleEventSink eventSink) {
+        if (cacheSize <= 0) {
+            throw new IllegalArgumentException("Размер кэша должен быть положительным: " + cacheSize);
+        }
+        this.occupancyIndex = occupancyIndex;
+        this.eventSink = eventSink;
+        this.fields = new DistanceField[cacheSize];
+        this.fieldTargetCells = new int[cacheSize];
+        Arrays.fill(slotByTargetCell, -1);
+    }
+
+    /**
+     * Находит путь от атакующего юнита до целевого по полю расстояний до цели.
+     *
+     * @param attackUnit       Юнит, начинающий движение.
+     * @param targetUnit       Целевой юнит.
+     * @param existingUnitList Не используется: занятость берется из индекса.
+     * @return Список клеток (Edge), составляющих путь.
+     * @complexity Временная сложность: O(L), если поле цели есть в кэше, иначе O(WIDTH * HEIGHT).
+     */
+    @Override
+    public List<Edge> getTargetPath(Unit attackUnit, Unit targetUnit, List<Unit> existingUnitList) {
+        if (eventSink.isMessageEnabled()) {
+            log("Начало поиска пути для юнита: " + attackUnit.getName());
+        }
+        List<Edge> path = getDistanceField(targetUnit).getPathFrom(attackUnit);
+        eventSink.onPathFound(attackUnit, targetUnit, path.size());
+        return path;
+    }
+
+    /**
+     * Возвращает актуальное поле расстояний до цели, при необходимости перестраивая его.
+     * Возвращенное поле принадлежит кэшу и может быть перестроено следующим вызовом.
+     *
+     * @param targetUnit Целевой юнит.
+     * @return Поле расстояний.
+     * @throws IllegalArgumentException Если цель вне игрового поля.
+     * @complexity Временная сложность: O(1) при попадании в кэш, иначе O(WIDTH * HEIGHT).
+     */
+    public DistanceField getDistanceField(Unit targetUnit) {
+        int x = targetUnit.getxCoordinate();
+        int y = targetUnit.getyCoordinate();
+        if (x < 0 || x >= WIDTH || y < 0 || y >= HEIGHT) {
+            throw new IllegalArgumentException("Юнит " + targetUnit.getName() + " вне игрового поля: (" + x + ", " + y + ")");
+        }
+        int cell = x * HEIGHT + y;
+        int slot = slotByTargetCell[cell];
+        if (slot >= 0) {
+            DistanceField field = fields[slot];
+            if (!field.isValid()) {
+                field.compute(targetUnit);
+                misses++;
+            } else {
+                hits++;
+            }
+            return field;
+        }
+        misses++;
+        return allocateSlot(cell).compute(targetUnit);
+    }
+
+    /**
+     * Вычисляет новое поле расстояний до ближайшей из нескольких целей.
+     * Поле не кэшируется и принадлежит вызывающему; его актуальность проверяется
+     * через {@link DistanceField#isValid()}.
+     *
+     * @param targets Целевые юниты.
+     * @return Поле расстояний.
+     * @complexity Временная сложность: O(T + WIDTH * HEIGHT), где T — количество целей.
+     */
+    public DistanceField computeDistanceField(List<Unit> targets) {
+        return new DistanceField(occupancyIndex).compute(targets);
+    }
+
+    /**
+     * @return Количество запросов, обслуженных из кэша полей.
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return Количество запросов, потребовавших построения поля.
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Выделяет слот кэша под поле цели, вытесняя поле, занимавшее слот дольше всех.
+     *
+     * @param cell Клетка цели.
+     * @return Поле слота.
+     * @complexity Временная сложность: O(1).
+     */
+    private DistanceField allocateSlot(int cell) {
+        int slot = nextSlot;
+        nextSlot = (nextSlot + 1) % fields.length;
+        if (fields[slot] == null) {
+            fields[slot] = new DistanceField(occupancyIndex);
+        } else {
+            slotByTargetCell[fieldTargetCells[slot]] = -1;
+        }
+        fieldTargetCells[slot] = cell;
+        slotByTargetCell[cell] = slot;
+        return fields[slot];
+    }
+
+    /**
+     * Передает текстовое сообщение получателю событий, если он их обрабатывает.
+     *
+     * @param message Сообщение.
+     */
+    private void log(String message) {
+        if (eventSink.isMessageEnabled()) {
+            eventSink.onMessage(message);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package main.java.com.heroes_task.programs;
+
+import com.battle.heroes.army.Unit;
+
+import java.util.AbstractList;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * Список целей с порядком, зафиксированным при создании.
+ * Программы юнитов библиотеки перемешивают найденные цели через {@code Collections.shuffle}
+ * с глобальным генератором и атакуют первую. Этот список игнорирует замены элементов,
+ * поэтому такое перемешивание не меняет порядок, и выбор цели определяется генератором
+ * с зерном, которым список был упорядочен.
+ */
+final class FixedOrderUnitList extends AbstractList<Unit> implements RandomAccess {
+
+    private final Unit[] units;
+
+    /**
+     * @param units Юниты в окончательном порядке; массив не копируется.
+     */
+    FixedOrderUnitList(Unit[] units) {
+        this.units = units;
+    }
+
+    @Override
+    public Unit get(int index) {
+        return units[Objects.checkIndex(index, units.length)];
+    }
+
+    /**
+     * Не изменяет список.
+     *
+     * @return Текущий элемент по индексу, как если бы замена была выполнена и сразу отменена.
+     */
+    @Override
+    public Unit set(int index, Unit unit) {
+        return get(index);
+    }
+
+    @Override
+    public int size() {
+        return units.length;
+    }
+}
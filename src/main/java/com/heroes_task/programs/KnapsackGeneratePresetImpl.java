@@ -0,0 +1,199 @@
+package main.java.com.heroes_task.programs;
+
+import com.battle.heroes.army.Army;
+import com.battle.heroes.army.Unit;
+import main.java.com.heroes_task.programs.events.BattleEventSink;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Генератор армии, оптимальный по заданной целевой функции.
+ * Задача сводится к ограниченному рюкзаку: тип юнита — предмет со стоимостью
+ * {@code getCost()}, ценностью из {@link PresetObjective} и не более чем
+ * {@value #MAX_UNITS_PER_TYPE} экземплярами. Ограничение на количество снимается
+ * двоичным разбиением (1, 2, 4, 4 экземпляра), после чего решается рюкзак 0/1
+ * на примитивных массивах. В отличие от жадного {@link GeneratePresetImpl}
+ * найденная армия имеет максимальную суммарную ценность при заданном лимите очков.
+ */
+public class KnapsackGeneratePresetImpl extends AbstractPresetGenerator {
+    private final PresetObjective objective;
+
+    /**
+     * Создает генератор, максимизирующий суммарную атаку, с выводом хода генерации в консоль.
+     */
+    public KnapsackGeneratePresetImpl() {
+        this(PresetObjective.attack(), true);
+    }
+
+    /**
+     * Создает генератор с выводом хода генерации в консоль.
+     *
+     * @param objective Целевая функция.
+     */
+    public KnapsackGeneratePresetImpl(PresetObjective objective) {
+        this(objective, true);
+    }
+
+    /**
+     * Создает генератор.
+     *
+     * @param objective      Целевая функция.
+     * @param loggingEnabled true, если ход генерации нужно выводить в консоль.
+     */
+    public KnapsackGeneratePresetImpl(PresetObjective objective, boolean loggingEnabled) {
+        super(loggingEnabled);
+        this.objective = objective;
+    }
+
+    /**
+     * Создает генератор с передачей событий получателю.
+     *
+     * @param objective Целевая функция.
+     * @param eventSink Получатель событий генерации.
+     */
+    public KnapsackGeneratePresetImpl(PresetObjective objective, BattleEventSink eventSink) {
+        super(eventSink);
+        this.objective = objective;
+    }
+
+    /**
+     * Генерирует армию с максимальной суммарной ценностью в пределах лимита очков.
+     *
+     * @param unitList  Список доступных юнитов.
+     * @param maxPoints Максимальное количество очков для армии.
+     * @return Сгенерированная армия.
+     * @complexity Временная сложность: O(n * log(MAX_UNITS_PER_TYPE) * P), где n — количество типов юнитов,
+     * P — лимит очков.
+     */
+    @Override
+    public Army generate(List<Unit> unitList, int maxPoints) {
+        log("Начало генерации армии...");
+        int[] counts = calculateUnitCounts(unitList, maxPoints);
+
+        Army computerArmy = new Army();
+        List<Unit> selectedUnits = new ArrayList<>();
+        int points = 0;
+        for (int i = 0; i < counts.length; i++) {
+            Unit unit = unitList.get(i);
+            if (isLoggingEnabled()) {
+                log("Выбрано " + counts[i] + " экземпляров юнита " + unit.getName() + ".");
+            }
+            addUnitsToArmy(unit, counts[i], selectedUnits);
+            points += counts[i] * unit.getCost();
+        }
+        computerArmy.setPoints(points);
+
+        log("Назначение случайных координат юнитам...");
+        assignCoordinates(selectedUnits);
+        computerArmy.setUnits(selectedUnits);
+
+        presetBuilt(computerArmy, maxPoints);
+        return computerArmy;
+    }
+
+    /**
+     * Вычисляет оптимальное количество экземпляров каждого юнита без создания армии.
+     *
+     * @param unitList  Список доступных юнитов.
+     * @param maxPoints Максимальное количество очков для армии.
+     * @return Количество экземпляров для каждого юнита списка, в том же порядке.
+     * @throws IllegalArgumentException Если стоимость юнита не положительна.
+     * @complexity Временная сложность: O(n * log(MAX_UNITS_PER_TYPE) * P), где n — количество типов юнитов,
+     * P — лимит очков, но не больше суммарной стоимости {@value #MAX_UNITS_PER_TYPE} экземпляров каждого юнита.
+     * Память: O(P + n * log(MAX_UNITS_PER_TYPE) * P / 64).
+     */
+    public int[] calculateUnitCounts(List<Unit> unitList, int maxPoints) {
+        int[] counts = new int[unitList.size()];
+        if (maxPoints <= 0) {
+            return counts;
+        }
+        Items items = splitIntoItems(unitList, maxPoints);
+        // Бюджет сверх суммарной стоимости всех предметов ничего не меняет
+        int capacity = (int) Math.min(maxPoints, items.totalCost);
+
+        double[] best = new double[capacity + 1]; // Лучшая ценность при бюджете w
+        int words = (capacity + 64) >>> 6;
+        long[] taken = new long[items.size * words]; // Бит (i, w): предмет i взят при бюджете w
+        for (int i = 0; i < items.size; i++) {
+            int cost = items.cost[i];
+            double value = items.value[i];
+            int offset = i * words;
+            for (int w = capacity; w >= cost; w--) {
+                double candidate = best[w - cost] + value;
+                if (candidate > best[w]) {
+                    best[w] = candidate;
+                    taken[offset + (w >>> 6)] |= 1L << w;
+                }
+            }
+        }
+
+        int budget = capacity;
+        for (int i = items.size - 1; i >= 0; i--) {
+            if ((taken[i * words + (budget >>> 6)] & (1L << budget)) != 0) {
+                counts[items.unitIndex[i]] += items.copies[i];
+                budget -= items.cost[i];
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Разбивает каждый тип юнита на предметы по 1, 2, 4, ... экземпляров так,
+     * что любое количество от 0 до лимита набирается подмножеством предметов.
+     *
+     * @param unitList  Список доступных юнитов.
+     * @param maxPoints Лимит очков.
+     * @return Предметы рюкзака 0/1.
+     * @complexity Временная сложность: O(n * log(MAX_UNITS_PER_TYPE)).
+     */
+    private Items splitIntoItems(List<Unit> unitList, int maxPoints) {
+        Items items = new Items(unitList.size() * (32 - Integer.numberOfLeadingZeros(MAX_UNITS_PER_TYPE)));
+        for (int index = 0; index < unitList.size(); index++) {
+            Unit unit = unitList.get(index);
+            if (unit.getCost() <= 0) {
+                throw new IllegalArgumentException("Стоимость юнита " + unit.getName()
+                        + " должна быть положительной: " + unit.getCost());
+            }
+            double value = objective.getValue(unit);
+            if (!(value > 0)) {
+                continue; // Юнит без ценности не улучшает армию
+            }
+            int limit = Math.min(MAX_UNITS_PER_TYPE, maxPoints / unit.getCost());
+            for (int chunk = 1; limit > 0; chunk <<= 1) {
+                int copies = Math.min(chunk, limit);
+                items.add(index, copies, copies * unit.getCost(), copies * value);
+                limit -= copies;
+            }
+        }
+        return items;
+    }
+
+    /**
+     * Предметы рюкзака в параллельных массивах.
+     */
+    private static final class Items {
+        final int[] unitIndex;
+        final int[] copies;
+        final int[] cost;
+        final double[] value;
+        int size;
+        long totalCost;
+
+        Items(int capacity) {
+            unitIndex = new int[capacity];
+            copies = new int[capacity];
+            cost = new int[capacity];
+            value = new double[capacity];
+        }
+
+        void add(int unitIndex, int copies, int cost, double value) {
+            this.unitIndex[size] = unitIndex;
+            this.copies[size] = copies;
+            this.cost[size] = cost;
+            this.value[size] = value;
+            size++;
+            totalCost += cost;
+        }
+    }
+}
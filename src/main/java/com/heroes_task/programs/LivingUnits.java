@@ -0,0 +1,175 @@
+package main.java.com.heroes_task.programs;
+
+import com.battle.heroes.army.Unit;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Юниты одной армии в течение боя: плотный массив в порядке хода и отметки гибели.
+ * Погибший юнит не удаляется из массива, а помечается (tombstone), поэтому гибель
+ * обрабатывается за O(1) и порядок хода оставшихся юнитов не меняется.
+ * Номер юнита в массиве находится по ссылке через {@link IdentityHashMap}.
+ * <p>
+ * С бонусами урона набор хранит номер типа каждого юнита и его урон по каждому типу цели
+ * ({@link #compileDamage}), вычисленные один раз на бой, поэтому удар не ищет тип атакующего.
+ * <p>
+ * Список армии во время боя не изменяется; оставшиеся юниты переносятся в него
+ * методом {@link #syncTo(List)} по окончании боя.
+ * <p>
+ * Экземпляр не потокобезопасен и принадлежит одному бою.
+ */
+public class LivingUnits {
+
+    private final Unit[] units;
+    private final boolean[] dead;
+    private final Map<Unit, Integer> slots;
+    private int livingCount;
+    private byte[] types;
+    private int[] damageToType; // [место * количество типов + тип цели]
+    private int typeCount;
+
+    /**
+     * Создает набор по списку армии. Все юниты списка считаются живыми, как и в начале боя.
+     *
+     * @param units Юниты армии в порядке хода.
+     *
+     * Сложность: O(n), где n — количество юнитов.
+     */
+    public LivingUnits(List<Unit> units) {
+        this.units = units.toArray(new Unit[0]);
+        this.dead = new boolean[this.units.length];
+        this.slots = new IdentityHashMap<>(this.units.length * 2);
+        for (int slot = 0; slot < this.units.length; slot++) {
+            slots.put(this.units[slot], slot);
+        }
+        this.livingCount = this.units.length;
+    }
+
+    /**
+     * @return Количество мест в порядке хода, включая погибших юнитов.
+     */
+    public int size() {
+        return units.length;
+    }
+
+    /**
+     * @param slot Место в порядке хода.
+     * @return Юнит на этом месте, живой или погибший.
+     */
+    public Unit get(int slot) {
+        return units[slot];
+    }
+
+    /**
+     * @param slot Место в порядке хода.
+     * @return true, если юнит на этом месте не погиб.
+     */
+    public boolean isLiving(int slot) {
+        return !dead[slot];
+    }
+
+    /**
+     * @return Количество оставшихся юнитов.
+     */
+    public int getLivingCount() {
+        return livingCount;
+    }
+
+    /**
+     * @return true, если все юниты армии погибли.
+     */
+    public boolean isEmpty() {
+        return livingCount == 0;
+    }
+
+    /**
+     * Проверяет, что юнит принадлежит армии и еще не погиб.
+     *
+     * @param unit Юнит.
+     * @return true, если юнит входит в оставшиеся юниты армии.
+     *
+     * Сложность: O(1).
+     */
+    public boolean contains(Unit unit) {
+        Integer slot = slots.get(unit);
+        return slot != null && !dead[slot];
+    }
+
+    /**
+     * Отмечает гибель юнита.
+     *
+     * @param unit Юнит.
+     * @return true, если юнит принадлежал армии и был жив; false, если юнит
+     * из другой армии или уже погиб.
+     *
+     * Сложность: O(1).
+     */
+    public boolean kill(Unit unit) {
+        Integer slot = slots.get(unit);
+        if (slot == null || dead[slot]) {
+            return false;
+        }
+        dead[slot] = true;
+        livingCount--;
+        return true;
+    }
+
+    /**
+     * Определяет типы юнитов и вычисляет урон каждого юнита по каждому типу цели по таблице урона.
+     *
+     * @param damageTable Таблица урона боя.
+     * @throws IllegalArgumentException Если типов больше, чем помещается в байт.
+     *
+     * Сложность: O(n * T), где n — количество юнитов, T — количество типов.
+     */
+    public void compileDamage(DamageTable damageTable) {
+        typeCount = damageTable.getTypeCount();
+        if (typeCount > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("Слишком много типов юнитов: " + typeCount);
+        }
+        types = new byte[units.length];
+        damageToType = new int[units.length * typeCount];
+        for (int slot = 0; slot < units.length; slot++) {
+            types[slot] = (byte) damageTable.typeOf(units[slot]);
+            int attack = units[slot].getBaseAttack();
+            for (int targetType = 0; targetType < typeCount; targetType++) {
+                damageToType[slot * typeCount + targetType] = damageTable.damage(attack, types[slot], targetType);
+            }
+        }
+    }
+
+    /**
+     * @param slot Место в порядке хода.
+     * @return Номер типа юнита в таблице урона, определенный {@link #compileDamage}.
+     */
+    public int getType(int slot) {
+        return types[slot];
+    }
+
+    /**
+     * @param slot       Место атакующего в порядке хода.
+     * @param targetType Номер типа цели в таблице урона.
+     * @return Урон атакующего по цели этого типа, вычисленный {@link #compileDamage}.
+     */
+    public int damageTo(int slot, int targetType) {
+        return damageToType[slot * typeCount + targetType];
+    }
+
+    /**
+     * Заменяет содержимое списка армии оставшимися юнитами в порядке хода.
+     *
+     * @param armyUnits Список юнитов армии.
+     *
+     * Сложность: O(n), где n — количество юнитов.
+     */
+    public void syncTo(List<Unit> armyUnits) {
+        armyUnits.clear();
+        for (int slot = 0; slot < units.length; slot++) {
+            if (!dead[slot]) {
+                armyUnits.add(units[slot]);
+            }
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package main.java.com.heroes_task.programs;
+
+import com.battle.heroes.army.Unit;
+import com.battle.heroes.army.programs.SuitableForAttackUnitsFinder;
+import main.java.com.heroes_task.programs.core.BattleSnapshot;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Поиск целей с просмотром вперед для армии компьютера.
+ * <p>
+ * Подходящие для атаки юниты находит вложенный поиск (обычно {@link SuitableForAttackUnitsFinderImpl}).
+ * Затем для каждого кандидата от снимка боя ({@link BattleSnapshot}) ответвляется ветвь,
+ * в ней атакующий бьет кандидата, и из этой ветви разыгрывается несколько продолжений
+ * на {@code horizonTurns} ходов армий вперед. Кандидат с наибольшей средней разницей
+ * здоровья армий в пользу компьютера ставится первым в список с фиксированным порядком
+ * ({@link FixedOrderUnitList}), поэтому программа юнита атакует именно его.
+ * Розыгрыши всех кандидатов в одном раунде используют одно зерно, чтобы кандидаты
+ * сравнивались на одинаковых случайных выборах противника.
+ * <p>
+ * Объем работы ограничен бюджетом узлов (атак в ветвях) и бюджетом времени на один выбор.
+ * Раунды розыгрышей прерываются по исчерпании любого из них; учитываются только полные раунды,
+ * а без них кандидаты сравниваются по итогу одной атаки. Бюджет времени делает выбор
+ * зависимым от скорости машины, поэтому по умолчанию он отключен.
+ * <p>
+ * Атакующего и списки армий сообщает {@link SimulateBattleImpl#setLookahead}; без них, а также
+ * для армии игрока возвращается результат вложенного поиска. Экземпляр не потокобезопасен:
+ * у каждого боя должен быть свой экземпляр.
+ */
+public class LookaheadSuitableForAttackUnitsFinder implements SuitableForAttackUnitsFinder {
+
+    private final SuitableForAttackUnitsFinder candidatesFinder;
+    private int horizonTurns = 2;
+    private int maxRollouts = 8;
+    private long nodeBudget = 10_000;
+    private long timeBudgetMicros = 0;
+    private SplittableRandom random = new SplittableRandom(0);
+    private BattleSnapshot snapshot;
+    private Unit attacker;
+    private long evaluatedNodes;
+
+    /**
+     * @param candidatesFinder Поиск подходящих для атаки юнитов, среди которых выбирается цель.
+     */
+    public LookaheadSuitableForAttackUnitsFinder(SuitableForAttackUnitsFinder candidatesFinder) {
+        if (candidatesFinder == null) {
+            throw new IllegalArgumentException("Поиск кандидатов не задан");
+        }
+        this.candidatesFinder = candidatesFinder;
+    }
+
+    /**
+     * @param horizonTurns Количество ходов армий, разыгрываемых после хода атакующего; 0 — только до конца хода.
+     */
+    public void setHorizonTurns(int horizonTurns) {
+        if (horizonTurns < 0) {
+            throw new IllegalArgumentException("Глубина просмотра не может быть отрицательной: " + horizonTurns);
+        }
+        this.horizonTurns = horizonTurns;
+    }
+
+    /**
+     * @param maxRollouts Наибольшее количество розыгрышей на кандидата; 0 — сравнивать только итог атаки.
+     */
+    public void setMaxRollouts(int maxRollouts) {
+        if (maxRollouts < 0) {
+            throw new IllegalArgumentException("Количество розыгрышей не может быть отрицательным: " + maxRollouts);
+        }
+        this.maxRollouts = maxRollouts;
+    }
+
+    /**
+     * @param nodeBudget Наибольшее количество атак в ветвях за один выбор цели; 0 — без ограничения.
+     */
+    public void setNodeBudget(long nodeBudget) {
+        if (nodeBudget < 0) {
+            throw new IllegalArgumentException("Бюджет узлов не может быть отрицательным: " + nodeBudget);
+        }
+        this.nodeBudget = nodeBudget;
+    }
+
+    /**
+     * @param timeBudgetMicros Бюджет времени одного выбора цели в микросекундах; 0 — без ограничения.
+     */
+    public void setTimeBudgetMicros(long timeBudgetMicros) {
+        if (timeBudgetMicros < 0) {
+            throw new IllegalArgumentException("Бюджет времени не может быть отрицательным: " + timeBudgetMicros);
+        }
+        this.timeBudgetMicros = timeBudgetMicros;
+    }
+
+    /**
+     * @param seed Зерно генератора розыгрышей.
+     */
+    public void setSeed(long seed) {
+        this.random = new SplittableRandom(seed);
+    }
+
+    /**
+     * @return Количество атак, сыгранных в ветвях за все выборы цели.
+     */
+    public long getEvaluatedNodes() {
+        return evaluatedNodes;
+    }
+
+    /**
+     * Строит снимок боя по спискам армий. Вызывается симуляцией в начале боя.
+     *
+     * @param playerUnits    Юниты армии игрока.
+     * @param computerUnits  Юниты армии компьютера.
+     * @param bonusesApplied true, если урон симуляции умножается на бонусы.
+     *
+     * Сложность: O(N * T + T^2 + CELLS), где N — количество юнитов, T — количество типов.
+     */
+    public void beginBattle(List<Unit> playerUnits, List<Unit> computerUnits, boolean bonusesApplied) {
+        this.snapshot = new BattleSnapshot(playerUnits, computerUnits, bonusesApplied);
+        this.attacker = null;
+    }
+
+    /**
+     * Сообщает юнит, программа которого сейчас выбирает цель. Вызывается симуляцией перед каждой атакой.
+     *
+     * @param attacker Атакующий юнит.
+     */
+    public void setAttacker(Unit attacker) {
+        this.attacker = attacker;
+    }
+
+    /**
+     * Освобождает снимок завершенного боя.
+     */
+    public void endBattle() {
+        this.snapshot = null;
+        this.attacker = null;
+    }
+
+    /**
+     * Находит подходящие для атаки юниты и ставит первым кандидата с лучшим итогом просмотра вперед.
+     *
+     * @param unitsByRow      Список строк юнитов.
+     * @param isLeftArmyTarget Указывает, является ли целью левая армия.
+     * @return Список подходящих для атаки юнитов; первым стоит выбранная цель.
+     *
+     * Сложность: O(S + N + CELLS + B * h), где S — стоимость вложенного поиска, N — количество юнитов,
+     * B — бюджет узлов, h — стоимость одной атаки в ветви (см. {@link BattleSnapshot.Branch#simulateTurns}).
+     */
+    @Override
+    public List<Unit> getSuitableUnits(List<List<Unit>> unitsByRow, boolean isLeftArmyTarget) {
+        List<Unit> candidates = candidatesFinder.getSuitableUnits(unitsByRow, isLeftArmyTarget);
+        if (snapshot == null || attacker == null || candidates.size() < 2) {
+            return candidates;
+        }
+        int attackerId = snapshot.idOf(attacker);
+        if (attackerId < snapshot.getPlayerCount()) {
+            return candidates; // Юнит армии игрока или юнит не из этого боя
+        }
+        Unit[] ordered = candidates.toArray(new Unit[0]);
+        snapshot.refresh(); // O(N + CELLS)
+        int best = chooseTarget(attackerId, ordered);
+        if (best < 0) {
+            return candidates;
+        }
+        Unit target = ordered[best];
+        System.arraycopy(ordered, 0, ordered, 1, best); // Остальные кандидаты сохраняют порядок
+        ordered[0] = target;
+        return new FixedOrderUnitList(ordered);
+    }
+
+    /**
+     * Оценивает кандидатов розыгрышами в ветвях снимка.
+     *
+     * @return Номер лучшего кандидата или -1, если кандидат не найден в снимке.
+     * @complexity Временная сложность: O(k + B), где k — количество кандидатов, B — бюджет узлов,
+     * без учета пересчета компонент связности после гибели юнитов.
+     */
+    private int chooseTarget(int attackerId, Unit[] candidates) {
+        int count = candidates.length;
+        BattleSnapshot.Branch root = snapshot.root();
+        BattleSnapshot.Branch[] afterAttack = new BattleSnapshot.Branch[count];
+        double[] scores = new double[count];
+        for (int i = 0; i < count; i++) {
+            int target = snapshot.idOf(candidates[i]);
+            if (target < 0) {
+                return -1;
+            }
+            afterAttack[i] = root.fork();
+            afterAttack[i].attack(attackerId, target);
+            scores[i] = value(afterAttack[i]);
+        }
+        long nodes = count;
+        long deadline = timeBudgetMicros > 0 ? System.nanoTime() + timeBudgetMicros * 1000 : 0;
+        double[] sums = new double[count];
+        double[] round = new double[count];
+        int rounds = 0;
+        rollouts:
+        for (; rounds < maxRollouts; rounds++) {
+            long rolloutSeed = random.nextLong(); // Одно зерно для всех кандидатов раунда
+            for (int i = 0; i < count; i++) {
+                if (nodeBudget > 0 && nodes >= nodeBudget
+                        || deadline != 0 && System.nanoTime() - deadline >= 0) {
+                    break rollouts;
+                }
+                int limit = nodeBudget > 0 ? (int) Math.min(Integer.MAX_VALUE, nodeBudget - nodes) : Integer.MAX_VALUE;
+                BattleSnapshot.Branch branch = afterAttack[i].fork(); // O(k)
+                int attacks = branch.simulateTurns(attackerId, horizonTurns, new SplittableRandom(rolloutSeed), limit);
+                nodes += attacks;
+                if (attacks == limit) {
+                    break rollouts; // Розыгрыш обрезан бюджетом
+                }
+                round[i] = value(branch);
+            }
+            for (int i = 0; i < count; i++) {
+                sums[i] += round[i];
+            }
+        }
+        evaluatedNodes += nodes;
+        if (rounds > 0) {
+            System.arraycopy(sums, 0, scores, 0, count);
+        }
+        int best = 0;
+        for (int i = 1; i < count; i++) {
+            if (scores[i] > scores[best]) { // При равенстве остается порядок вложенного поиска
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * @return Разница суммарного здоровья армий в пользу компьютера.
+     */
+    private static double value(BattleSnapshot.Branch branch) {
+        return branch.getComputerHealth() - branch.getPlayerHealth();
+    }
+}
@@ -0,0 +1,308 @@
+package main.java.com.heroes_task.programs;
+
+import com.battle.heroes.army.Unit;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static main.java.com.heroes_task.programs.UnitTargetPathFinderImpl.HEIGHT;
+import static main.java.com.heroes_task.programs.UnitTargetPathFinderImpl.WIDTH;
+
+/**
+ * Индекс занятости игрового поля для поиска пути в течение боя.
+ * Строится один раз в начале боя и обновляется точечно при перемещении и гибели юнитов,
+ * поэтому запросы не требуют обхода списков армий.
+ * <p>
+ * Строкой поля считается горизонталь с фиксированной координатой y. Для каждой строки
+ * и каждой армии хранится битовая маска занятых координат x, что дает поиск
+ * самого левого и самого правого юнита строки за O(1).
+ * Левая армия — армия компьютера (стартовые x от 0 до 2), правая — армия игрока.
+ * <p>
+ * Для кэшей, которые зависят от расположения юнитов, индекс ведет хэш Зобриста занятых клеток:
+ * исключающее ИЛИ случайных 64-битных ключей всех занятых клеток, обновляемое за O(1)
+ * при каждом изменении.
+ * <p>
+ * Экземпляр не потокобезопасен и принадлежит одному бою.
+ */
+public class OccupancyIndex {
+    private static final int CELLS = WIDTH * HEIGHT; // Количество клеток поля
+    private static final int LEFT_ARMY_FLAG = 1; // Младший бит позиции юнита — принадлежность левой армии
+    private static final long[] ZOBRIST_KEYS = zobristKeys(CELLS, 0x5EED_0CC0_9A4CL); // Ключи клеток для хэша
+
+    private final Unit[] cells = new Unit[CELLS];
+    private final long[] occupied = new long[(CELLS + 63) >>> 6];
+    private final long[] leftArmyRows = new long[HEIGHT];
+    private final long[] rightArmyRows = new long[HEIGHT];
+    private final Map<Unit, Integer> positions = new IdentityHashMap<>();
+    private long version;
+    private long occupancyHash;
+
+    /**
+     * Перестраивает индекс по спискам юнитов армий. Учитываются только живые юниты.
+     *
+     * @param leftArmyUnits  Юниты левой армии (армия компьютера).
+     * @param rightArmyUnits Юниты правой армии (армия игрока).
+     *
+     * Сложность: O(N + WIDTH * HEIGHT), где N — количество юнитов.
+     */
+    public void rebuild(List<Unit> leftArmyUnits, List<Unit> rightArmyUnits) {
+        Arrays.fill(cells, null);
+        Arrays.fill(occupied, 0L);
+        Arrays.fill(leftArmyRows, 0L);
+        Arrays.fill(rightArmyRows, 0L);
+        positions.clear();
+        occupancyHash = 0;
+        for (Unit unit : leftArmyUnits) {
+            if (unit.isAlive()) {
+                add(unit, true);
+            }
+        }
+        for (Unit unit : rightArmyUnits) {
+            if (unit.isAlive()) {
+                add(unit, false);
+            }
+        }
+        version++;
+    }
+
+    /**
+     * Добавляет юнит в индекс по его текущим координатам.
+     *
+     * @param unit     Юнит.
+     * @param leftArmy true, если юнит принадлежит левой армии.
+     *
+     * Сложность: O(1).
+     */
+    public void add(Unit unit, boolean leftArmy) {
+        if (positions.containsKey(unit)) {
+            remove(unit);
+        }
+        int cell = cellOf(unit.getxCoordinate(), unit.getyCoordinate());
+        if (cell < 0) {
+            throw new IllegalArgumentException("Юнит " + unit.getName() + " вне игрового поля: ("
+                    + unit.getxCoordinate() + ", " + unit.getyCoordinate() + ")");
+        }
+        positions.put(unit, cell << 1 | (leftArmy ? LEFT_ARMY_FLAG : 0));
+        place(unit, cell, leftArmy);
+        version++;
+    }
+
+    /**
+     * Удаляет юнит из индекса, например после его гибели.
+     *
+     * @param unit Юнит.
+     * @return true, если юнит был в индексе.
+     *
+     * Сложность: O(1).
+     */
+    public boolean remove(Unit unit) {
+        Integer position = positions.remove(unit);
+        if (position == null) {
+            return false;
+        }
+        clear(unit, position >>> 1, (position & LEFT_ARMY_FLAG) != 0);
+        version++;
+        return true;
+    }
+
+    /**
+     * Сверяет записанную позицию юнита с его текущими координатами и переносит его, если он сместился.
+     *
+     * @param unit Юнит.
+     * @return true, если позиция юнита изменилась.
+     *
+     * Сложность: O(1).
+     */
+    public boolean update(Unit unit) {
+        Integer position = positions.get(unit);
+        if (position == null) {
+            return false;
+        }
+        int cell = cellOf(unit.getxCoordinate(), unit.getyCoordinate());
+        int oldCell = position >>> 1;
+        if (cell == oldCell) {
+            return false;
+        }
+        if (cell < 0) {
+            throw new IllegalArgumentException("Юнит " + unit.getName() + " вне игрового поля: ("
+                    + unit.getxCoordinate() + ", " + unit.getyCoordinate() + ")");
+        }
+        boolean leftArmy = (position & LEFT_ARMY_FLAG) != 0;
+        clear(unit, oldCell, leftArmy);
+        place(unit, cell, leftArmy);
+        positions.put(unit, cell << 1 | (leftArmy ? LEFT_ARMY_FLAG : 0));
+        version++;
+        return true;
+    }
+
+    /**
+     * @return true, если юнит находится в индексе.
+     *
+     * Сложность: O(1).
+     */
+    public boolean contains(Unit unit) {
+        return positions.containsKey(unit);
+    }
+
+    /**
+     * Возвращает юнит, стоящий в клетке.
+     *
+     * @param x Координата X.
+     * @param y Координата Y.
+     * @return Юнит или null, если клетка свободна или вне поля.
+     *
+     * Сложность: O(1).
+     */
+    public Unit getUnitAt(int x, int y) {
+        int cell = cellOf(x, y);
+        return cell < 0 ? null : cells[cell];
+    }
+
+    /**
+     * Проверяет, занята ли клетка.
+     *
+     * @param x Координата X.
+     * @param y Координата Y.
+     * @return true, если в клетке стоит юнит.
+     *
+     * Сложность: O(1).
+     */
+    public boolean isOccupied(int x, int y) {
+        int cell = cellOf(x, y);
+        return cell >= 0 && (occupied[cell >>> 6] & (1L << cell)) != 0;
+    }
+
+    /**
+     * Возвращает самый левый юнит армии в строке y.
+     *
+     * @param y        Строка поля.
+     * @param leftArmy true для левой армии, false для правой.
+     * @return Юнит или null, если в строке нет юнитов армии.
+     *
+     * Сложность: O(1).
+     */
+    public Unit getLeftmostUnit(int y, boolean leftArmy) {
+        long row = rowMask(y, leftArmy);
+        return row == 0 ? null : cells[Long.numberOfTrailingZeros(row) * HEIGHT + y];
+    }
+
+    /**
+     * Возвращает самый правый юнит армии в строке y.
+     *
+     * @param y        Строка поля.
+     * @param leftArmy true для левой армии, false для правой.
+     * @return Юнит или null, если в строке нет юнитов армии.
+     *
+     * Сложность: O(1).
+     */
+    public Unit getRightmostUnit(int y, boolean leftArmy) {
+        long row = rowMask(y, leftArmy);
+        return row == 0 ? null : cells[(63 - Long.numberOfLeadingZeros(row)) * HEIGHT + y];
+    }
+
+    /**
+     * @return Количество юнитов в индексе.
+     */
+    public int size() {
+        return positions.size();
+    }
+
+    /**
+     * Возвращает номер версии индекса. Номер увеличивается при каждом изменении,
+     * что позволяет инвалидировать вычисленные по индексу кэши.
+     *
+     * @return Версия индекса.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Возвращает хэш Зобриста занятых клеток. Одинаковые наборы занятых клеток дают одинаковый хэш
+     * независимо от того, какие юниты в них стоят и в каком порядке они расставлены.
+     *
+     * @return Хэш занятых клеток.
+     *
+     * Сложность: O(1).
+     */
+    public long getOccupancyHash() {
+        return occupancyHash;
+    }
+
+    /**
+     * Проверяет, совпадает ли битовая карта занятых клеток с заданной.
+     *
+     * @param cells Битовая карта в формате {@link #copyOccupiedCells}.
+     * @return true, если заняты те же клетки.
+     *
+     * Сложность: O(WIDTH * HEIGHT / 64).
+     */
+    boolean hasOccupiedCells(long[] cells) {
+        return Arrays.equals(occupied, 0, occupied.length, cells, 0, occupied.length);
+    }
+
+    /**
+     * Создает случайные ключи Зобриста из фиксированного зерна, чтобы хэш не менялся между запусками.
+     *
+     * @param count Количество ключей.
+     * @param seed  Зерно генератора.
+     * @return Ключи.
+     */
+    static long[] zobristKeys(int count, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        long[] keys = new long[count];
+        for (int i = 0; i < count; i++) {
+            keys[i] = random.nextLong();
+        }
+        return keys;
+    }
+
+    /**
+     * Копирует битовую карту занятых клеток с индексом {@code x * HEIGHT + y}.
+     *
+     * @param target Массив длиной не меньше {@code (WIDTH * HEIGHT + 63) / 64}.
+     *
+     * Сложность: O(WIDTH * HEIGHT / 64).
+     */
+    void copyOccupiedCells(long[] target) {
+        System.arraycopy(occupied, 0, target, 0, occupied.length);
+    }
+
+    private long rowMask(int y, boolean leftArmy) {
+        if (y < 0 || y >= HEIGHT) {
+            return 0L;
+        }
+        return leftArmy ? leftArmyRows[y] : rightArmyRows[y];
+    }
+
+    private void place(Unit unit, int cell, boolean leftArmy) {
+        cells[cell] = unit;
+        if ((occupied[cell >>> 6] & (1L << cell)) == 0) {
+            occupancyHash ^= ZOBRIST_KEYS[cell];
+        }
+        occupied[cell >>> 6] |= 1L << cell;
+        long[] rows = leftArmy ? leftArmyRows : rightArmyRows;
+        rows[cell % HEIGHT] |= 1L << (cell / HEIGHT);
+    }
+
+    private void clear(Unit unit, int cell, boolean leftArmy) {
+        if (cells[cell] != unit) {
+            return; // В клетке уже стоит другой юнит
+        }
+        cells[cell] = null;
+        occupied[cell >>> 6] &= ~(1L << cell);
+        occupancyHash ^= ZOBRIST_KEYS[cell];
+        long[] rows = leftArmy ? leftArmyRows : rightArmyRows;
+        rows[cell % HEIGHT] &= ~(1L << (cell / HEIGHT));
+    }
+
+    private static int cellOf(int x, int y) {
+        if (x < 0 || x >= WIDTH || y < 0 || y >= HEIGHT) {
+            return -1;
+        }
+        return x * HEIGHT + y;
+    }
+}
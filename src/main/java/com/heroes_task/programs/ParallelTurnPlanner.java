@@ -0,0 +1,286 @@
+package main.java.com.heroes_task.programs;
+
+import com.battle.heroes.army.Unit;
+import com.battle.heroes.army.programs.Edge;
+import com.battle.heroes.army.programs.UnitTargetPathFinder;
+import main.java.com.heroes_task.programs.events.BattleEventSink;
+import main.java.com.heroes_task.programs.metrics.BattleMetrics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import static main.java.com.heroes_task.programs.UnitTargetPathFinderImpl.HEIGHT;
+import static main.java.com.heroes_task.programs.UnitTargetPathFinderImpl.WIDTH;
+
+/**
+ * Параллельное планирование хода армии внутри одного боя.
+ * <p>
+ * Перед ходом армии от каждого юнита ближнего боя параллельно выполняется обход
+ * в ширину по снимку занятости поля ({@link BfsUnitTargetPathFinderImpl#explore}),
+ * который останавливается, как только обнаружены клетки всех живых защитников.
+ * Дерево обхода дает путь до любого защитника, в том числе до юнита, который станет
+ * подходящим для атаки только после гибели соседа. Затем ход выполняется как обычно,
+ * последовательно: программы юнитов выбирают цели, наносят урон и перемещаются
+ * в прежнем порядке, а путь берется из дерева, если он совпадает с тем, что нашел бы
+ * последовательный поиск {@link BfsUnitTargetPathFinderImpl} по текущему полю.
+ * Иначе путь ищется заново. Поэтому итог боя, пути и события не отличаются
+ * от последовательной симуляции.
+ * <p>
+ * Клетки юнитов за бой не меняются: программы возвращают атакующего в исходную клетку.
+ * С начала хода клетки только освобождаются погибшими юнитами. Освобожденная клетка
+ * не меняет путь длины L, если каждый ее сосед, раскрытый обходом, лежит на глубине
+ * не меньше L - 1: тогда клетка сама окажется на глубине не меньше L и не станет
+ * предшественником клеток пути. Для недостижимой цели план годен, пока освобожденные
+ * клетки не касаются раскрытой области.
+ * <p>
+ * Планировщик служит поиском пути программ юнитов и использует тот же индекс занятости,
+ * что и симуляция ({@link SimulateBattleImpl#setTurnPlanner}). Экземпляр принадлежит одному бою.
+ * <p>
+ * Обходы выполняются на отдельном пуле планирования. Планировщик ускоряет только одиночный бой
+ * с большими армиями на нескольких ядрах: в пакетных прогонах ядра уже заняты параллельными
+ * боями, и ожидание обходов на каждом ходу лишь добавляет накладные расходы.
+ */
+public class ParallelTurnPlanner implements UnitTargetPathFinder {
+    /** Минимальное количество атакующих ближнего боя, при котором ход планируется параллельно. */
+    public static final int MIN_PARALLEL_ATTACKERS = 4;
+
+    private static final int CELLS = WIDTH * HEIGHT; // Количество клеток поля
+    private static final int WORDS = (CELLS + 63) >>> 6; // Длина битовой карты клеток
+
+    private final OccupancyIndex occupancyIndex;
+    private final ForkJoinPool pool;
+    private final BattleEventSink eventSink;
+    private final BfsUnitTargetPathFinderImpl pathFinder;
+    private final long[] snapshot = new long[WORDS];
+    private final long[] targets = new long[WORDS];
+    private final long[] current = new long[WORDS];
+    private final Map<Unit, Integer> plannedAttackers = new IdentityHashMap<>();
+    private final List<Unit> attackers = new ArrayList<>();
+    private long snapshotVersion;
+    private int targetCount;
+    private int[] startCells = new int[0];
+    private int[][] previous = new int[0][];
+    private short[][] depths = new short[0][];
+    private long plannedAttacks;
+    private long servedPaths;
+
+    /**
+     * @param occupancyIndex Индекс занятости поля, который ведет симуляция.
+     * @param pool           Пул планирования, на котором выполняются обходы; не должен быть пулом,
+     *                       на котором выполняется сам бой.
+     * @param eventSink      Получатель событий поиска пути.
+     */
+    public ParallelTurnPlanner(OccupancyIndex occupancyIndex, ForkJoinPool pool, BattleEventSink eventSink) {
+        if (occupancyIndex == null) {
+            throw new IllegalArgumentException("Индекс занятости поля не задан");
+        }
+        if (pool == null) {
+            throw new IllegalArgumentException("Пул планирования не задан");
+        }
+        this.occupancyIndex = occupancyIndex;
+        this.pool = pool;
+        this.eventSink = eventSink;
+        this.pathFinder = new BfsUnitTargetPathFinderImpl(eventSink);
+        this.pathFinder.setOccupancyIndex(occupancyIndex);
+    }
+
+    /**
+     * Подключает метрики к поиску пути, который выполняется, когда путь из плана не годится.
+     * Пути из плана поисками не считаются.
+     *
+     * @param metrics Метрики или null, чтобы не собирать метрики.
+     */
+    public void setMetrics(BattleMetrics metrics) {
+        pathFinder.setMetrics(metrics);
+    }
+
+    /**
+     * Планирует ход армии: параллельно обходит поле от каждого юнита ближнего боя
+     * по текущей занятости до клеток всех живых защитников. Если атакующих меньше
+     * {@link #MIN_PARALLEL_ATTACKERS}, план не строится и пути ищутся во время хода.
+     *
+     * @param attackerUnits Оставшиеся юниты армии, совершающей ход.
+     * @param defenderUnits Оставшиеся юниты армии, принимающей ход.
+     * @throws InterruptedException Если ожидание планирования прервано.
+     *
+     * Сложность: O(a * WIDTH * HEIGHT / P + n + m), где a — количество атакующих ближнего боя,
+     * P — параллелизм пула, n и m — количество мест в порядке хода армий.
+     */
+    void planTurn(LivingUnits attackerUnits, LivingUnits defenderUnits) throws InterruptedException {
+        plannedAttackers.clear();
+        attackers.clear();
+        for (int slot = 0; slot < attackerUnits.size(); slot++) {
+            Unit unit = attackerUnits.get(slot);
+            if (attackerUnits.isLiving(slot) && !"Archer".equals(unit.getUnitType())) { // Лучники не ищут путь
+                attackers.add(unit);
+            }
+        }
+        int count = attackers.size();
+        if (count < MIN_PARALLEL_ATTACKERS) {
+            attackers.clear();
+            return;
+        }
+        ensureCapacity(count);
+        Arrays.fill(targets, 0L);
+        targetCount = 0;
+        for (int slot = 0; slot < defenderUnits.size(); slot++) {
+            Unit unit = defenderUnits.get(slot);
+            int cell = BfsUnitTargetPathFinderImpl.cellOf(unit.getxCoordinate(), unit.getyCoordinate());
+            if (defenderUnits.isLiving(slot) && cell >= 0 && (targets[cell >>> 6] & (1L << cell)) == 0) {
+                targets[cell >>> 6] |= 1L << cell;
+                targetCount++;
+            }
+        }
+        occupancyIndex.copyOccupiedCells(snapshot);
+        snapshotVersion = occupancyIndex.getVersion();
+        for (int i = 0; i < count; i++) {
+            plannedAttackers.put(attackers.get(i), i);
+        }
+        try {
+            pool.submit(() -> IntStream.range(0, count).parallel().forEach(this::planAttacker)).get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Планирование хода завершилось с ошибкой", e.getCause());
+        }
+        plannedAttacks += count;
+    }
+
+    /**
+     * Возвращает путь из плана хода, если он совпадает с результатом последовательного поиска,
+     * иначе ищет путь по текущему полю.
+     *
+     * @param attackUnit       Юнит, начинающий движение.
+     * @param targetUnit       Целевой юнит.
+     * @param existingUnitList Список всех юнитов на поле (не используется: занятость берется из индекса).
+     * @return Список клеток пути.
+     * @complexity Временная сложность: O(WIDTH * HEIGHT / 64 + k + L), где k — количество освобожденных
+     * с начала хода клеток, L — длина пути, если атакующий есть в плане; иначе O(WIDTH * HEIGHT).
+     */
+    @Override
+    public List<Edge> getTargetPath(Unit attackUnit, Unit targetUnit, List<Unit> existingUnitList) {
+        Integer attacker = plannedAttackers.remove(attackUnit); // Атакующий ходит один раз за ход
+        int start = BfsUnitTargetPathFinderImpl.cellOf(attackUnit.getxCoordinate(), attackUnit.getyCoordinate());
+        int target = BfsUnitTargetPathFinderImpl.cellOf(targetUnit.getxCoordinate(), targetUnit.getyCoordinate());
+        if (attacker == null || start < 0 || start != startCells[attacker] || target < 0
+                || (targets[target >>> 6] & (1L << target)) == 0 || !isStillValid(attacker, target)) {
+            return pathFinder.getTargetPath(attackUnit, targetUnit, existingUnitList);
+        }
+        servedPaths++;
+        if (eventSink.isMessageEnabled()) {
+            log("Начало поиска пути для юнита: " + attackUnit.getName());
+        }
+        List<Edge> path = BfsUnitTargetPathFinderImpl.constructPath(previous[attacker], depths[attacker], start, target);
+        eventSink.onPathFound(attackUnit, targetUnit, path.size());
+        return path;
+    }
+
+    /**
+     * @return Количество обходов, выполненных при планировании с начала боя.
+     */
+    public long getPlannedAttacks() {
+        return plannedAttacks;
+    }
+
+    /**
+     * @return Количество путей, взятых из плана без повторного поиска.
+     */
+    public long getServedPaths() {
+        return servedPaths;
+    }
+
+    /**
+     * Обходит поле от одного атакующего по снимку. Выполняется параллельно: читает только
+     * неизменяемые во время планирования данные и пишет только в массивы своего атакующего.
+     */
+    private void planAttacker(int attacker) {
+        Unit unit = attackers.get(attacker);
+        int start = BfsUnitTargetPathFinderImpl.cellOf(unit.getxCoordinate(), unit.getyCoordinate());
+        startCells[attacker] = start;
+        if (start >= 0) {
+            BfsUnitTargetPathFinderImpl.explore(snapshot, start, targets, targetCount,
+                    previous[attacker], depths[attacker]);
+        }
+    }
+
+    /**
+     * Проверяет, что путь из дерева атакующего совпадает с результатом поиска по текущему полю.
+     *
+     * @complexity Временная сложность: O(WIDTH * HEIGHT / 64 + k), где k — количество освобожденных клеток.
+     */
+    private boolean isStillValid(int attacker, int target) {
+        if (occupancyIndex.getVersion() == snapshotVersion) {
+            return true;
+        }
+        int start = startCells[attacker];
+        short[] depth = depths[attacker];
+        int bound = depth[target] < 0 ? Integer.MAX_VALUE : depth[target] - 1;
+        occupancyIndex.copyOccupiedCells(current);
+        for (int word = 0; word < WORDS; word++) {
+            long added = current[word] & ~snapshot[word];
+            long freed = snapshot[word] & ~current[word];
+            for (long bits = added | freed; bits != 0; bits &= bits - 1) {
+                int cell = word << 6 | Long.numberOfTrailingZeros(bits);
+                if (cell == start || cell == target) {
+                    continue; // Клетки атакующего и цели при поиске всегда свободны
+                }
+                if ((added & (1L << cell)) != 0 || touchesShallowCell(cell, start, target, depth, bound)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return true, если у клетки есть сосед, раскрытый обходом на глубине меньше {@code bound}.
+     */
+    private boolean touchesShallowCell(int cell, int start, int target, short[] depth, int bound) {
+        int x = cell / HEIGHT;
+        int y = cell - x * HEIGHT;
+        return x > 0 && isShallow(cell - HEIGHT, start, target, depth, bound)
+                || x < WIDTH - 1 && isShallow(cell + HEIGHT, start, target, depth, bound)
+                || y > 0 && isShallow(cell - 1, start, target, depth, bound)
+                || y < HEIGHT - 1 && isShallow(cell + 1, start, target, depth, bound);
+    }
+
+    /**
+     * @return true, если обход раскрывал клетку (стартовую или свободную на снимке, кроме цели)
+     * и она лежит на глубине меньше {@code bound}.
+     */
+    private boolean isShallow(int cell, int start, int target, short[] depth, int bound) {
+        boolean expanded = cell == start || cell != target && (snapshot[cell >>> 6] & (1L << cell)) == 0;
+        return expanded && depth[cell] >= 0 && depth[cell] < bound;
+    }
+
+    private void ensureCapacity(int count) {
+        if (startCells.length >= count) {
+            return;
+        }
+        int capacity = Math.max(count, startCells.length * 2);
+        startCells = Arrays.copyOf(startCells, capacity);
+        int[][] grownPrevious = Arrays.copyOf(previous, capacity);
+        short[][] grownDepths = Arrays.copyOf(depths, capacity);
+        for (int i = previous.length; i < capacity; i++) {
+            grownPrevious[i] = new int[CELLS];
+            grownDepths[i] = new short[CELLS];
+        }
+        previous = grownPrevious;
+        depths = grownDepths;
+    }
+
+    /**
+     * Передает текстовое сообщение получателю событий, если он их обрабатывает.
+     *
+     * @param message Сообщение.
+     */
+    private void log(String message) {
+        if (eventSink.isMessageEnabled()) {
+            eventSink.onMessage(message);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package main.java.com.heroes_task.programs;
+
+import com.battle.heroes.army.Unit;
+
+import java.util.List;
+
+/**
+ * Целевая функция генератора армии: ценность одного экземпляра юнита.
+ * Ценность армии считается суммой ценностей ее юнитов, что позволяет
+ * {@link KnapsackGeneratePresetImpl} искать оптимум динамическим программированием.
+ */
+@FunctionalInterface
+public interface PresetObjective {
+
+    /**
+     * Вычисляет ценность одного экземпляра юнита.
+     *
+     * @param unit Прототип юнита.
+     * @return Неотрицательная ценность юнита.
+     */
+    double getValue(Unit unit);
+
+    /**
+     * @return Целевая функция «суммарная атака армии».
+     */
+    static PresetObjective attack() {
+        return Unit::getBaseAttack;
+    }
+
+    /**
+     * @return Целевая функция «суммарное здоровье армии» без учета бонусов.
+     */
+    static PresetObjective health() {
+        return Unit::getHealth;
+    }
+
+    /**
+     * Целевая функция «эффективное здоровье против известной армии противника».
+     * Урон противника по юниту умножается на бонус атаки противника против типа юнита
+     * и делится на бонус защиты юнита против типа противника, как в {@link DamageTable};
+     * здоровье юнита делится на средний множитель входящего урона, взвешенный атакой
+     * противников. Отсутствующий бонус равен 1.
+     *
+     * @param enemyUnits Юниты армии противника.
+     * @return Целевая функция.
+     * @complexity Временная сложность вычисления ценности: O(E), где E — количество юнитов противника.
+     */
+    static PresetObjective effectiveHealthAgainst(List<Unit> enemyUnits) {
+        List<Unit> enemies = List.copyOf(enemyUnits);
+        return unit -> {
+            double baseDamage = 0;
+            double damage = 0;
+            for (Unit enemy : enemies) {
+                baseDamage += enemy.getBaseAttack();
+                damage += enemy.getBaseAttack() * DamageTable.bonus(enemy.getAttackBonuses(), unit.getUnitType())
+                        / DamageTable.bonus(unit.getDefenceBonuses(), enemy.getUnitType());
+            }
+            return damage <= 0 ? unit.getHealth() : unit.getHealth() * baseDamage / damage;
+        };
+    }
+
+    /**
+     * Целевая функция «ожидаемый урон по известной армии противника».
+     * Урон юнита по каждому противнику умножается на бонус атаки против типа
+     * противника и делится на бонус защиты противника против типа юнита;
+     * отсутствующий бонус равен 1. Урон усредняется по составу армии противника,
+     * так как цели выбираются случайно.
+     *
+     * @param enemyUnits Юниты армии противника.
+     * @return Целевая функция.
+     * @complexity Временная сложность вычисления ценности: O(E), где E — количество юнитов противника.
+     */
+    static PresetObjective bonusDamageAgainst(List<Unit> enemyUnits) {
+        List<Unit> enemies = List.copyOf(enemyUnits);
+        return unit -> {
+            if (enemies.isEmpty()) {
+                return unit.getBaseAttack();
+            }
+            double damage = 0;
+            for (Unit enemy : enemies) {
+                damage += unit.getBaseAttack() * DamageTable.bonus(unit.getAttackBonuses(), enemy.getUnitType())
+                        / DamageTable.bonus(enemy.getDefenceBonuses(), unit.getUnitType());
+            }
+            return damage / enemies.size();
+        };
+    }
+}
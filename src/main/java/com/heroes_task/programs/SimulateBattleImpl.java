@@ -4,6 +4,13 @@ import com.battle.heroes.army.Army;
 import com.battle.heroes.army.Unit;
 import com.battle.heroes.army.programs.PrintBattleLog;
 import com.battle.heroes.army.programs.SimulateBattle;
+import main.java.com.heroes_task.programs.clock.BattleClock;
+import main.java.com.heroes_task.programs.clock.ClockedGameSpeed;
+import main.java.com.heroes_task.programs.events.BattleEventSink;
+import main.java.com.heroes_task.programs.events.ConsoleBattleEventSink;
+import main.java.com.heroes_task.programs.events.PrintBattleLogEventSink;
+import main.java.com.heroes_task.programs.metrics.BattleMetrics;
+import main.java.com.heroes_task.programs.replay.BattleReplayRecorder;
 
 import java.util.List;
 
@@ -13,7 +20,18 @@ import java.util.List;
  */
 public class SimulateBattleImpl implements SimulateBattle {
 
-    private PrintBattleLog printBattleLog;
+    private BattleEventSink printBattleLogSink = BattleEventSink.NONE;
+    private BattleEventSink eventSink = new ConsoleBattleEventSink();
+    private int maxRounds = 0;
+    private OccupancyIndex occupancyIndex;
+    private BattleReplayRecorder replayRecorder;
+    private long seed;
+    private boolean bonusesApplied;
+    private ParallelTurnPlanner turnPlanner;
+    private final ClockedGameSpeed gameSpeed = new ClockedGameSpeed(BattleClock.REAL_TIME, 0);
+    private long battleTimeMillis;
+    private BattleMetrics metrics;
+    private LookaheadSuitableForAttackUnitsFinder lookahead;
 
     /**
      * Устанавливает реализацию интерфейса PrintBattleLog для вывода логов боя.
@@ -21,7 +39,153 @@ public class SimulateBattleImpl implements SimulateBattle {
      * @param printBattleLog Реализация интерфейса PrintBattleLog.
      */
     public void setPrintBattleLog(PrintBattleLog printBattleLog) {
-        this.printBattleLog = printBattleLog;
+        this.printBattleLogSink = printBattleLog == null ? BattleEventSink.NONE : new PrintBattleLogEventSink(printBattleLog);
+    }
+
+    /**
+     * Включает или отключает вывод хода боя в консоль.
+     * Для пакетных прогонов вывод отключается: синхронная печать каждой атаки
+     * занимает больше времени, чем сама симуляция.
+     *
+     * @param loggingEnabled true, если сообщения нужно выводить в консоль.
+     */
+    public void setLoggingEnabled(boolean loggingEnabled) {
+        this.eventSink = loggingEnabled ? new ConsoleBattleEventSink() : BattleEventSink.NONE;
+    }
+
+    /**
+     * Устанавливает получателя событий боя: атак, гибели юнитов и сообщений о ходе боя.
+     * По умолчанию события выводятся в консоль.
+     *
+     * @param eventSink Получатель событий.
+     */
+    public void setEventSink(BattleEventSink eventSink) {
+        this.eventSink = eventSink;
+    }
+
+    /**
+     * Ограничивает количество раундов боя. По достижении лимита бой завершается ничьей.
+     * Нужно для пакетных прогонов, где оставшиеся юниты ближнего боя могут быть
+     * навсегда заблокированы и бой никогда не закончится.
+     *
+     * @param maxRounds Максимальное количество раундов; 0 — без ограничения.
+     */
+    public void setMaxRounds(int maxRounds) {
+        if (maxRounds < 0) {
+            throw new IllegalArgumentException("Лимит раундов не может быть отрицательным: " + maxRounds);
+        }
+        this.maxRounds = maxRounds;
+    }
+
+    /**
+     * Устанавливает индекс занятости поля, который симуляция поддерживает в актуальном состоянии.
+     * Индекс перестраивается в начале боя и затем обновляется при перемещении
+     * атакующего и гибели цели. Тот же индекс передается поиску пути.
+     *
+     * @param occupancyIndex Индекс занятости поля или null, чтобы не вести индекс.
+     */
+    public void setOccupancyIndex(OccupancyIndex occupancyIndex) {
+        this.occupancyIndex = occupancyIndex;
+    }
+
+    /**
+     * Устанавливает запись повтора боя. Запись получает начальную расстановку,
+     * каждый ход и итог боя.
+     *
+     * @param replayRecorder Запись повтора или null, чтобы не записывать бой.
+     */
+    public void setReplayRecorder(BattleReplayRecorder replayRecorder) {
+        this.replayRecorder = replayRecorder;
+    }
+
+    /**
+     * Устанавливает зерно боя, которое сохраняется в записи повтора.
+     *
+     * @param seed Зерно боя.
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Включает применение бонусов атаки и защиты юнитов к урону симуляции.
+     * Бонусы компилируются в {@link DamageTable} один раз в начале боя.
+     * По умолчанию урон равен базовой атаке, как в программах юнитов библиотеки.
+     *
+     * @param bonusesApplied true, если урон нужно умножать на бонусы.
+     */
+    public void setBonusesApplied(boolean bonusesApplied) {
+        this.bonusesApplied = bonusesApplied;
+    }
+
+    /**
+     * Включает параллельное планирование ходов: перед ходом каждой армии пути ее юнитов
+     * ближнего боя ищутся параллельно, затем ход выполняется последовательно, как обычно.
+     * Планировщик должен быть поиском пути программ юнитов и использовать тот же индекс
+     * занятости, что задан через {@link #setOccupancyIndex}. Итог боя не меняется.
+     * Предназначено для одиночного боя: обходы идут на собственном пуле планировщика.
+     *
+     * @param turnPlanner Планировщик ходов или null, чтобы искать пути только во время хода.
+     */
+    public void setTurnPlanner(ParallelTurnPlanner turnPlanner) {
+        this.turnPlanner = turnPlanner;
+    }
+
+    /**
+     * Устанавливает часы боя. Часы реального времени ({@link BattleClock#REAL_TIME}, по умолчанию)
+     * нужны визуальному клиенту; с виртуальными часами паузы анимации программ юнитов,
+     * созданных со скоростью {@link #getGameSpeed()}, только сдвигают время боя.
+     *
+     * @param battleClock Часы боя.
+     */
+    public void setBattleClock(BattleClock battleClock) {
+        gameSpeed.setClock(battleClock);
+    }
+
+    /**
+     * @return Часы боя.
+     */
+    public BattleClock getBattleClock() {
+        return gameSpeed.getClock();
+    }
+
+    /**
+     * Возвращает скорость игры, подчиненную часам боя. Ее нужно передавать программам юнитов
+     * вместо собственного {@code GameSpeedUtil}, чтобы паузы анимации шли по часам боя.
+     *
+     * @return Скорость игры.
+     */
+    public ClockedGameSpeed getGameSpeed() {
+        return gameSpeed;
+    }
+
+    /**
+     * @return Длительность последнего боя по часам боя в миллисекундах.
+     */
+    public long getBattleTimeMillis() {
+        return battleTimeMillis;
+    }
+
+    /**
+     * Подключает метрики боя: количество ходов армий за бой, длительность хода
+     * и количество поисков пути за ход. Поиски пути считаются, только если метрики
+     * подключены и к поиску пути программ юнитов.
+     *
+     * @param metrics Метрики или null, чтобы не собирать метрики.
+     */
+    public void setMetrics(BattleMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Подключает поиск целей с просмотром вперед: в начале боя он получает списки армий
+     * для снимка боя, перед каждой атакой — атакующий юнит. Поиск должен быть тем же экземпляром,
+     * что передан программам юнитов.
+     *
+     * @param lookahead Поиск целей с просмотром вперед или null, чтобы не сообщать ему ход боя.
+     */
+    public void setLookahead(LookaheadSuitableForAttackUnitsFinder lookahead) {
+        this.lookahead = lookahead;
     }
 
     /**
@@ -35,50 +199,195 @@ public class SimulateBattleImpl implements SimulateBattle {
      */
     @Override
     public void simulate(Army playerArmy, Army computerArmy) throws InterruptedException {
-        System.out.println("Начало симуляции боя...");
-        while (!playerArmy.getUnits().isEmpty() && !computerArmy.getUnits().isEmpty()) {
-            executeAttacks(playerArmy.getUnits(), computerArmy.getUnits());
-            executeAttacks(computerArmy.getUnits(), playerArmy.getUnits());
+        simulateBattle(playerArmy, computerArmy);
+    }
+
+    /**
+     * Симулирует бой между двумя армиями и возвращает его итог.
+     * Списки юнитов армий изменяются на месте, как и в {@link #simulate(Army, Army)}:
+     * во время боя погибшие юниты остаются в списках с признаком {@code alive = false},
+     * по окончании боя в списках остаются только выжившие.
+     *
+     * @param playerArmy   Армия игрока.
+     * @param computerArmy Армия компьютера.
+     * @return Итог боя: победитель, количество раундов и оставшееся здоровье сторон.
+     * @throws InterruptedException Если симуляция прервана.
+     *
+     * Сложность: O(R * N) без учета программ юнитов, где R — количество раундов, N — количество юнитов.
+     */
+    public BattleResult simulateBattle(Army playerArmy, Army computerArmy) throws InterruptedException {
+        log("Начало симуляции боя...");
+        BattleClock battleClock = gameSpeed.getClock();
+        long startTime = battleClock.currentTimeMillis();
+        if (occupancyIndex != null) {
+            occupancyIndex.rebuild(computerArmy.getUnits(), playerArmy.getUnits()); // O(N)
+        }
+        if (replayRecorder != null) {
+            replayRecorder.beginBattle(seed, playerArmy, computerArmy); // O(N)
         }
-        if (playerArmy.getUnits().isEmpty()) {
-            System.out.println("Армия игрока проиграла!");
+        DamageTable damageTable = bonusesApplied
+                ? DamageTable.compile(playerArmy.getUnits(), computerArmy.getUnits()) // O(N)
+                : null;
+        LivingUnits playerUnits = new LivingUnits(playerArmy.getUnits()); // O(N)
+        LivingUnits computerUnits = new LivingUnits(computerArmy.getUnits());
+        UnitTypeGrid typeGrid = null;
+        if (damageTable != null) {
+            playerUnits.compileDamage(damageTable); // O(N * T)
+            computerUnits.compileDamage(damageTable);
+            typeGrid = new UnitTypeGrid(damageTable, playerArmy.getUnits(), computerArmy.getUnits()); // O(N * T + CELLS)
+        }
+        if (lookahead != null) {
+            lookahead.beginBattle(playerArmy.getUnits(), computerArmy.getUnits(), bonusesApplied); // O(N)
+        }
+        int rounds = 0;
+        try {
+            while (!playerUnits.isEmpty() && !computerUnits.isEmpty()) {
+                if (maxRounds > 0 && rounds >= maxRounds) {
+                    break;
+                }
+                if (replayRecorder != null) {
+                    replayRecorder.beginRound(rounds);
+                }
+                executeTurn(playerUnits, computerUnits, typeGrid);
+                executeTurn(computerUnits, playerUnits, typeGrid);
+                rounds++;
+            }
+        } finally {
+            battleTimeMillis = battleClock.currentTimeMillis() - startTime;
+            if (lookahead != null) {
+                lookahead.endBattle();
+            }
+            // Списки армий синхронизируются один раз, в том числе если бой прерван
+            playerUnits.syncTo(playerArmy.getUnits()); // O(N)
+            computerUnits.syncTo(computerArmy.getUnits());
+        }
+        BattleOutcome outcome;
+        if (playerUnits.isEmpty()) {
+            log("Армия игрока проиграла!");
+            outcome = BattleOutcome.COMPUTER_WON;
+        } else if (computerUnits.isEmpty()) {
+            log("Армия компьютера проиграла!");
+            outcome = BattleOutcome.PLAYER_WON;
         } else {
-            System.out.println("Армия компьютера проиграла!");
+            log("Бой остановлен: достигнут лимит раундов");
+            outcome = BattleOutcome.DRAW;
+        }
+        BattleResult result = new BattleResult(outcome, rounds,
+                playerArmy.getUnits().size(), totalHealth(playerArmy.getUnits()),
+                computerArmy.getUnits().size(), totalHealth(computerArmy.getUnits()));
+        if (replayRecorder != null) {
+            replayRecorder.endBattle(result);
         }
+        if (metrics != null) {
+            metrics.recordBattle(rounds * 2);
+        }
+        return result;
     }
 
     /**
-     * Выполняет атаки одной армии на другую.
+     * Выполняет ход армии и, если метрики подключены, учитывает его длительность
+     * и количество поисков пути.
      *
-     * @param attackers Армия, совершающая атаку.
-     * @param defenders Армия, принимающая атаку.
+     * @param attackers Оставшиеся юниты армии, совершающей атаку.
+     * @param defenders Оставшиеся юниты армии, принимающей атаку.
+     * @param typeGrid  Типы юнитов по клеткам или null, если урон равен базовой атаке.
      * @throws InterruptedException Если выполнение атаки прерывается.
+     */
+    private void executeTurn(LivingUnits attackers, LivingUnits defenders, UnitTypeGrid typeGrid) throws InterruptedException {
+        if (metrics == null) {
+            executeAttacks(attackers, defenders, typeGrid);
+            return;
+        }
+        long searches = metrics.getThreadPathSearches();
+        long startTime = System.nanoTime();
+        executeAttacks(attackers, defenders, typeGrid);
+        metrics.recordTurn(System.nanoTime() - startTime, metrics.getThreadPathSearches() - searches);
+    }
+
+    /**
+     * Выполняет атаки одной армии на другую. Погибшие защитники помечаются в наборе
+     * оставшихся юнитов и получают признак {@code alive = false}, поэтому программы юнитов,
+     * читающие списки армий, пропускают их до синхронизации списков в конце боя.
      *
-     * Сложность: O(a * d), где a — количество атакующих, d — количество защитников.
-     */
-    private void executeAttacks(List<Unit> attackers, List<Unit> defenders) throws InterruptedException {
-        String message;
-        for (Unit attacker : attackers) {
-            if (!defenders.isEmpty()) {
-                Unit target = attacker.getProgram().attack(); // O(1)
-                if (target != null) {
-                    target.setHealth(target.getHealth() - attacker.getBaseAttack()); // O(1)
-                    if (printBattleLog != null) {
-                        printBattleLog.printBattleLog(attacker, target); // Логирование атаки
-                    }
-                    message = "Атакующий: " + attacker.getName() + " атакует цель: " + target.getName()
-                            + ". Здоровье цели: " + target.getHealth();
-                    System.out.println(message);
-                    if (target.getHealth() <= 0) {
-                        defenders.remove(target); // O(d)
-                        message = "Цель " + target.getName() + " была уничтожена";
-                        System.out.println(message);
+     * @param attackers Оставшиеся юниты армии, совершающей атаку.
+     * @param defenders Оставшиеся юниты армии, принимающей атаку.
+     * @param typeGrid  Типы юнитов по клеткам или null, если урон равен базовой атаке.
+     *                  Урон с бонусами берется из строки атакующего в {@link LivingUnits#damageTo}.
+     * @throws InterruptedException Если выполнение атаки прерывается.
+     *
+     * Сложность: O(a) без учета программ юнитов, где a — количество мест в порядке хода атакующих.
+     */
+    private void executeAttacks(LivingUnits attackers, LivingUnits defenders, UnitTypeGrid typeGrid) throws InterruptedException {
+        if (turnPlanner != null && !defenders.isEmpty()) {
+            turnPlanner.planTurn(attackers, defenders); // O(a * CELLS / P)
+        }
+        for (int slot = 0; slot < attackers.size(); slot++) {
+            if (!attackers.isLiving(slot)) {
+                continue;
+            }
+            if (defenders.isEmpty()) {
+                log("Армия врага пуста. Атаки завершены");
+                break;
+            }
+            Unit attacker = attackers.get(slot);
+            if (lookahead != null) {
+                lookahead.setAttacker(attacker);
+            }
+            Unit target = attacker.getProgram().attack(); // O(1)
+            if (occupancyIndex != null) {
+                occupancyIndex.update(attacker); // O(1)
+            }
+            if (typeGrid != null) {
+                typeGrid.moved(attacker, attackers.getType(slot)); // O(1)
+            }
+            if (target != null) {
+                int damage = typeGrid == null
+                        ? attacker.getBaseAttack()
+                        : attackers.damageTo(slot, typeGrid.typeOf(target)); // O(1)
+                target.setHealth(target.getHealth() - damage);
+                if (replayRecorder != null) {
+                    replayRecorder.recordAttack(attacker, target); // O(L)
+                }
+                printBattleLogSink.onAttack(attacker, target); // Логирование атаки
+                eventSink.onAttack(attacker, target);
+                if (target.getHealth() <= 0) {
+                    // Заблокированный юнит ближнего боя возвращает сам себя, и тогда его нет среди защитников
+                    if (defenders.kill(target)) { // O(1)
+                        target.setAlive(false);
+                        if (occupancyIndex != null) {
+                            occupancyIndex.remove(target); // O(1)
+                        }
                     }
+                    eventSink.onDeath(target);
                 }
-            } else {
-                System.out.println("Армия врага пуста. Атаки завершены");
-                break;
             }
         }
     }
+
+    /**
+     * Суммирует здоровье юнитов.
+     *
+     * @param units Список юнитов.
+     * @return Суммарное здоровье.
+     *
+     * Сложность: O(n), где n — количество юнитов.
+     */
+    private int totalHealth(List<Unit> units) {
+        int health = 0;
+        for (Unit unit : units) {
+            health += unit.getHealth();
+        }
+        return health;
+    }
+
+    /**
+     * Передает текстовое сообщение получателю событий, если он их обрабатывает.
+     *
+     * @param message Сообщение.
+     */
+    private void log(String message) {
+        if (eventSink.isMessageEnabled()) {
+            eventSink.onMessage(message);
+        }
+    }
 }
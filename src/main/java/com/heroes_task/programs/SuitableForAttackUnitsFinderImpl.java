@@ -2,115 +2,254 @@ package main.java.com.heroes_task.programs;
 
 import com.battle.heroes.army.Unit;
 import com.battle.heroes.army.programs.SuitableForAttackUnitsFinder;
+import main.java.com.heroes_task.programs.events.BattleEventSink;
+import main.java.com.heroes_task.programs.events.ConsoleBattleEventSink;
+import main.java.com.heroes_task.programs.metrics.BattleMetrics;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
+import java.util.ListIterator;
+import java.util.SplittableRandom;
 
 /**
  * Реализация интерфейса SuitableForAttackUnitsFinder для поиска юнитов,
  * подходящих для атаки.
+ * Каждая строка просматривается один раз с края, ближайшего к атакующей армии,
+ * до первого живого юнита. Найденные юниты складываются в переиспользуемый буфер,
+ * поэтому экземпляр не потокобезопасен: у каждого боя должен быть свой экземпляр поиска.
  */
 public class SuitableForAttackUnitsFinderImpl implements SuitableForAttackUnitsFinder {
 
+    private final BattleEventSink eventSink;
+    private SplittableRandom random;
+    private Unit[] buffer = new Unit[UnitTargetPathFinderImpl.HEIGHT];
+    private BattleMetrics metrics;
+    private int scanned; // Юниты, просмотренные текущим поиском
+
+    /**
+     * Создает поиск юнитов с выводом хода поиска в консоль.
+     */
+    public SuitableForAttackUnitsFinderImpl() {
+        this(true);
+    }
+
+    /**
+     * Создает поиск юнитов.
+     *
+     * @param loggingEnabled true, если ход поиска нужно выводить в консоль.
+     */
+    public SuitableForAttackUnitsFinderImpl(boolean loggingEnabled) {
+        this(loggingEnabled ? new ConsoleBattleEventSink() : BattleEventSink.NONE);
+    }
+
+    /**
+     * Создает поиск юнитов с передачей событий получателю.
+     *
+     * @param eventSink Получатель событий.
+     */
+    public SuitableForAttackUnitsFinderImpl(BattleEventSink eventSink) {
+        this.eventSink = eventSink;
+    }
+
+    /**
+     * Включает детерминированный выбор цели. Найденные юниты перемешиваются генератором
+     * с зерном и возвращаются в списке, порядок которого не меняет перемешивание внутри
+     * программ юнитов, поэтому первая цель определяется только этим генератором.
+     * Генератор не потокобезопасен: у каждого боя должен быть свой экземпляр поиска.
+     *
+     * @param random Генератор боя или null, чтобы вернуть случайный выбор программ юнитов.
+     */
+    public void setRandom(SplittableRandom random) {
+        this.random = random;
+    }
+
+    /**
+     * Подключает метрики поиска целей: количество просмотренных юнитов за поиск.
+     *
+     * @param metrics Метрики или null, чтобы не собирать метрики.
+     */
+    public void setMetrics(BattleMetrics metrics) {
+        this.metrics = metrics;
+    }
+
     /**
      * Находит подходящие для атаки юниты по строкам.
      *
      * @param unitsByRow      Список строк юнитов.
      * @param isLeftArmyTarget Указывает, является ли целью левая армия.
-     * @return Список подходящих для атаки юнитов.
+     * @return Список подходящих для атаки юнитов в порядке строк.
      *
-     * Сложность: O(n * m), где n — количество строк, m — количество юнитов в строке.
+     * Сложность: O(n * m), где n — количество строк, m — количество юнитов в строке;
+     * строка просматривается только до первого живого юнита от ближнего края.
      */
     @Override
     public List<Unit> getSuitableUnits(List<List<Unit>> unitsByRow, boolean isLeftArmyTarget) {
-        Map<Integer, List<Unit>> suitableUnitsMap = new HashMap<>();
-        System.out.println("Начинается поиск подходящих юнитов...");
+        if (buffer.length < unitsByRow.size()) {
+            buffer = new Unit[unitsByRow.size()];
+        }
+        int count = findSuitableUnits(unitsByRow, isLeftArmyTarget, buffer);
+        return toResult(count);
+    }
 
-        // Обход строк юнитов
+    /**
+     * Находит подходящие для атаки юниты по строкам и записывает их в буфер вызывающего
+     * без выделения памяти. В каждой строке подходит не больше одного юнита, поэтому
+     * буфера длиной в количество строк достаточно.
+     *
+     * @param unitsByRow      Список строк юнитов.
+     * @param isLeftArmyTarget Указывает, является ли целью левая армия.
+     * @param buffer          Буфер для найденных юнитов, не короче количества строк.
+     * @return Количество найденных юнитов; они лежат в начале буфера в порядке строк.
+     *
+     * Сложность: O(n * m), где n — количество строк, m — количество юнитов в строке.
+     */
+    public int findSuitableUnits(List<List<Unit>> unitsByRow, boolean isLeftArmyTarget, Unit[] buffer) {
+        if (buffer.length < unitsByRow.size()) {
+            throw new IllegalArgumentException("Буфер короче количества строк: " + buffer.length
+                    + " < " + unitsByRow.size());
+        }
+        log("Начинается поиск подходящих юнитов...");
+        scanned = 0;
+        int count = 0;
         for (int i = 0; i < unitsByRow.size(); i++) {
-            List<Unit> row = unitsByRow.get(i);
-            System.out.println("Анализ строки " + i);
-
-            List<Unit> suitableUnitsInRow = findSuitableUnitsInRow(row, isLeftArmyTarget);
-            if (!suitableUnitsInRow.isEmpty()) {
-                System.out.println("Найдены подходящие юниты в строке " + i);
-                suitableUnitsMap.put(i, suitableUnitsInRow);
+            if (eventSink.isMessageEnabled()) {
+                log("Анализ строки " + i);
+            }
+            Unit unit = findSuitableUnitInRow(unitsByRow.get(i), isLeftArmyTarget);
+            if (unit != null) {
+                if (eventSink.isMessageEnabled()) {
+                    log("Найдены подходящие юниты в строке " + i);
+                }
+                buffer[count++] = unit;
             }
         }
-
-        List<Unit> allSuitableUnits = new ArrayList<>();
-        for (List<Unit> units : suitableUnitsMap.values()) {
-            allSuitableUnits.addAll(units); // Добавляем все юниты из текущего списка
+        if (metrics != null) {
+            metrics.recordSuitableUnitScan(scanned);
         }
-
-        System.out.println("Обнаружено " + allSuitableUnits.size() + " подходящих юнитов");
-        return allSuitableUnits;
+        if (eventSink.isMessageEnabled()) {
+            log("Обнаружено " + count + " подходящих юнитов");
+        }
+        return count;
     }
 
     /**
-     * Находит подходящие юниты в конкретной строке.
+     * Считает подходящие для атаки юниты без сохранения самих юнитов.
      *
-     * @param row             Строка юнитов.
+     * @param unitsByRow      Список строк юнитов.
      * @param isLeftArmyTarget Указывает, является ли целью левая армия.
-     * @return Список подходящих юнитов в строке.
+     * @return Количество подходящих юнитов.
      *
-     * Сложность: O(m), где m — количество юнитов в строке.
+     * Сложность: O(n * m), где n — количество строк, m — количество юнитов в строке.
      */
-    private List<Unit> findSuitableUnitsInRow(List<Unit> row, boolean isLeftArmyTarget) {
-        List<Unit> suitableUnits = new ArrayList<>();
-        for (int index = 0; index < row.size(); index++) {
-            Unit unit = row.get(index);
-            if (unit != null && unit.isAlive() &&
-                    (isLeftArmyTarget ? isRightmostUnit(row, index) : isLeftmostUnit(row, index))) {
-                System.out.println("Подходящий юнит: " + unit.getName() + " в позиции " + index);
-                suitableUnits.add(unit);
+    public int countSuitableUnits(List<List<Unit>> unitsByRow, boolean isLeftArmyTarget) {
+        int count = 0;
+        for (List<Unit> row : unitsByRow) {
+            if (findSuitableUnitInRow(row, isLeftArmyTarget) != null) {
+                count++;
             }
         }
-        return suitableUnits;
+        return count;
     }
 
     /**
-     * Проверяет, является ли юнит самым правым в строке.
+     * Находит первый в порядке строк подходящий для атаки юнит.
+     * Для программ, которым нужна одна цель: остальные строки не просматриваются.
      *
-     * @param row       Строка юнитов.
-     * @param unitIndex Индекс юнита в строке.
-     * @return true, если юнит самый правый, иначе false.
+     * @param unitsByRow      Список строк юнитов.
+     * @param isLeftArmyTarget Указывает, является ли целью левая армия.
+     * @return Первый подходящий юнит или null, если подходящих нет.
      *
-     * Сложность: O(m - unitIndex), где m — длина строки.
+     * Сложность: O(n * m) в худшем случае, где n — количество строк, m — количество юнитов в строке.
      */
-    private boolean isRightmostUnit(List<Unit> row, int unitIndex) {
-        if (unitIndex == row.size() - 1) {
-            return true; // Юнит уже самый правый
-        }
-        for (int i = unitIndex + 1; i < row.size(); i++) {
-            if (row.get(i) != null) {
-                return false; // Найден не-null элемент справа
+    public Unit findFirstSuitableUnit(List<List<Unit>> unitsByRow, boolean isLeftArmyTarget) {
+        for (List<Unit> row : unitsByRow) {
+            Unit unit = findSuitableUnitInRow(row, isLeftArmyTarget);
+            if (unit != null) {
+                return unit;
             }
         }
-        return true; // Все элементы справа null
+        return null;
     }
 
     /**
-     * Проверяет, является ли юнит самым левым в строке.
+     * Переносит найденные юниты из буфера в результат и очищает буфер,
+     * чтобы он не удерживал юниты завершенного боя.
      *
-     * @param row       Строка юнитов.
-     * @param unitIndex Индекс юнита в строке.
-     * @return true, если юнит самый левый; иначе false.
+     * @param count Количество юнитов в начале буфера.
+     * @return Изменяемый список в порядке строк или перемешанный генератором боя список.
      *
-     * Сложность: O(unitIndex).
+     * Сложность: O(k), где k — количество юнитов.
      */
-    private boolean isLeftmostUnit(List<Unit> row, int unitIndex) {
-        if (unitIndex == 0) {
-            return true; // Юнит уже самый левый
+    private List<Unit> toResult(int count) {
+        List<Unit> result = random == null
+                ? new ArrayList<>(Arrays.asList(buffer).subList(0, count))
+                : shuffle(Arrays.copyOf(buffer, count));
+        Arrays.fill(buffer, 0, count, null);
+        return result;
+    }
+
+    /**
+     * Перемешивает юниты генератором боя и фиксирует полученный порядок.
+     *
+     * @param shuffled Найденные юниты; массив перемешивается на месте.
+     * @return Список в порядке, который не меняется при перемешивании.
+     *
+     * Сложность: O(k), где k — количество юнитов.
+     */
+    private List<Unit> shuffle(Unit[] shuffled) {
+        for (int i = shuffled.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            Unit unit = shuffled[i];
+            shuffled[i] = shuffled[j];
+            shuffled[j] = unit;
         }
-        for (int i = 0; i < unitIndex; i++) {
-            if (row.get(i) != null) {
-                return false; // Найден не-null элемент слева
+        return new FixedOrderUnitList(shuffled);
+    }
+
+    /**
+     * Находит подходящий юнит в строке: первый живой юнит при просмотре от края,
+     * ближайшего к атакующей армии (с конца строки, если цель — левая армия).
+     *
+     * @param row             Строка юнитов.
+     * @param isLeftArmyTarget Указывает, является ли целью левая армия.
+     * @return Подходящий юнит или null, если в строке нет живых юнитов.
+     *
+     * Сложность: O(m), где m — количество юнитов в строке.
+     */
+    private Unit findSuitableUnitInRow(List<Unit> row, boolean isLeftArmyTarget) {
+        ListIterator<Unit> iterator = row.listIterator(isLeftArmyTarget ? row.size() : 0);
+        while (isLeftArmyTarget ? iterator.hasPrevious() : iterator.hasNext()) {
+            int index = isLeftArmyTarget ? iterator.previousIndex() : iterator.nextIndex();
+            Unit unit = isLeftArmyTarget ? iterator.previous() : iterator.next();
+            scanned++;
+            if (isPresent(unit)) {
+                eventSink.onUnitSelected(unit, index);
+                return unit;
             }
         }
-        return true; // Все элементы слева null
+        return null;
+    }
+
+    /**
+     * Проверяет, занимает ли элемент строки место на поле. Погибшие юниты остаются
+     * в списках армий до конца боя (см. {@link LivingUnits}) и не заслоняют соседей.
+     *
+     * @param unit Элемент строки.
+     * @return true, если элемент — живой юнит.
+     */
+    private static boolean isPresent(Unit unit) {
+        return unit != null && unit.isAlive();
     }
 
+    /**
+     * Передает текстовое сообщение получателю событий, если он их обрабатывает.
+     *
+     * @param message Сообщение.
+     */
+    private void log(String message) {
+        if (eventSink.isMessageEnabled()) {
+            eventSink.onMessage(message);
+        }
+    }
 }
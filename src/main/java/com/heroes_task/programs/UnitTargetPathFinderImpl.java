@@ -4,18 +4,92 @@ import com.battle.heroes.army.Unit;
 import com.battle.heroes.army.programs.Edge;
 import com.battle.heroes.army.programs.EdgeDistance;
 import com.battle.heroes.army.programs.UnitTargetPathFinder;
+import main.java.com.heroes_task.programs.events.BattleEventSink;
+import main.java.com.heroes_task.programs.events.ConsoleBattleEventSink;
+import main.java.com.heroes_task.programs.metrics.BattleMetrics;
 
 import java.util.*;
 
 /**
  * Класс для нахождения пути между юнитами на игровом поле.
  * Реализация интерфейса UnitTargetPathFinder.
+ * Размеры поля задаются {@link BattlefieldGrid}; по умолчанию — поле игры 27 x 21.
  */
 public class UnitTargetPathFinderImpl implements UnitTargetPathFinder {
-    private static final int WIDTH = 27; // Ширина игрового поля
-    private static final int HEIGHT = 21; // Высота игрового поля
+    static final int WIDTH = 27; // Ширина игрового поля по умолчанию
+    static final int HEIGHT = 21; // Высота игрового поля по умолчанию
     private static final int[][] DIRECTIONS = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}}; // Возможные направления движения
 
+    private final BattleEventSink eventSink;
+    private final int width;
+    private final int height;
+    private OccupancyIndex occupancyIndex;
+    private BattleMetrics metrics;
+
+    /**
+     * Создает поиск пути с выводом хода поиска в консоль.
+     */
+    public UnitTargetPathFinderImpl() {
+        this(true);
+    }
+
+    /**
+     * Создает поиск пути.
+     *
+     * @param loggingEnabled true, если ход поиска нужно выводить в консоль.
+     */
+    public UnitTargetPathFinderImpl(boolean loggingEnabled) {
+        this(loggingEnabled ? new ConsoleBattleEventSink() : BattleEventSink.NONE);
+    }
+
+    /**
+     * Создает поиск пути с передачей событий получателю.
+     *
+     * @param eventSink Получатель событий.
+     */
+    public UnitTargetPathFinderImpl(BattleEventSink eventSink) {
+        this(eventSink, BattlefieldGrid.DEFAULT);
+    }
+
+    /**
+     * Создает поиск пути на поле заданного размера.
+     *
+     * @param eventSink Получатель событий.
+     * @param grid      Размеры поля.
+     */
+    public UnitTargetPathFinderImpl(BattleEventSink eventSink, BattlefieldGrid grid) {
+        if (grid == null) {
+            throw new IllegalArgumentException("Размеры поля не заданы");
+        }
+        this.eventSink = eventSink;
+        this.width = grid.getWidth();
+        this.height = grid.getHeight();
+    }
+
+    /**
+     * Устанавливает индекс занятости поля. Если индекс задан, занятые клетки берутся из него,
+     * а список юнитов, переданный в {@link #getTargetPath}, не обходится.
+     * Индекс должен поддерживаться в актуальном состоянии симуляцией боя.
+     * Индекс описывает только поле по умолчанию.
+     *
+     * @param occupancyIndex Индекс занятости поля или null.
+     */
+    public void setOccupancyIndex(OccupancyIndex occupancyIndex) {
+        if (occupancyIndex != null && (width != WIDTH || height != HEIGHT)) {
+            throw new IllegalArgumentException("Индекс занятости не поддерживает поле " + width + " x " + height);
+        }
+        this.occupancyIndex = occupancyIndex;
+    }
+
+    /**
+     * Подключает метрики поиска пути: количество раскрытых клеток и длину пути.
+     *
+     * @param metrics Метрики или null, чтобы не собирать метрики.
+     */
+    public void setMetrics(BattleMetrics metrics) {
+        this.metrics = metrics;
+    }
+
     /**
      * Находит путь от атакующего юнита до целевого, избегая занятых клеток.
      *
@@ -28,34 +102,39 @@ public class UnitTargetPathFinderImpl implements UnitTargetPathFinder {
      */
     @Override
     public List<Edge> getTargetPath(Unit attackUnit, Unit targetUnit, List<Unit> existingUnitList) {
-        System.out.println("Начало поиска пути для юнита: " + attackUnit.getName());
+        if (eventSink.isMessageEnabled()) {
+            log("Начало поиска пути для юнита: " + attackUnit.getName());
+        }
         int[][] distance = initializeDistanceArray();
-        boolean[][] visited = new boolean[WIDTH][HEIGHT];
-        Edge[][] previous = new Edge[WIDTH][HEIGHT];
-        Set<String> occupiedCells = getOccupiedCells(existingUnitList, attackUnit, targetUnit);
+        boolean[][] visited = new boolean[width][height];
+        Edge[][] previous = new Edge[width][height];
+        Set<String> occupiedCells = occupancyIndex == null
+                ? getOccupiedCells(existingUnitList, attackUnit, targetUnit)
+                : null; // Занятость берется из индекса
 
         PriorityQueue<EdgeDistance> queue = new PriorityQueue<>(Comparator.comparingInt(EdgeDistance::getDistance));
         initializeStartPoint(attackUnit, distance, queue);
 
+        int nodesExpanded = 0;
         while (!queue.isEmpty()) {
             EdgeDistance current = queue.poll();
             if (visited[current.getX()][current.getY()]) continue;
             visited[current.getX()][current.getY()] = true;
+            nodesExpanded++;
 
             if (isTargetReached(current, targetUnit)) {
-                System.out.println("Цель достигнута. Завершение поиска");
+                log("Цель достигнута. Завершение поиска");
                 break;
             }
 
-            exploreNeighbors(current, occupiedCells, distance, previous, queue);
+            exploreNeighbors(current, occupiedCells, attackUnit, targetUnit, distance, previous, queue);
         }
 
         List<Edge> path = constructPath(previous, attackUnit, targetUnit);
-        if (path.isEmpty()) {
-            System.out.println("Путь не найден. Полностью заблокировано");
-        } else {
-            System.out.println("Путь найден. Количество шагов: " + path.size());
+        if (metrics != null) {
+            metrics.recordPathSearch(nodesExpanded, path.size());
         }
+        eventSink.onPathFound(attackUnit, targetUnit, path.size());
         return path;
     }
 
@@ -67,11 +146,11 @@ public class UnitTargetPathFinderImpl implements UnitTargetPathFinder {
      * Пространственная сложность: O(WIDTH * HEIGHT).
      */
     private int[][] initializeDistanceArray() {
-        int[][] distance = new int[WIDTH][HEIGHT];
+        int[][] distance = new int[width][height];
         for (int[] row : distance) {
             Arrays.fill(row, Integer.MAX_VALUE);
         }
-        System.out.println("Инициализация массива расстояний...");
+        log("Инициализация массива расстояний...");
         return distance;
     }
 
@@ -92,7 +171,7 @@ public class UnitTargetPathFinderImpl implements UnitTargetPathFinder {
                 occupiedCells.add(unit.getxCoordinate() + "," + unit.getyCoordinate());
             }
         }
-        System.out.println("Определение занятых клеток...");
+        log("Определение занятых клеток...");
         return occupiedCells;
     }
 
@@ -110,7 +189,7 @@ public class UnitTargetPathFinderImpl implements UnitTargetPathFinder {
         int startY = attackUnit.getyCoordinate();
         distance[startX][startY] = 0;
         queue.add(new EdgeDistance(startX, startY, 0));
-        System.out.println("Инициализация стартовой точки...");
+        log("Инициализация стартовой точки...");
     }
 
     /**
@@ -134,17 +213,20 @@ public class UnitTargetPathFinderImpl implements UnitTargetPathFinder {
      * Изучает соседние клетки для текущей позиции.
      *
      * @param current        Текущая позиция.
-     * @param occupiedCells  Занятые клетки.
+     * @param occupiedCells  Занятые клетки или null, если занятость берется из индекса.
+     * @param attackUnit     Атакующий юнит.
+     * @param targetUnit     Целевой юнит.
      * @param distance       Массив расстояний.
      * @param previous       Предыдущие клетки.
      * @param queue          Очередь с приоритетом.
      * @complexity Временная сложность: O(4) для каждой клетки (константа).
      */
-    private void exploreNeighbors(EdgeDistance current, Set<String> occupiedCells, int[][] distance, Edge[][] previous, PriorityQueue<EdgeDistance> queue) {
+    private void exploreNeighbors(EdgeDistance current, Set<String> occupiedCells, Unit attackUnit, Unit targetUnit,
+                                  int[][] distance, Edge[][] previous, PriorityQueue<EdgeDistance> queue) {
         for (int[] dir : DIRECTIONS) {
             int neighborX = current.getX() + dir[0];
             int neighborY = current.getY() + dir[1];
-            if (isValid(neighborX, neighborY, occupiedCells)) {
+            if (isValid(neighborX, neighborY, occupiedCells, attackUnit, targetUnit)) {
                 int newDistance = distance[current.getX()][current.getY()] + 1;
                 if (newDistance < distance[neighborX][neighborY]) {
                     distance[neighborX][neighborY] = newDistance;
@@ -160,16 +242,23 @@ public class UnitTargetPathFinderImpl implements UnitTargetPathFinder {
      *
      * @param x             Координата X.
      * @param y             Координата Y.
-     * @param occupiedCells Занятые клетки.
+     * @param occupiedCells Занятые клетки или null, если занятость берется из индекса.
+     * @param attackUnit    Атакующий юнит.
+     * @param targetUnit    Целевой юнит.
      * @return true, если клетка валидна.
      * @complexity Временная сложность: O(1).
      */
-    private boolean isValid(int x, int y, Set<String> occupiedCells) {
-        boolean withinBoundsX = x >= 0 && x < WIDTH; // Проверка границ по X
-        boolean withinBoundsY = y >= 0 && y < HEIGHT; // Проверка границ по Y
-        boolean isCellFree = !occupiedCells.contains(x + "," + y); // Проверка, занята ли клетка
-
-        return withinBoundsX && withinBoundsY && isCellFree;
+    private boolean isValid(int x, int y, Set<String> occupiedCells, Unit attackUnit, Unit targetUnit) {
+        boolean withinBoundsX = x >= 0 && x < width; // Проверка границ по X
+        boolean withinBoundsY = y >= 0 && y < height; // Проверка границ по Y
+        if (!withinBoundsX || !withinBoundsY) {
+            return false;
+        }
+        if (occupiedCells != null) {
+            return !occupiedCells.contains(x + "," + y); // Проверка, занята ли клетка
+        }
+        Unit unit = occupancyIndex.getUnitAt(x, y); // Клетки атакующего и цели считаются свободными
+        return unit == null || unit == attackUnit || unit == targetUnit;
     }
 
     /**
@@ -198,4 +287,15 @@ public class UnitTargetPathFinderImpl implements UnitTargetPathFinder {
         Collections.reverse(path);
         return path;
     }
+
+    /**
+     * Передает текстовое сообщение получателю событий, если он их обрабатывает.
+     *
+     * @param message Сообщение.
+     */
+    private void log(String message) {
+        if (eventSink.isMessageEnabled()) {
+            eventSink.onMessage(message);
+        }
+    }
 }
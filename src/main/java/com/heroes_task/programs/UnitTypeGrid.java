@@ -0,0 +1,110 @@
+package main.java.com.heroes_task.programs;
+
+import com.battle.heroes.army.Unit;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static main.java.com.heroes_task.programs.UnitTargetPathFinderImpl.HEIGHT;
+import static main.java.com.heroes_task.programs.UnitTargetPathFinderImpl.WIDTH;
+
+/**
+ * Номера типов юнитов по клеткам поля в течение боя, как массив занятости клеток
+ * в {@link main.java.com.heroes_task.programs.core.BattleCore}.
+ * <p>
+ * Тип цели удара определяется по ее координатам одним обращением к массиву, без хэширования
+ * и без чтения имени типа. Во время хода перемещается только атакующий, поэтому после
+ * каждой атаки симуляция записывает его тип в клетку, где он оказался ({@link #moved}).
+ * Клетки погибших юнитов не очищаются: живой юнит может оказаться в такой клетке,
+ * только переместившись в нее, и тогда клетка перезаписывается.
+ * <p>
+ * Если в начале боя два живых юнита стоят в одной клетке, клетки не отражают типы однозначно,
+ * и тип каждой цели определяется по имени через {@link DamageTable#typeOf(String)}; так же
+ * определяется тип юнита вне поля.
+ * <p>
+ * Экземпляр не потокобезопасен и принадлежит одному бою.
+ */
+public final class UnitTypeGrid {
+
+    private static final byte NONE = -1; // В клетке не было юнитов
+
+    private final DamageTable damageTable;
+    private final byte[] types = new byte[WIDTH * HEIGHT];
+    private final boolean exact;
+
+    /**
+     * Строит массив по расстановке армий в начале боя.
+     *
+     * @param damageTable Таблица урона боя.
+     * @param firstUnits  Юниты первой армии.
+     * @param secondUnits Юниты второй армии.
+     * @throws IllegalArgumentException Если типов больше, чем помещается в байт.
+     *
+     * Сложность: O(N * T + WIDTH * HEIGHT), где N — количество юнитов, T — количество типов.
+     */
+    public UnitTypeGrid(DamageTable damageTable, List<Unit> firstUnits, List<Unit> secondUnits) {
+        if (damageTable.getTypeCount() > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("Слишком много типов юнитов: " + damageTable.getTypeCount());
+        }
+        this.damageTable = damageTable;
+        Arrays.fill(types, NONE);
+        this.exact = place(firstUnits) & place(secondUnits);
+    }
+
+    /**
+     * Записывает тип юнита в клетку, где он стоит. Вызывается после хода юнита.
+     *
+     * @param unit Юнит, совершивший ход.
+     * @param type Номер типа юнита в таблице урона.
+     *
+     * Сложность: O(1).
+     */
+    public void moved(Unit unit, int type) {
+        int cell = cellOf(unit);
+        if (cell >= 0) {
+            types[cell] = (byte) type;
+        }
+    }
+
+    /**
+     * Возвращает номер типа юнита по его клетке.
+     *
+     * @param unit Живой юнит боя.
+     * @return Номер типа в таблице урона.
+     * @throws IllegalArgumentException Если типа юнита нет в таблице.
+     *
+     * Сложность: O(1) для юнита на поле, O(T) для юнита вне поля или при совпадающих клетках.
+     */
+    public int typeOf(Unit unit) {
+        int cell = cellOf(unit);
+        if (exact && cell >= 0 && types[cell] != NONE) {
+            return types[cell];
+        }
+        return damageTable.typeOf(unit.getUnitType());
+    }
+
+    /**
+     * @return true, если все клетки заняты не более чем одним живым юнитом.
+     */
+    private boolean place(List<Unit> units) {
+        boolean distinct = true;
+        for (Unit unit : units) {
+            int cell = cellOf(unit);
+            if (!unit.isAlive() || cell < 0) {
+                continue;
+            }
+            distinct &= types[cell] == NONE;
+            types[cell] = (byte) damageTable.typeOf(unit);
+        }
+        return distinct;
+    }
+
+    private static int cellOf(Unit unit) {
+        int x = unit.getxCoordinate();
+        int y = unit.getyCoordinate();
+        if (x < 0 || x >= WIDTH || y < 0 || y >= HEIGHT) {
+            return -1;
+        }
+        return x * HEIGHT + y;
+    }
+}
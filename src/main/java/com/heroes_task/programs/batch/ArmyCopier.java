@@ -0,0 +1,56 @@
+package main.java.com.heroes_task.programs.batch;
+
+import com.battle.heroes.army.Army;
+import com.battle.heroes.army.Unit;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Создает независимые копии армий для боя.
+ * Бой изменяет здоровье, координаты и списки юнитов, поэтому каждый бой
+ * пакетного прогона получает собственную копию пресета.
+ */
+public final class ArmyCopier {
+
+    private ArmyCopier() {
+    }
+
+    /**
+     * Копирует армию вместе со всеми юнитами.
+     * Изменяемое состояние юнита (здоровье, координаты, признак жизни) копируется;
+     * словари бонусов во время боя только читаются и используются совместно.
+     * Программы юнитов не копируются — их назначает {@link UnitProgramFactory}.
+     *
+     * @param army Исходная армия.
+     * @return Копия армии.
+     *
+     * Сложность: O(n), где n — количество юнитов.
+     */
+    public static Army copy(Army army) {
+        List<Unit> units = new ArrayList<>(army.getUnits().size());
+        for (Unit unit : army.getUnits()) {
+            units.add(copy(unit));
+        }
+        Army copy = new Army(units);
+        copy.setPoints(army.getPoints());
+        return copy;
+    }
+
+    /**
+     * Копирует юнит.
+     *
+     * @param unit Исходный юнит.
+     * @return Копия юнита без программы.
+     *
+     * Сложность: O(1).
+     */
+    public static Unit copy(Unit unit) {
+        Unit copy = new Unit(unit.getName(), unit.getUnitType(), unit.getHealth(),
+                unit.getBaseAttack(), unit.getCost(), unit.getAttackType(),
+                unit.getAttackBonuses(), unit.getDefenceBonuses(),
+                unit.getxCoordinate(), unit.getyCoordinate());
+        copy.setAlive(unit.isAlive());
+        return copy;
+    }
+}
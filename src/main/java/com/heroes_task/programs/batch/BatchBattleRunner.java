@@ -0,0 +1,335 @@
+package main.java.com.heroes_task.programs.batch;
+
+import com.battle.heroes.army.Army;
+import com.battle.heroes.army.programs.SuitableForAttackUnitsFinder;
+import com.battle.heroes.army.programs.UnitTargetPathFinder;
+import main.java.com.heroes_task.programs.BattleResult;
+import main.java.com.heroes_task.programs.BfsUnitTargetPathFinderImpl;
+import main.java.com.heroes_task.programs.CachingUnitTargetPathFinder;
+import main.java.com.heroes_task.programs.LookaheadSuitableForAttackUnitsFinder;
+import main.java.com.heroes_task.programs.OccupancyIndex;
+import main.java.com.heroes_task.programs.SimulateBattleImpl;
+import main.java.com.heroes_task.programs.SuitableForAttackUnitsFinderImpl;
+import main.java.com.heroes_task.programs.clock.VirtualBattleClock;
+import main.java.com.heroes_task.programs.core.BattleCore;
+import main.java.com.heroes_task.programs.metrics.BattleMetrics;
+import main.java.com.heroes_task.programs.replay.BattleReplayRecorder;
+import main.java.com.heroes_task.programs.replay.BattleReplayWriter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiConsumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Пакетный прогон боев без вывода в консоль на всех ядрах.
+ * Каждый бой выполняется на собственных копиях пресетов со своими экземплярами
+ * поиска целей и пути, поэтому бои не разделяют изменяемого состояния.
+ * Выбор целей в бою определяется генератором с зерном задания, поэтому результат
+ * боя зависит только от пресетов и зерна и не зависит от порядка выполнения заданий.
+ */
+public class BatchBattleRunner {
+
+    /**
+     * Лимит раундов по умолчанию: бой, в котором обе стороны навсегда заблокированы,
+     * завершается ничьей вместо бесконечного цикла.
+     */
+    public static final int DEFAULT_MAX_ROUNDS = 1000;
+
+    private final ForkJoinPool pool;
+    private final int maxRounds;
+    private volatile BattleReplayWriter replayWriter;
+    private volatile boolean battleCoreEnabled;
+    private volatile boolean bonusesApplied;
+    private volatile BattleMetrics metrics;
+    private volatile int pathCacheCapacity;
+    private volatile long lookaheadNodeBudget;
+    private final ThreadLocal<ThreadPathCache> threadPathCaches = new ThreadLocal<>();
+
+    /**
+     * Создает прогон на общем пуле ForkJoin с лимитом раундов по умолчанию.
+     */
+    public BatchBattleRunner() {
+        this(ForkJoinPool.commonPool(), DEFAULT_MAX_ROUNDS);
+    }
+
+    /**
+     * Создает прогон.
+     *
+     * @param pool      Пул потоков, на котором выполняются бои.
+     * @param maxRounds Лимит раундов одного боя; 0 — без ограничения.
+     */
+    public BatchBattleRunner(ForkJoinPool pool, int maxRounds) {
+        if (maxRounds < 0) {
+            throw new IllegalArgumentException("Лимит раундов не может быть отрицательным: " + maxRounds);
+        }
+        this.pool = pool;
+        this.maxRounds = maxRounds;
+    }
+
+    /**
+     * Выполняет все задания потока параллельно и агрегирует их результаты.
+     * Задания потребляются лениво, результаты отдельных боев не накапливаются,
+     * поэтому поток может быть сколь угодно длинным.
+     *
+     * @param jobs Поток заданий.
+     * @return Агрегированная статистика.
+     * @throws InterruptedException Если ожидание результата прервано.
+     *
+     * Сложность: O(B * T / P), где B — количество боев, T — стоимость одного боя, P — параллелизм пула.
+     */
+    public BattleStatistics run(Stream<BattleJob> jobs) throws InterruptedException {
+        try {
+            return pool.submit(() -> jobs.parallel()
+                    .map(this::runJob)
+                    .collect(BattleStatistics::new, BattleStatistics::add, BattleStatistics::merge))
+                    .get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Пакетный прогон завершился с ошибкой", e.getCause());
+        }
+    }
+
+    /**
+     * Выполняет группы заданий параллельно и агрегирует результаты каждой группы отдельно.
+     * Все бои всех групп распределяются по пулу как одна задача, поэтому пул загружен
+     * полностью даже при малом количестве боев в группе.
+     *
+     * @param groups Группы заданий.
+     * @return Статистика каждой группы, в порядке групп.
+     * @throws InterruptedException Если ожидание результата прервано.
+     *
+     * Сложность: O(B * T / P + B), где B — общее количество боев, T — стоимость одного боя,
+     * P — параллелизм пула.
+     */
+    public List<BattleStatistics> runGroups(List<? extends List<BattleJob>> groups) throws InterruptedException {
+        int[] groupOffsets = new int[groups.size() + 1];
+        for (int i = 0; i < groups.size(); i++) {
+            groupOffsets[i + 1] = groupOffsets[i] + groups.get(i).size();
+        }
+        BattleJob[] jobs = new BattleJob[groupOffsets[groups.size()]];
+        for (int i = 0; i < groups.size(); i++) {
+            List<BattleJob> group = groups.get(i);
+            for (int j = 0; j < group.size(); j++) {
+                jobs[groupOffsets[i] + j] = group.get(j);
+            }
+        }
+        BattleResult[] results = new BattleResult[jobs.length];
+        try {
+            pool.submit(() -> IntStream.range(0, jobs.length).parallel()
+                    .forEach(i -> results[i] = runJob(jobs[i])))
+                    .get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Пакетный прогон завершился с ошибкой", e.getCause());
+        }
+
+        List<BattleStatistics> statistics = new ArrayList<>(groups.size());
+        for (int i = 0; i < groups.size(); i++) {
+            BattleStatistics group = new BattleStatistics();
+            for (int j = groupOffsets[i]; j < groupOffsets[i + 1]; j++) {
+                group.add(results[j]);
+            }
+            statistics.add(group);
+        }
+        return statistics;
+    }
+
+    /**
+     * Включает запись повторов всех последующих боев в файл.
+     * Бои записываются целиком в порядке завершения; зерно задания сохраняется в записи.
+     *
+     * @param replayWriter Файл повторов или null, чтобы не записывать бои.
+     */
+    public void setReplayWriter(BattleReplayWriter replayWriter) {
+        this.replayWriter = replayWriter;
+    }
+
+    /**
+     * Включает выполнение боев на ядре с примитивными массивами ({@link BattleCore}).
+     * Итог боя с тем же зерном совпадает с симуляцией на объектах. Пока включена запись
+     * повторов, бои выполняются на объектах, так как ядро не передает ходы в запись.
+     *
+     * @param battleCoreEnabled true, если бои нужно выполнять на ядре с массивами.
+     */
+    public void setBattleCoreEnabled(boolean battleCoreEnabled) {
+        this.battleCoreEnabled = battleCoreEnabled;
+    }
+
+    /**
+     * Включает применение бонусов атаки и защиты юнитов к урону в последующих боях
+     * (см. {@link SimulateBattleImpl#setBonusesApplied}).
+     *
+     * @param bonusesApplied true, если урон нужно умножать на бонусы.
+     */
+    public void setBonusesApplied(boolean bonusesApplied) {
+        this.bonusesApplied = bonusesApplied;
+    }
+
+    /**
+     * Подключает метрики к симуляции, поиску пути и поиску целей каждого боя.
+     * Бои, выполняемые ядром с массивами, не учитываются.
+     *
+     * @param metrics Метрики или null, чтобы не собирать метрики.
+     */
+    public void setMetrics(BattleMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Включает кэш путей ({@link CachingUnitTargetPathFinder}). Внутри одного боя занятость
+     * поля почти всегда меняется между поисками одного юнита, поэтому кэш живет в потоке пула
+     * и переходит из боя в бой: пути одних и тех же пресетов повторяются в боях с разными зернами.
+     * Итог боя не меняется.
+     *
+     * @param pathCacheCapacity Емкость кэша потока; 0 — без кэша.
+     */
+    public void setPathCacheCapacity(int pathCacheCapacity) {
+        if (pathCacheCapacity < 0) {
+            throw new IllegalArgumentException("Емкость кэша путей не может быть отрицательной: " + pathCacheCapacity);
+        }
+        this.pathCacheCapacity = pathCacheCapacity;
+    }
+
+    /**
+     * Включает выбор целей армии компьютера с просмотром вперед
+     * ({@link LookaheadSuitableForAttackUnitsFinder}) с бюджетом узлов на один выбор.
+     * Бюджет времени не задается, и розыгрыши получают зерно задания, поэтому итог боя
+     * по-прежнему зависит только от пресетов и зерна. Бои с просмотром вперед
+     * всегда симулируются на объектах.
+     *
+     * @param lookaheadNodeBudget Бюджет узлов одного выбора цели; 0 — без просмотра вперед.
+     */
+    public void setLookaheadNodeBudget(long lookaheadNodeBudget) {
+        if (lookaheadNodeBudget < 0) {
+            throw new IllegalArgumentException("Бюджет узлов не может быть отрицательным: " + lookaheadNodeBudget);
+        }
+        this.lookaheadNodeBudget = lookaheadNodeBudget;
+    }
+
+    /**
+     * Выполняет один бой на копиях пресетов задания.
+     *
+     * @param job Задание.
+     * @return Результат боя.
+     *
+     * Сложность: O(T), где T — стоимость одного боя.
+     */
+    public BattleResult runJob(BattleJob job) {
+        return runJob(job, null);
+    }
+
+    /**
+     * Выполняет один бой на копиях пресетов задания и передает получателю армии после боя.
+     * По окончании боя в армиях остаются только выжившие юниты.
+     * Если получатель задан, бой всегда симулируется {@link SimulateBattleImpl}, даже когда
+     * включено ядро боя: ядро не строит армий.
+     *
+     * @param job               Задание.
+     * @param armiesAfterBattle Получатель армии игрока и армии компьютера после боя или null.
+     * @return Результат боя.
+     *
+     * Сложность: O(T), где T — стоимость одного боя.
+     */
+    public BattleResult runJob(BattleJob job, BiConsumer<Army, Army> armiesAfterBattle) {
+        BattleReplayWriter writer = replayWriter;
+        long nodeBudget = lookaheadNodeBudget;
+        if (battleCoreEnabled && writer == null && armiesAfterBattle == null && nodeBudget == 0) {
+            // Ядро не изменяет пресеты, поэтому копии не нужны
+            BattleCore battleCore = new BattleCore(job.getPlayerPreset(), job.getComputerPreset());
+            battleCore.setBonusesApplied(bonusesApplied);
+            return battleCore.simulate(job.getSeed(), maxRounds);
+        }
+        BattleMetrics battleMetrics = metrics;
+        Army playerArmy = ArmyCopier.copy(job.getPlayerPreset());
+        Army computerArmy = ArmyCopier.copy(job.getComputerPreset());
+        OccupancyIndex occupancyIndex = new OccupancyIndex();
+        int cacheCapacity = pathCacheCapacity;
+        ThreadPathCache threadPathCache = cacheCapacity > 0 ? threadPathCache(cacheCapacity) : null;
+        UnitTargetPathFinder unitTargetPathFinder;
+        if (threadPathCache != null) {
+            threadPathCache.attach(occupancyIndex, battleMetrics);
+            unitTargetPathFinder = threadPathCache.cache;
+        } else {
+            BfsUnitTargetPathFinderImpl bfsPathFinder = new BfsUnitTargetPathFinderImpl(false);
+            bfsPathFinder.setOccupancyIndex(occupancyIndex);
+            bfsPathFinder.setMetrics(battleMetrics);
+            unitTargetPathFinder = bfsPathFinder;
+        }
+        BattleReplayRecorder recorder = writer == null ? null : new BattleReplayRecorder(writer);
+        SplittableRandom random = new SplittableRandom(job.getSeed()); // Единственный источник случайности боя
+        SuitableForAttackUnitsFinderImpl suitableForAttackUnitsFinder = new SuitableForAttackUnitsFinderImpl(false);
+        suitableForAttackUnitsFinder.setRandom(random);
+        suitableForAttackUnitsFinder.setMetrics(battleMetrics);
+        LookaheadSuitableForAttackUnitsFinder lookahead = null;
+        if (nodeBudget > 0) {
+            lookahead = new LookaheadSuitableForAttackUnitsFinder(suitableForAttackUnitsFinder);
+            lookahead.setNodeBudget(nodeBudget);
+            lookahead.setSeed(~job.getSeed()); // Генератор боя не расходуется на розыгрыши
+        }
+        SuitableForAttackUnitsFinder targetFinder = lookahead == null ? suitableForAttackUnitsFinder : lookahead;
+        SimulateBattleImpl simulateBattle = new SimulateBattleImpl();
+        simulateBattle.setBattleClock(new VirtualBattleClock()); // Паузы анимации не задерживают поток
+        UnitProgramFactory.assignPrograms(playerArmy, computerArmy,
+                targetFinder,
+                recorder == null ? unitTargetPathFinder : recorder.recordPaths(unitTargetPathFinder),
+                simulateBattle.getGameSpeed(), random);
+
+        simulateBattle.setLoggingEnabled(false);
+        simulateBattle.setOccupancyIndex(occupancyIndex);
+        simulateBattle.setMaxRounds(maxRounds);
+        simulateBattle.setBonusesApplied(bonusesApplied);
+        simulateBattle.setMetrics(battleMetrics);
+        simulateBattle.setReplayRecorder(recorder);
+        simulateBattle.setLookahead(lookahead);
+        simulateBattle.setSeed(job.getSeed());
+        try {
+            BattleResult result = simulateBattle.simulateBattle(playerArmy, computerArmy);
+            if (armiesAfterBattle != null) {
+                armiesAfterBattle.accept(playerArmy, computerArmy);
+            }
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Бой прерван: задание с зерном " + job.getSeed());
+        } finally {
+            if (threadPathCache != null) {
+                threadPathCache.attach(null, null); // Кэш потока не удерживает юниты завершенного боя
+            }
+        }
+    }
+
+    /**
+     * Возвращает кэш путей текущего потока, пересоздавая его при смене емкости.
+     */
+    private ThreadPathCache threadPathCache(int capacity) {
+        ThreadPathCache pathCache = threadPathCaches.get();
+        if (pathCache == null || pathCache.cache.getCapacity() != capacity) {
+            pathCache = new ThreadPathCache(capacity);
+            threadPathCaches.set(pathCache);
+        }
+        return pathCache;
+    }
+
+    /**
+     * Кэш путей потока вместе с поиском пути за ним. Оба переключаются на индекс занятости
+     * очередного боя; сохраненные пути от индекса не зависят.
+     */
+    private static final class ThreadPathCache {
+        final BfsUnitTargetPathFinderImpl pathFinder = new BfsUnitTargetPathFinderImpl(false);
+        final CachingUnitTargetPathFinder cache;
+
+        ThreadPathCache(int capacity) {
+            cache = new CachingUnitTargetPathFinder(pathFinder, capacity);
+        }
+
+        void attach(OccupancyIndex occupancyIndex, BattleMetrics metrics) {
+            pathFinder.setOccupancyIndex(occupancyIndex);
+            pathFinder.setMetrics(metrics);
+            cache.setOccupancyIndex(occupancyIndex);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package main.java.com.heroes_task.programs.batch;
+
+import com.battle.heroes.army.Army;
+
+/**
+ * Задание на один бой для пакетного прогона: пресеты обеих армий и зерно.
+ * Пресеты только читаются — для боя создаются их глубокие копии,
+ * поэтому один и тот же пресет можно использовать в любом количестве заданий.
+ */
+public final class BattleJob {
+
+    private final Army playerPreset;
+    private final Army computerPreset;
+    private final long seed;
+
+    /**
+     * Создает задание на бой.
+     *
+     * @param playerPreset   Пресет армии игрока.
+     * @param computerPreset Пресет армии компьютера.
+     * @param seed           Зерно задания: определяет выбор целей в бою, поэтому одинаковые зерно
+     *                       и пресеты дают одинаковый бой.
+     */
+    public BattleJob(Army playerPreset, Army computerPreset, long seed) {
+        this.playerPreset = playerPreset;
+        this.computerPreset = computerPreset;
+        this.seed = seed;
+    }
+
+    public Army getPlayerPreset() {
+        return playerPreset;
+    }
+
+    public Army getComputerPreset() {
+        return computerPreset;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+}
@@ -0,0 +1,148 @@
+package main.java.com.heroes_task.programs.batch;
+
+import main.java.com.heroes_task.programs.BattleResult;
+
+/**
+ * Агрегированная статистика пакета боев.
+ * Экземпляр не потокобезопасен: каждый поток накапливает собственную статистику,
+ * а частичные результаты объединяются через {@link #merge(BattleStatistics)}.
+ */
+public final class BattleStatistics {
+
+    private long battles;
+    private long playerWins;
+    private long computerWins;
+    private long draws;
+    private long totalRounds;
+    private int minRounds = Integer.MAX_VALUE;
+    private int maxRounds;
+    private long playerSurvivors;
+    private long playerSurvivingHealth;
+    private long computerSurvivors;
+    private long computerSurvivingHealth;
+
+    /**
+     * Учитывает результат одного боя.
+     *
+     * @param result Результат боя.
+     *
+     * Сложность: O(1).
+     */
+    public void add(BattleResult result) {
+        battles++;
+        switch (result.getOutcome()) {
+            case PLAYER_WON:
+                playerWins++;
+                break;
+            case COMPUTER_WON:
+                computerWins++;
+                break;
+            default:
+                draws++;
+                break;
+        }
+        totalRounds += result.getRounds();
+        minRounds = Math.min(minRounds, result.getRounds());
+        maxRounds = Math.max(maxRounds, result.getRounds());
+        playerSurvivors += result.getPlayerSurvivors();
+        playerSurvivingHealth += result.getPlayerSurvivingHealth();
+        computerSurvivors += result.getComputerSurvivors();
+        computerSurvivingHealth += result.getComputerSurvivingHealth();
+    }
+
+    /**
+     * Добавляет к текущей статистике статистику другого пакета.
+     *
+     * @param other Статистика другого пакета.
+     *
+     * Сложность: O(1).
+     */
+    public void merge(BattleStatistics other) {
+        battles += other.battles;
+        playerWins += other.playerWins;
+        computerWins += other.computerWins;
+        draws += other.draws;
+        totalRounds += other.totalRounds;
+        minRounds = Math.min(minRounds, other.minRounds);
+        maxRounds = Math.max(maxRounds, other.maxRounds);
+        playerSurvivors += other.playerSurvivors;
+        playerSurvivingHealth += other.playerSurvivingHealth;
+        computerSurvivors += other.computerSurvivors;
+        computerSurvivingHealth += other.computerSurvivingHealth;
+    }
+
+    public long getBattles() {
+        return battles;
+    }
+
+    public long getPlayerWins() {
+        return playerWins;
+    }
+
+    public long getComputerWins() {
+        return computerWins;
+    }
+
+    public long getDraws() {
+        return draws;
+    }
+
+    public long getTotalRounds() {
+        return totalRounds;
+    }
+
+    /**
+     * @return Минимальное количество раундов в бою; 0, если боев не было.
+     */
+    public int getMinRounds() {
+        return battles == 0 ? 0 : minRounds;
+    }
+
+    public int getMaxRounds() {
+        return maxRounds;
+    }
+
+    public double getAverageRounds() {
+        return battles == 0 ? 0 : totalRounds / (double) battles;
+    }
+
+    public double getPlayerWinRate() {
+        return battles == 0 ? 0 : playerWins / (double) battles;
+    }
+
+    public long getPlayerSurvivors() {
+        return playerSurvivors;
+    }
+
+    public long getPlayerSurvivingHealth() {
+        return playerSurvivingHealth;
+    }
+
+    public double getAveragePlayerSurvivingHealth() {
+        return battles == 0 ? 0 : playerSurvivingHealth / (double) battles;
+    }
+
+    public long getComputerSurvivors() {
+        return computerSurvivors;
+    }
+
+    public long getComputerSurvivingHealth() {
+        return computerSurvivingHealth;
+    }
+
+    public double getAverageComputerSurvivingHealth() {
+        return battles == 0 ? 0 : computerSurvivingHealth / (double) battles;
+    }
+
+    @Override
+    public String toString() {
+        return "Боев: " + battles
+                + ". Победы игрока: " + playerWins
+                + ", победы компьютера: " + computerWins
+                + ", ничьи: " + draws
+                + ". Раундов в среднем: " + String.format("%.2f", getAverageRounds())
+                + " (мин. " + getMinRounds() + ", макс. " + maxRounds + ")"
+                + ". Среднее оставшееся здоровье: игрок " + String.format("%.1f", getAveragePlayerSurvivingHealth())
+                + ", компьютер " + String.format("%.1f", getAverageComputerSurvivingHealth()) + ".";
+    }
+}
@@ -0,0 +1,87 @@
+package main.java.com.heroes_task.programs.batch;
+
+import com.battle.heroes.army.Army;
+import com.battle.heroes.army.Unit;
+import com.battle.heroes.army.programs.Program;
+import com.battle.heroes.util.GameSpeedUtil;
+import main.java.com.heroes_task.programs.clock.ClockedGameSpeed;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Программа лучника для детерминированного режима. Повторяет поведение программ лучников
+ * библиотеки — атакует случайного живого юнита армии противника, — но выбирает цель
+ * генератором боя, а не глобальным генератором {@code Collections.shuffle}.
+ */
+final class SeededArcherProgram extends Program {
+
+    private final SplittableRandom random;
+
+    /**
+     * @param unit      Лучник.
+     * @param allyArmy  Армия лучника.
+     * @param enemyArmy Армия противника.
+     * @param simSpeed  Задержка анимации.
+     * @param random    Генератор боя.
+     */
+    SeededArcherProgram(Unit unit, Army allyArmy, Army enemyArmy, GameSpeedUtil simSpeed, SplittableRandom random) {
+        super(unit, allyArmy, enemyArmy, simSpeed);
+        this.random = random;
+    }
+
+    /**
+     * Атакует случайного живого юнита противника.
+     *
+     * @return Цель атаки или null, если живых противников нет.
+     * @throws InterruptedException Если ожидание анимации прервано.
+     *
+     * Сложность: O(m), где m — количество юнитов армии противника.
+     */
+    @Override
+    public Unit attack() throws InterruptedException {
+        List<Unit> enemies = enemyArmy.getUnits();
+        int alive = 0;
+        for (Unit enemy : enemies) {
+            if (enemy.isAlive()) {
+                alive++;
+            }
+        }
+        if (alive == 0) {
+            return null;
+        }
+        int chosen = random.nextInt(alive);
+        Unit target = null;
+        for (Unit enemy : enemies) {
+            if (enemy.isAlive() && chosen-- == 0) {
+                target = enemy;
+                break;
+            }
+        }
+        target.setHealth(target.getHealth() - unit.getBaseAttack());
+        pauseAnimation();
+        if (target.getHealth() <= 0) {
+            target.setAlive(false);
+        }
+        return target;
+    }
+
+    /**
+     * Выдерживает паузу анимации после выстрела. Скорость игры симуляции ({@link ClockedGameSpeed})
+     * передает паузу своим часам боя, и виртуальные часы не ждут; обычная скорость библиотеки
+     * ждет настроенную задержку.
+     *
+     * @throws InterruptedException Если ожидание прервано.
+     */
+    private void pauseAnimation() throws InterruptedException {
+        if (simSpeed instanceof ClockedGameSpeed) {
+            ClockedGameSpeed clockedSpeed = (ClockedGameSpeed) simSpeed;
+            clockedSpeed.getClock().pause(clockedSpeed.getFrameMillis());
+            return;
+        }
+        Integer delay = simSpeed.getGameSpeed();
+        if (delay != null && delay > 0) {
+            Thread.sleep(delay);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package main.java.com.heroes_task.programs.batch;
+
+import com.battle.heroes.army.Army;
+import com.battle.heroes.army.Unit;
+import com.battle.heroes.army.programs.Program;
+import com.battle.heroes.army.programs.SuitableForAttackUnitsFinder;
+import com.battle.heroes.army.programs.UnitTargetPathFinder;
+import com.battle.heroes.army.programs.computer.ComputerArcherProgram;
+import com.battle.heroes.army.programs.computer.ComputerKnightProgram;
+import com.battle.heroes.army.programs.computer.ComputerPikemanProgram;
+import com.battle.heroes.army.programs.computer.ComputerSwordsmanProgram;
+import com.battle.heroes.army.programs.user.UserArcherProgram;
+import com.battle.heroes.army.programs.user.UserKnightProgram;
+import com.battle.heroes.army.programs.user.UserPikemanProgram;
+import com.battle.heroes.army.programs.user.UserSwordsmanProgram;
+import com.battle.heroes.util.GameSpeedUtil;
+
+import java.util.SplittableRandom;
+
+/**
+ * Назначает юнитам программы поведения так же, как это делает игра:
+ * армии игрока — пользовательские программы, армии компьютера — программы компьютера.
+ */
+public final class UnitProgramFactory {
+
+    private UnitProgramFactory() {
+    }
+
+    /**
+     * Назначает программы всем юнитам обеих армий.
+     *
+     * @param playerArmy                   Армия игрока.
+     * @param computerArmy                 Армия компьютера.
+     * @param suitableForAttackUnitsFinder Поиск подходящих для атаки юнитов.
+     * @param unitTargetPathFinder         Поиск пути до цели.
+     * @param simSpeed                     Задержка анимации программ.
+     *
+     * Сложность: O(n + m), где n и m — количество юнитов в армиях.
+     */
+    public static void assignPrograms(Army playerArmy, Army computerArmy,
+                                      SuitableForAttackUnitsFinder suitableForAttackUnitsFinder,
+                                      UnitTargetPathFinder unitTargetPathFinder,
+                                      GameSpeedUtil simSpeed) {
+        assignPrograms(playerArmy, computerArmy, suitableForAttackUnitsFinder, unitTargetPathFinder, simSpeed, null);
+    }
+
+    /**
+     * Назначает программы всем юнитам обеих армий. Если задан генератор боя, лучники
+     * выбирают цель им, а не глобальным генератором программ библиотеки; вместе с поиском
+     * целей, использующим тот же генератор, это делает бой воспроизводимым по зерну.
+     *
+     * @param playerArmy                   Армия игрока.
+     * @param computerArmy                 Армия компьютера.
+     * @param suitableForAttackUnitsFinder Поиск подходящих для атаки юнитов.
+     * @param unitTargetPathFinder         Поиск пути до цели.
+     * @param simSpeed                     Задержка анимации программ.
+     * @param random                       Генератор боя или null для программ библиотеки.
+     *
+     * Сложность: O(n + m), где n и m — количество юнитов в армиях.
+     */
+    public static void assignPrograms(Army playerArmy, Army computerArmy,
+                                      SuitableForAttackUnitsFinder suitableForAttackUnitsFinder,
+                                      UnitTargetPathFinder unitTargetPathFinder,
+                                      GameSpeedUtil simSpeed, SplittableRandom random) {
+        for (Unit unit : playerArmy.getUnits()) {
+            unit.setProgram(createPlayerProgram(unit, playerArmy, computerArmy, simSpeed,
+                    suitableForAttackUnitsFinder, unitTargetPathFinder, random));
+        }
+        for (Unit unit : computerArmy.getUnits()) {
+            unit.setProgram(createComputerProgram(unit, computerArmy, playerArmy, simSpeed,
+                    suitableForAttackUnitsFinder, unitTargetPathFinder, random));
+        }
+    }
+
+    private static Program createPlayerProgram(Unit unit, Army allyArmy, Army enemyArmy, GameSpeedUtil simSpeed,
+                                               SuitableForAttackUnitsFinder finder, UnitTargetPathFinder pathFinder,
+                                               SplittableRandom random) {
+        switch (unit.getUnitType()) {
+            case "Archer":
+                return random != null
+                        ? new SeededArcherProgram(unit, allyArmy, enemyArmy, simSpeed, random)
+                        : new UserArcherProgram(unit, allyArmy, enemyArmy, simSpeed);
+            case "Knight":
+                return new UserKnightProgram(unit, allyArmy, enemyArmy, simSpeed, finder, pathFinder);
+            case "Pikeman":
+                return new UserPikemanProgram(unit, allyArmy, enemyArmy, simSpeed, finder, pathFinder);
+            case "Swordsman":
+                return new UserSwordsmanProgram(unit, allyArmy, enemyArmy, simSpeed, finder, pathFinder);
+            default:
+                throw new IllegalArgumentException("Неизвестный тип юнита: " + unit.getUnitType());
+        }
+    }
+
+    private static Program createComputerProgram(Unit unit, Army allyArmy, Army enemyArmy, GameSpeedUtil simSpeed,
+                                                 SuitableForAttackUnitsFinder finder, UnitTargetPathFinder pathFinder,
+                                                 SplittableRandom random) {
+        switch (unit.getUnitType()) {
+            case "Archer":
+                return random != null
+                        ? new SeededArcherProgram(unit, allyArmy, enemyArmy, simSpeed, random)
+                        : new ComputerArcherProgram(unit, allyArmy, enemyArmy, simSpeed);
+            case "Knight":
+                return new ComputerKnightProgram(unit, allyArmy, enemyArmy, simSpeed, finder, pathFinder);
+            case "Pikeman":
+                return new ComputerPikemanProgram(unit, allyArmy, enemyArmy, simSpeed, finder, pathFinder);
+            case "Swordsman":
+                return new ComputerSwordsmanProgram(unit, allyArmy, enemyArmy, simSpeed, finder, pathFinder);
+            default:
+                throw new IllegalArgumentException("Неизвестный тип юнита: " + unit.getUnitType());
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package main.java.com.heroes_task.programs.clock;
+
+/**
+ * Часы боя: отсчитывают время анимации ходов и решают, сколько поток должен
+ * на самом деле ждать.
+ * <p>
+ * Программы юнитов выдерживают паузы анимации между шагами ({@code Thread.sleep}
+ * с задержкой из {@link ClockedGameSpeed}). Часы реального времени {@link #REAL_TIME}
+ * оставляют эти паузы визуальному клиенту. Виртуальные часы {@link VirtualBattleClock}
+ * только сдвигают логическое время, поэтому бой без интерфейса ограничен процессором,
+ * а не длительностью анимации.
+ */
+public interface BattleClock {
+
+    /**
+     * Часы реального времени: время идет само, паузы выдерживаются полностью.
+     */
+    BattleClock REAL_TIME = new BattleClock() {
+        @Override
+        public long currentTimeMillis() {
+            return System.currentTimeMillis();
+        }
+
+        @Override
+        public long advance(long millis) {
+            return millis;
+        }
+    };
+
+    /**
+     * @return Текущее время боя в миллисекундах.
+     */
+    long currentTimeMillis();
+
+    /**
+     * Отмечает паузу анимации заданной длительности.
+     *
+     * @param millis Длительность паузы в миллисекундах.
+     * @return Сколько миллисекунд поток должен ждать: длительность паузы для реального
+     * времени, 0 для виртуального.
+     */
+    long advance(long millis);
+
+    /**
+     * Выдерживает паузу анимации: ждет, только если этого требуют часы.
+     *
+     * @param millis Длительность паузы в миллисекундах.
+     * @throws InterruptedException Если ожидание прервано.
+     */
+    default void pause(long millis) throws InterruptedException {
+        long delay = advance(millis);
+        if (delay > 0) {
+            Thread.sleep(delay);
+        }
+    }
+}
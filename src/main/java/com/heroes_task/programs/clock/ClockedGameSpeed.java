@@ -0,0 +1,67 @@
+package main.java.com.heroes_task.programs.clock;
+
+import com.battle.heroes.util.GameSpeedUtil;
+
+/**
+ * Скорость игры, подчиненная часам боя.
+ * <p>
+ * Программы юнитов библиотеки перед каждой паузой анимации читают задержку
+ * через {@link #getGameSpeed()} и ждут столько миллисекунд. Здесь чтение задержки
+ * отмечает паузу в часах, а программе возвращается время, которое она должна
+ * действительно ждать: настроенную задержку для часов реального времени
+ * и 0 для виртуальных часов. Настроенная задержка меняется, как и раньше,
+ * через {@link #setGameSpeed(Integer)}.
+ */
+public class ClockedGameSpeed extends GameSpeedUtil {
+
+    private static final Integer NO_DELAY = 0;
+
+    private BattleClock clock;
+
+    /**
+     * @param clock       Часы боя.
+     * @param frameMillis Задержка одного шага анимации в миллисекундах.
+     */
+    public ClockedGameSpeed(BattleClock clock, int frameMillis) {
+        super(frameMillis);
+        setClock(clock);
+    }
+
+    /**
+     * @return Часы боя.
+     */
+    public BattleClock getClock() {
+        return clock;
+    }
+
+    /**
+     * @param clock Часы боя.
+     */
+    public void setClock(BattleClock clock) {
+        if (clock == null) {
+            throw new IllegalArgumentException("Часы боя не заданы");
+        }
+        this.clock = clock;
+    }
+
+    /**
+     * @return Задержка одного шага анимации без учета часов.
+     */
+    public int getFrameMillis() {
+        Integer frameMillis = super.getGameSpeed();
+        return frameMillis == null ? 0 : frameMillis;
+    }
+
+    /**
+     * Отмечает шаг анимации в часах боя.
+     *
+     * @return Сколько миллисекунд программа должна ждать.
+     * @complexity Временная сложность: O(1).
+     */
+    @Override
+    public Integer getGameSpeed() {
+        int frameMillis = getFrameMillis();
+        long delay = clock.advance(frameMillis);
+        return delay == 0 ? NO_DELAY : Integer.valueOf((int) delay);
+    }
+}
@@ -0,0 +1,48 @@
+package main.java.com.heroes_task.programs.clock;
+
+/**
+ * Виртуальные часы боя: паузы анимации сдвигают логическое время и не задерживают поток.
+ * Время боя остается таким же, как при показе в клиенте, поэтому его можно оценить
+ * без ожидания.
+ * <p>
+ * Экземпляр принадлежит одному бою и не синхронизирован.
+ */
+public class VirtualBattleClock implements BattleClock {
+
+    private long time;
+
+    /**
+     * Создает часы с нулевым начальным временем.
+     */
+    public VirtualBattleClock() {
+        this(0);
+    }
+
+    /**
+     * @param startMillis Начальное время в миллисекундах.
+     */
+    public VirtualBattleClock(long startMillis) {
+        this.time = startMillis;
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return time;
+    }
+
+    /**
+     * Сдвигает время на длительность паузы.
+     *
+     * @param millis Длительность паузы в миллисекундах.
+     * @return 0: поток не ждет.
+     * @complexity Временная сложность: O(1).
+     */
+    @Override
+    public long advance(long millis) {
+        if (millis < 0) {
+            throw new IllegalArgumentException("Длительность паузы не может быть отрицательной: " + millis);
+        }
+        time += millis;
+        return 0;
+    }
+}
@@ -0,0 +1,523 @@
+package main.java.com.heroes_task.programs.core;
+
+import com.battle.heroes.army.Army;
+import com.battle.heroes.army.Unit;
+import main.java.com.heroes_task.programs.BattleOutcome;
+import main.java.com.heroes_task.programs.BattleResult;
+import main.java.com.heroes_task.programs.DamageTable;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Ядро симуляции боя на примитивных массивах для пакетных прогонов.
+ * Армии один раз копируются в параллельные массивы (здоровье, атака, тип, упакованная
+ * клетка {@code x * HEIGHT + y}), бонусы атаки и защиты компилируются в {@link DamageTable}.
+ * Бой затем идет без обращений к объектам {@link Unit}, упаковки чисел
+ * и поиска в {@code Map}; один скомпилированный бой можно сыграть много раз с разными зернами.
+ * <p>
+ * Правила совпадают с {@link main.java.com.heroes_task.programs.SimulateBattleImpl}
+ * и программами юнитов библиотеки в детерминированном режиме
+ * ({@link main.java.com.heroes_task.programs.batch.BatchBattleRunner}):
+ * <ul>
+ *     <li>лучник атакует случайного живого юнита противника;</li>
+ *     <li>юнит ближнего боя выбирает случайную цель среди крайних живых юнитов
+ *     колонок зоны развертывания противника и атакует, если до нее есть путь;
+ *     программа возвращает юнит в исходную клетку, поэтому клетки юнитов за бой не меняются;</li>
+ *     <li>заблокированный юнит ближнего боя, кроме рыцаря компьютера, атакует сам себя
+ *     и при гибели остается в армии, как и в симуляции на объектах;</li>
+ *     <li>цель получает урон дважды: от программы юнита и от симуляции.</li>
+ * </ul>
+ * Генератор с зерном боя вызывается в том же порядке, что и в симуляции на объектах,
+ * поэтому при одинаковых пресетах и зерне итог боя совпадает.
+ * Наличие пути проверяется по компонентам связности свободных клеток, которые
+ * пересчитываются только после гибели юнита.
+ * <p>
+ * Экземпляр не потокобезопасен: для параллельных боев нужен свой экземпляр на поток.
+ */
+public class BattleCore {
+    /** Ширина игрового поля. */
+    public static final int WIDTH = 27;
+    /** Высота игрового поля. */
+    public static final int HEIGHT = 21;
+    private static final int CELLS = WIDTH * HEIGHT; // Количество клеток поля
+    private static final int FREE = -1; // Клетка без юнита
+    private static final int COLUMNS = 3; // Колонки зоны развертывания
+    private static final int COMPUTER_COLUMN_X = 0; // Первая колонка армии компьютера
+    private static final int PLAYER_COLUMN_X = WIDTH - COLUMNS; // Первая колонка армии игрока
+
+    private final int playerCount;
+    private final int unitCount;
+    private final int[] initialHealth;
+    private final int[] attack;
+    private final int[] cell;
+    private final byte[] type;
+    private final boolean[] ranged;
+    private final boolean[] attacksSelfWhenBlocked;
+    private final DamageTable damageTable;
+    private final int typeCount;
+    private final int[] damageToType; // [номер атакующего * typeCount + тип цели] — урон симуляции
+    private final int[][] columns; // 0..2 — армия компьютера по x = 0..2, 3..5 — армия игрока по x = 24..26
+
+    private final int[] health;
+    private final boolean[] living;
+    private final int[] fenwick; // Количество живых юнитов по префиксам номеров
+    private final int[] columnPointer = new int[2 * COLUMNS];
+    private final int[] occupant = new int[CELLS];
+    private final int[] component = new int[CELLS];
+    private final int[] queue = new int[CELLS];
+    private final int[] candidates = new int[COLUMNS];
+    private int playerLiving;
+    private int computerLiving;
+    private boolean componentsDirty;
+
+    /**
+     * Компилирует бой: копирует армии в примитивные массивы и разрешает бонусы в матрицу.
+     * Армии не изменяются.
+     *
+     * @param playerArmy   Армия игрока.
+     * @param computerArmy Армия компьютера.
+     * @throws IllegalArgumentException Если юнит вне поля, две клетки совпадают или тип юнита неизвестен.
+     *
+     * Сложность: O(N * T + T^2), где N — количество юнитов, T — количество типов.
+     */
+    public BattleCore(Army playerArmy, Army computerArmy) {
+        List<Unit> playerUnits = playerArmy.getUnits();
+        List<Unit> computerUnits = computerArmy.getUnits();
+        this.playerCount = playerUnits.size();
+        this.unitCount = playerCount + computerUnits.size();
+        this.initialHealth = new int[unitCount];
+        this.attack = new int[unitCount];
+        this.cell = new int[unitCount];
+        this.type = new byte[unitCount];
+        this.health = new int[unitCount];
+        this.living = new boolean[unitCount];
+        this.fenwick = new int[unitCount + 1];
+
+        this.damageTable = DamageTable.compile(playerUnits, computerUnits);
+        if (damageTable.getTypeCount() > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("Слишком много типов юнитов: " + damageTable.getTypeCount());
+        }
+        Arrays.fill(occupant, FREE);
+        for (int id = 0; id < unitCount; id++) {
+            Unit unit = id < playerCount ? playerUnits.get(id) : computerUnits.get(id - playerCount);
+            initialHealth[id] = unit.getHealth();
+            attack[id] = unit.getBaseAttack();
+            cell[id] = cellOf(unit);
+            if (occupant[cell[id]] != FREE) {
+                throw new IllegalArgumentException("Два юнита в одной клетке: " + unit.getName());
+            }
+            occupant[cell[id]] = id;
+            type[id] = (byte) damageTable.typeOf(unit);
+        }
+
+        this.typeCount = damageTable.getTypeCount();
+        this.damageToType = new int[unitCount * typeCount];
+        setBonusesApplied(false);
+        this.ranged = new boolean[typeCount];
+        this.attacksSelfWhenBlocked = new boolean[unitCount];
+        for (int id = 0; id < unitCount; id++) {
+            String unitType = damageTable.getTypeName(type[id]);
+            switch (unitType) {
+                case "Archer":
+                    ranged[type[id]] = true;
+                    break;
+                case "Knight":
+                    attacksSelfWhenBlocked[id] = id < playerCount; // Рыцарь компьютера при блокировке пропускает ход
+                    break;
+                case "Pikeman":
+                case "Swordsman":
+                    attacksSelfWhenBlocked[id] = true;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Неизвестный тип юнита: " + unitType);
+            }
+        }
+        this.columns = new int[2 * COLUMNS][];
+        for (int column = 0; column < COLUMNS; column++) {
+            columns[column] = unitsInColumn(playerCount, unitCount, COMPUTER_COLUMN_X + column);
+            columns[COLUMNS + column] = unitsInColumn(0, playerCount, PLAYER_COLUMN_X + column);
+        }
+    }
+
+    /**
+     * Включает применение бонусов атаки и защиты к урону, который наносит симуляция.
+     * Программы юнитов библиотеки бонусы не учитывают, поэтому по умолчанию они выключены
+     * и итог боя совпадает с симуляцией на объектах.
+     * Урон каждого юнита по каждому типу цели вычисляется здесь заранее, поэтому удар
+     * в бою — одно обращение к массиву и с бонусами, и без них.
+     *
+     * @param bonusesApplied true, если урон симуляции нужно умножать на бонусы.
+     *
+     * Сложность: O(N * T), где N — количество юнитов, T — количество типов.
+     */
+    public void setBonusesApplied(boolean bonusesApplied) {
+        for (int id = 0; id < unitCount; id++) {
+            for (int targetType = 0; targetType < typeCount; targetType++) {
+                damageToType[id * typeCount + targetType] = bonusesApplied
+                        ? damageTable.damage(attack[id], type[id], targetType)
+                        : attack[id];
+            }
+        }
+    }
+
+    /**
+     * Играет бой с начальной расстановки.
+     *
+     * @param seed      Зерно боя.
+     * @param maxRounds Максимальное количество раундов; 0 — без ограничения.
+     * @return Итог боя.
+     *
+     * Сложность: O(R * N * log N + D * CELLS), где R — количество раундов, N — количество юнитов,
+     * D — количество погибших юнитов.
+     */
+    public BattleResult simulate(long seed, int maxRounds) {
+        if (maxRounds < 0) {
+            throw new IllegalArgumentException("Лимит раундов не может быть отрицательным: " + maxRounds);
+        }
+        reset();
+        SplittableRandom random = new SplittableRandom(seed);
+        int rounds = 0;
+        while (playerLiving > 0 && computerLiving > 0) {
+            if (maxRounds > 0 && rounds >= maxRounds) {
+                break;
+            }
+            executeAttacks(0, playerCount, random);
+            executeAttacks(playerCount, unitCount, random);
+            rounds++;
+        }
+        BattleOutcome outcome = playerLiving == 0 ? BattleOutcome.COMPUTER_WON
+                : computerLiving == 0 ? BattleOutcome.PLAYER_WON : BattleOutcome.DRAW;
+        return new BattleResult(outcome, rounds,
+                playerLiving, totalHealth(0, playerCount),
+                computerLiving, totalHealth(playerCount, unitCount));
+    }
+
+    /**
+     * @return Количество юнитов: сначала юниты игрока, затем компьютера.
+     */
+    public int getUnitCount() {
+        return unitCount;
+    }
+
+    /**
+     * @param id Номер юнита.
+     * @return Здоровье юнита после последнего боя.
+     */
+    public int getHealth(int id) {
+        return health[id];
+    }
+
+    /**
+     * @param id Номер юнита.
+     * @return true, если юнит остался в армии после последнего боя.
+     */
+    public boolean isLiving(int id) {
+        return living[id];
+    }
+
+    /**
+     * Выполняет атаки юнитов одной армии в порядке хода.
+     *
+     * @param from Первый номер юнита армии.
+     * @param to   Номер после последнего юнита армии.
+     *
+     * Сложность: O(n * log N), где n — количество юнитов армии, без учета пересчета компонент.
+     */
+    private void executeAttacks(int from, int to, SplittableRandom random) {
+        boolean player = from == 0;
+        for (int attacker = from; attacker < to; attacker++) {
+            if (!living[attacker]) {
+                continue;
+            }
+            if ((player ? computerLiving : playerLiving) == 0) {
+                break;
+            }
+            int target;
+            if (ranged[type[attacker]]) {
+                target = chooseRangedTarget(player, random);
+            } else {
+                target = chooseMeleeTarget(player, random);
+                if (target != FREE && !isReachable(cell[attacker], cell[target])) {
+                    if (attacksSelfWhenBlocked[attacker]) {
+                        // Программа вернула сам юнит: урон получает атакующий, и он не удаляется из армии
+                        health[attacker] -= damage(attacker, attacker);
+                    }
+                    continue;
+                }
+            }
+            if (target == FREE) {
+                continue;
+            }
+            health[target] -= attack[attacker]; // Урон программы юнита, бонусы не учитываются
+            health[target] -= damage(attacker, target); // Урон симуляции
+            if (health[target] <= 0) {
+                kill(target);
+            }
+        }
+    }
+
+    /**
+     * Выбирает цель лучника: случайный живой юнит армии противника.
+     *
+     * @complexity Временная сложность: O(log N).
+     */
+    private int chooseRangedTarget(boolean player, SplittableRandom random) {
+        int enemies = player ? computerLiving : playerLiving;
+        int before = player ? playerLiving : 0; // Живые юниты с меньшими номерами, чем у армии противника
+        return selectLiving(before + random.nextInt(enemies));
+    }
+
+    /**
+     * Выбирает цель юнита ближнего боя: крайний живой юнит каждой колонки зоны развертывания
+     * противника (последний в списке армии для армии компьютера, первый — для армии игрока),
+     * затем случайный из них. Перемешивание повторяет поиск целей в детерминированном режиме.
+     *
+     * @return Номер цели или {@link #FREE}, если целей нет.
+     * @complexity Временная сложность: O(1) амортизированно.
+     */
+    private int chooseMeleeTarget(boolean player, SplittableRandom random) {
+        int count = 0;
+        for (int column = 0; column < COLUMNS; column++) {
+            int candidate = player ? lastLiving(column) : firstLiving(COLUMNS + column);
+            if (candidate != FREE) {
+                candidates[count++] = candidate;
+            }
+        }
+        for (int i = count - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int candidate = candidates[i];
+            candidates[i] = candidates[j];
+            candidates[j] = candidate;
+        }
+        return count == 0 ? FREE : candidates[0];
+    }
+
+    /**
+     * @complexity Временная сложность: O(1) амортизированно — указатель только уменьшается.
+     */
+    private int lastLiving(int column) {
+        int[] units = columns[column];
+        while (columnPointer[column] >= 0 && !living[units[columnPointer[column]]]) {
+            columnPointer[column]--;
+        }
+        return columnPointer[column] >= 0 ? units[columnPointer[column]] : FREE;
+    }
+
+    /**
+     * @complexity Временная сложность: O(1) амортизированно — указатель только увеличивается.
+     */
+    private int firstLiving(int column) {
+        int[] units = columns[column];
+        while (columnPointer[column] < units.length && !living[units[columnPointer[column]]]) {
+            columnPointer[column]++;
+        }
+        return columnPointer[column] < units.length ? units[columnPointer[column]] : FREE;
+    }
+
+    /**
+     * Проверяет, есть ли путь из клетки атакующего в клетку цели по свободным клеткам
+     * (соседство по сторонам, как в поиске пути в ширину).
+     *
+     * @complexity Временная сложность: O(1), если компоненты актуальны, иначе O(CELLS).
+     */
+    private boolean isReachable(int start, int target) {
+        if (start == target || isAdjacent(start, target)) {
+            return true;
+        }
+        updateComponents();
+        int startX = start / HEIGHT;
+        int startY = start - startX * HEIGHT;
+        int targetX = target / HEIGHT;
+        int targetY = target - targetX * HEIGHT;
+        for (int i = 0; i < 4; i++) {
+            int from = neighbor(startX, startY, i);
+            if (from == FREE || occupant[from] != FREE) {
+                continue;
+            }
+            for (int j = 0; j < 4; j++) {
+                int to = neighbor(targetX, targetY, j);
+                if (to != FREE && occupant[to] == FREE && component[to] == component[from]) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Размечает компоненты связности свободных клеток обходом в ширину.
+     *
+     * @complexity Временная сложность: O(CELLS).
+     */
+    private void updateComponents() {
+        if (!componentsDirty) {
+            return;
+        }
+        Arrays.fill(component, FREE);
+        int label = 0;
+        for (int seed = 0; seed < CELLS; seed++) {
+            if (occupant[seed] != FREE || component[seed] != FREE) {
+                continue;
+            }
+            int head = 0;
+            int tail = 0;
+            component[seed] = label;
+            queue[tail++] = seed;
+            while (head != tail) {
+                int current = queue[head++];
+                int x = current / HEIGHT;
+                int y = current - x * HEIGHT;
+                for (int i = 0; i < 4; i++) {
+                    int next = neighbor(x, y, i);
+                    if (next != FREE && occupant[next] == FREE && component[next] == FREE) {
+                        component[next] = label;
+                        queue[tail++] = next;
+                    }
+                }
+            }
+            label++;
+        }
+        componentsDirty = false;
+    }
+
+    static boolean isAdjacent(int first, int second) {
+        int firstX = first / HEIGHT;
+        int secondX = second / HEIGHT;
+        int dx = Math.abs(firstX - secondX);
+        int dy = Math.abs(first - firstX * HEIGHT - (second - secondX * HEIGHT));
+        return dx + dy == 1;
+    }
+
+    /**
+     * @return Соседняя клетка в направлении {@code direction} (0..3) или {@link #FREE}, если она вне поля.
+     */
+    static int neighbor(int x, int y, int direction) {
+        switch (direction) {
+            case 0:
+                return x > 0 ? (x - 1) * HEIGHT + y : FREE;
+            case 1:
+                return x < WIDTH - 1 ? (x + 1) * HEIGHT + y : FREE;
+            case 2:
+                return y > 0 ? x * HEIGHT + y - 1 : FREE;
+            default:
+                return y < HEIGHT - 1 ? x * HEIGHT + y + 1 : FREE;
+        }
+    }
+
+    /**
+     * Урон, который наносит симуляция.
+     *
+     * @complexity Временная сложность: O(1).
+     */
+    private int damage(int attacker, int target) {
+        return damageToType[attacker * typeCount + type[target]];
+    }
+
+    /**
+     * Удаляет юнит из армии: освобождает клетку и помечает компоненты к пересчету.
+     *
+     * @complexity Временная сложность: O(log N).
+     */
+    private void kill(int id) {
+        if (!living[id]) {
+            return;
+        }
+        living[id] = false;
+        if (id < playerCount) {
+            playerLiving--;
+        } else {
+            computerLiving--;
+        }
+        for (int i = id + 1; i <= unitCount; i += i & -i) {
+            fenwick[i]--;
+        }
+        occupant[cell[id]] = FREE;
+        componentsDirty = true;
+    }
+
+    /**
+     * Возвращает номер k-го живого юнита (с нуля) в порядке номеров.
+     *
+     * @complexity Временная сложность: O(log N).
+     */
+    private int selectLiving(int k) {
+        int position = 0;
+        int remaining = k + 1;
+        for (int step = Integer.highestOneBit(Math.max(unitCount, 1)); step > 0; step >>= 1) {
+            int next = position + step;
+            if (next <= unitCount && fenwick[next] < remaining) {
+                position = next;
+                remaining -= fenwick[next];
+            }
+        }
+        return position; // Номер в дереве с единицы соответствует юниту position
+    }
+
+    /**
+     * Восстанавливает начальное состояние боя.
+     *
+     * @complexity Временная сложность: O(N + CELLS).
+     */
+    private void reset() {
+        System.arraycopy(initialHealth, 0, health, 0, unitCount);
+        Arrays.fill(living, true);
+        playerLiving = playerCount;
+        computerLiving = unitCount - playerCount;
+        Arrays.fill(occupant, FREE);
+        for (int id = 0; id < unitCount; id++) {
+            occupant[cell[id]] = id;
+        }
+        for (int i = 1; i <= unitCount; i++) {
+            fenwick[i] = 1;
+        }
+        for (int i = 1; i <= unitCount; i++) {
+            int parent = i + (i & -i);
+            if (parent <= unitCount) {
+                fenwick[parent] += fenwick[i];
+            }
+        }
+        for (int column = 0; column < COLUMNS; column++) {
+            columnPointer[column] = columns[column].length - 1;
+            columnPointer[COLUMNS + column] = 0;
+        }
+        componentsDirty = true;
+    }
+
+    private int totalHealth(int from, int to) {
+        int total = 0;
+        for (int id = from; id < to; id++) {
+            if (living[id]) {
+                total += health[id];
+            }
+        }
+        return total;
+    }
+
+    private int[] unitsInColumn(int from, int to, int x) {
+        int count = 0;
+        for (int id = from; id < to; id++) {
+            if (cell[id] / HEIGHT == x) {
+                count++;
+            }
+        }
+        int[] units = new int[count];
+        count = 0;
+        for (int id = from; id < to; id++) {
+            if (cell[id] / HEIGHT == x) {
+                units[count++] = id;
+            }
+        }
+        return units;
+    }
+
+    private static int cellOf(Unit unit) {
+        int x = unit.getxCoordinate();
+        int y = unit.getyCoordinate();
+        if (x < 0 || x >= WIDTH || y < 0 || y >= HEIGHT) {
+            throw new IllegalArgumentException("Юнит " + unit.getName() + " вне игрового поля: (" + x + ", " + y + ")");
+        }
+        return x * HEIGHT + y;
+    }
+}
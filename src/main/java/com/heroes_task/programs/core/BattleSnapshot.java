@@ -0,0 +1,736 @@
+package main.java.com.heroes_task.programs.core;
+
+import com.battle.heroes.army.Unit;
+import main.java.com.heroes_task.programs.DamageTable;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Снимок идущего боя с ветвлением для просмотра вперед («что будет, если атаковать X, а не Y»).
+ * <p>
+ * Неизменяемая часть — атака, тип, клетка, урон по типам и колонки зоны развертывания —
+ * строится один раз на бой по спискам армий {@link main.java.com.heroes_task.programs.SimulateBattleImpl}.
+ * Здоровье и признак {@code alive} юнитов перечитываются методом {@link #refresh()} перед
+ * каждым выбором цели и образуют базовое состояние. Ветвь ({@link Branch}) хранит поверх
+ * базы только измененные юниты: копирование при записи в небольшой хэш-таблице, поэтому
+ * {@link Branch#fork()} стоит O(k), где k — количество измененных в ветви юнитов,
+ * а не O(N). Объекты {@link Unit}, их бонусы в {@code Map} и программы не копируются.
+ * <p>
+ * Ветви играют ходы по тем же правилам, что и {@link BattleCore}: лучник атакует случайного
+ * живого юнита противника, юнит ближнего боя — случайный крайний юнит колонок противника,
+ * если до него есть путь; цель получает урон программы и урон симуляции. Клетки юнитов
+ * за бой не меняются, поэтому ветвь отличается от базы только здоровьем и гибелью юнитов.
+ * <p>
+ * Экземпляр и его ветви не потокобезопасны. {@link #refresh()} делает прежние ветви недействительными.
+ */
+public final class BattleSnapshot {
+    private static final int CELLS = BattleCore.WIDTH * BattleCore.HEIGHT;
+    private static final int FREE = -1; // Клетка без юнита или отсутствие цели
+    private static final int COLUMNS = 3;
+    private static final int COMPUTER_COLUMN_X = 0;
+    private static final int PLAYER_COLUMN_X = BattleCore.WIDTH - COLUMNS;
+    private static final int RANGED_ATTEMPTS = 8; // Попытки выбора цели лучника до перебора
+
+    private final Unit[] units;
+    private final Map<Unit, Integer> ids;
+    private final int playerCount;
+    private final int unitCount;
+    private final int[] attack;
+    private final int[] cell;
+    private final byte[] type;
+    private final boolean[] ranged;
+    private final boolean[] attacksSelfWhenBlocked;
+    private final int typeCount;
+    private final int[] damageToType; // [номер атакующего * typeCount + тип цели] — урон симуляции
+    private final int[][] columns; // 0..2 — армия компьютера по x = 0..2, 3..5 — армия игрока по x = 24..26
+
+    private final int[] health;
+    private final boolean[] living;
+    private final int[] occupant = new int[CELLS];
+    private final int[] playerLivingIds;
+    private final int[] computerLivingIds;
+    private int playerLiving;
+    private int computerLiving;
+    private int playerHealth;
+    private int computerHealth;
+    private int epoch;
+    private Object baseOccupancy;
+
+    private final int[] component = new int[CELLS]; // Компоненты свободных клеток базового состояния
+    private final int[] queue = new int[CELLS];
+    private int baseComponents; // Количество компонент базы; -1 — не размечены
+    private final int[] labelParent = new int[CELLS]; // Лес объединения компонент базы и освобожденных клеток
+    private final int[] freedStamp = new int[CELLS];
+    private final int[] freedLabel = new int[CELLS];
+    private int stamp;
+    private final int[] candidates = new int[COLUMNS];
+    private Object componentsOccupancy; // Занятость, для которой объединены компоненты
+
+    /**
+     * Строит неизменяемую часть снимка и читает базовое состояние.
+     * Порядок юнитов совпадает с порядком хода: сначала армия игрока, затем компьютера.
+     *
+     * @param playerUnits    Юниты армии игрока, включая погибших с {@code alive = false}.
+     * @param computerUnits  Юниты армии компьютера.
+     * @param bonusesApplied true, если урон симуляции умножается на бонусы.
+     * @throws IllegalArgumentException Если юнит вне поля, две клетки совпадают или тип юнита неизвестен.
+     *
+     * Сложность: O(N * T + T^2 + CELLS), где N — количество юнитов, T — количество типов.
+     */
+    public BattleSnapshot(List<Unit> playerUnits, List<Unit> computerUnits, boolean bonusesApplied) {
+        this.playerCount = playerUnits.size();
+        this.unitCount = playerCount + computerUnits.size();
+        this.units = new Unit[unitCount];
+        this.ids = new IdentityHashMap<>(unitCount * 2);
+        this.attack = new int[unitCount];
+        this.cell = new int[unitCount];
+        this.type = new byte[unitCount];
+        this.ranged = new boolean[unitCount];
+        this.attacksSelfWhenBlocked = new boolean[unitCount];
+        this.health = new int[unitCount];
+        this.living = new boolean[unitCount];
+        this.playerLivingIds = new int[playerCount];
+        this.computerLivingIds = new int[unitCount - playerCount];
+
+        DamageTable damageTable = DamageTable.compile(playerUnits, computerUnits);
+        if (damageTable.getTypeCount() > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("Слишком много типов юнитов: " + damageTable.getTypeCount());
+        }
+        Arrays.fill(occupant, FREE);
+        for (int id = 0; id < unitCount; id++) {
+            Unit unit = id < playerCount ? playerUnits.get(id) : computerUnits.get(id - playerCount);
+            int x = unit.getxCoordinate();
+            int y = unit.getyCoordinate();
+            if (x < 0 || x >= BattleCore.WIDTH || y < 0 || y >= BattleCore.HEIGHT) {
+                throw new IllegalArgumentException("Юнит вне игрового поля: " + unit.getName());
+            }
+            cell[id] = x * BattleCore.HEIGHT + y;
+            if (occupant[cell[id]] != FREE) {
+                throw new IllegalArgumentException("Два юнита в одной клетке: " + unit.getName());
+            }
+            occupant[cell[id]] = id;
+            units[id] = unit;
+            ids.put(unit, id);
+            attack[id] = unit.getBaseAttack();
+            type[id] = (byte) damageTable.typeOf(unit);
+            switch (unit.getUnitType()) {
+                case "Archer":
+                    ranged[id] = true;
+                    break;
+                case "Knight":
+                    attacksSelfWhenBlocked[id] = id < playerCount; // Рыцарь компьютера при блокировке пропускает ход
+                    break;
+                case "Pikeman":
+                case "Swordsman":
+                    attacksSelfWhenBlocked[id] = true;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Неизвестный тип юнита: " + unit.getUnitType());
+            }
+        }
+
+        this.typeCount = damageTable.getTypeCount();
+        this.damageToType = new int[unitCount * typeCount];
+        for (int id = 0; id < unitCount; id++) {
+            for (int targetType = 0; targetType < typeCount; targetType++) {
+                damageToType[id * typeCount + targetType] = bonusesApplied
+                        ? damageTable.damage(attack[id], type[id], targetType)
+                        : attack[id];
+            }
+        }
+        this.columns = new int[2 * COLUMNS][];
+        for (int column = 0; column < COLUMNS; column++) {
+            columns[column] = unitsInColumn(playerCount, unitCount, COMPUTER_COLUMN_X + column);
+            columns[COLUMNS + column] = unitsInColumn(0, playerCount, PLAYER_COLUMN_X + column);
+        }
+        refresh();
+    }
+
+    /**
+     * Перечитывает здоровье и признак {@code alive} юнитов в базовое состояние.
+     * Ветви, созданные до вызова, становятся недействительными.
+     *
+     * Сложность: O(N + CELLS).
+     */
+    public void refresh() {
+        Arrays.fill(occupant, FREE);
+        playerLiving = 0;
+        computerLiving = 0;
+        playerHealth = 0;
+        computerHealth = 0;
+        for (int id = 0; id < unitCount; id++) {
+            Unit unit = units[id];
+            health[id] = unit.getHealth();
+            living[id] = unit.isAlive();
+            if (!living[id]) {
+                continue;
+            }
+            occupant[cell[id]] = id;
+            if (id < playerCount) {
+                playerLivingIds[playerLiving++] = id;
+                playerHealth += health[id];
+            } else {
+                computerLivingIds[computerLiving++] = id;
+                computerHealth += health[id];
+            }
+        }
+        epoch++;
+        baseOccupancy = new Object();
+        baseComponents = -1;
+        componentsOccupancy = null;
+    }
+
+    /**
+     * @return Ветвь без изменений относительно базового состояния.
+     *
+     * Сложность: O(1).
+     */
+    public Branch root() {
+        return new Branch(this);
+    }
+
+    /**
+     * @param unit Юнит.
+     * @return Номер юнита в снимке или -1, если юнита нет ни в одной армии снимка.
+     */
+    public int idOf(Unit unit) {
+        Integer id = ids.get(unit);
+        return id == null ? FREE : id;
+    }
+
+    /**
+     * @param id Номер юнита.
+     * @return Юнит.
+     */
+    public Unit getUnit(int id) {
+        return units[id];
+    }
+
+    /**
+     * @return Количество юнитов: сначала юниты игрока, затем компьютера.
+     */
+    public int getUnitCount() {
+        return unitCount;
+    }
+
+    /**
+     * @return Количество юнитов армии игрока.
+     */
+    public int getPlayerCount() {
+        return playerCount;
+    }
+
+    /**
+     * Объединяет компоненты связности свободных клеток для занятости ветви, если они
+     * объединены для другой занятости. Юниты за бой не перемещаются, поэтому клетки
+     * в ветви только освобождаются: каждая клетка погибшего в ветви юнита получает свою
+     * компоненту и объединяется с соседними свободными клетками в лесе непересекающихся
+     * множеств поверх разметки базы. Ветви с одинаковыми погибшими юнитами
+     * (база и ее копии без гибелей) разделяют результат.
+     *
+     * @complexity Временная сложность: O(L + k * α), где L — количество компонент базы,
+     * k — количество измененных в ветви юнитов; O(CELLS) один раз после {@link #refresh()}.
+     */
+    private void updateComponents(Branch branch) {
+        if (componentsOccupancy == branch.occupancy) {
+            return;
+        }
+        if (baseComponents < 0) {
+            labelBaseComponents();
+        }
+        int labels = baseComponents;
+        for (int label = 0; label < labels; label++) {
+            labelParent[label] = label;
+        }
+        if (++stamp == 0) {
+            Arrays.fill(freedStamp, 0);
+            stamp = 1;
+        }
+        int[] keys = branch.keys;
+        for (int slot = 0; slot < keys.length; slot++) {
+            int id = keys[slot] - 1;
+            if (id >= 0 && branch.removed[slot] && living[id]) {
+                freedStamp[cell[id]] = stamp;
+                freedLabel[cell[id]] = labels;
+                labelParent[labels] = labels;
+                labels++;
+            }
+        }
+        for (int slot = 0; slot < keys.length; slot++) {
+            int id = keys[slot] - 1;
+            if (id < 0 || !branch.removed[slot] || !living[id]) {
+                continue;
+            }
+            int x = cell[id] / BattleCore.HEIGHT;
+            int y = cell[id] - x * BattleCore.HEIGHT;
+            for (int i = 0; i < 4; i++) {
+                int next = BattleCore.neighbor(x, y, i);
+                int label = next == FREE ? FREE : labelOf(next);
+                if (label != FREE) {
+                    union(freedLabel[cell[id]], label);
+                }
+            }
+        }
+        componentsOccupancy = branch.occupancy;
+    }
+
+    /**
+     * Размечает компоненты связности свободных клеток базового состояния обходом в ширину.
+     *
+     * @complexity Временная сложность: O(CELLS).
+     */
+    private void labelBaseComponents() {
+        Arrays.fill(component, FREE);
+        int label = 0;
+        for (int seed = 0; seed < CELLS; seed++) {
+            if (occupant[seed] != FREE || component[seed] != FREE) {
+                continue;
+            }
+            int head = 0;
+            int tail = 0;
+            component[seed] = label;
+            queue[tail++] = seed;
+            while (head != tail) {
+                int current = queue[head++];
+                int x = current / BattleCore.HEIGHT;
+                int y = current - x * BattleCore.HEIGHT;
+                for (int i = 0; i < 4; i++) {
+                    int next = BattleCore.neighbor(x, y, i);
+                    if (next != FREE && occupant[next] == FREE && component[next] == FREE) {
+                        component[next] = label;
+                        queue[tail++] = next;
+                    }
+                }
+            }
+            label++;
+        }
+        baseComponents = label;
+    }
+
+    /**
+     * @return Компонента клетки до объединения или {@link #FREE}, если клетка занята
+     * в ветви, для которой объединены компоненты.
+     */
+    private int labelOf(int cell) {
+        if (occupant[cell] == FREE) {
+            return component[cell];
+        }
+        return freedStamp[cell] == stamp ? freedLabel[cell] : FREE;
+    }
+
+    /**
+     * @return Представитель компоненты клетки или {@link #FREE}, если клетка занята.
+     */
+    private int componentOf(int cell) {
+        int label = labelOf(cell);
+        return label == FREE ? FREE : find(label);
+    }
+
+    private int find(int label) {
+        while (labelParent[label] != label) {
+            labelParent[label] = labelParent[labelParent[label]]; // Сокращение пути вдвое
+            label = labelParent[label];
+        }
+        return label;
+    }
+
+    private void union(int first, int second) {
+        labelParent[find(first)] = find(second);
+    }
+
+    private int[] unitsInColumn(int from, int to, int x) {
+        int count = 0;
+        for (int id = from; id < to; id++) {
+            if (cell[id] / BattleCore.HEIGHT == x) {
+                count++;
+            }
+        }
+        int[] column = new int[count];
+        count = 0;
+        for (int id = from; id < to; id++) {
+            if (cell[id] / BattleCore.HEIGHT == x) {
+                column[count++] = id;
+            }
+        }
+        return column;
+    }
+
+    /**
+     * Ветвь боя: изменения здоровья и гибели юнитов поверх базового состояния снимка.
+     * Изменения хранятся в хэш-таблице с открытой адресацией по номеру юнита;
+     * таблица растет вдвое при заполнении наполовину.
+     */
+    public static final class Branch {
+        private static final int INITIAL_CAPACITY = 8;
+
+        private final BattleSnapshot snapshot;
+        private final int epoch;
+        private int[] keys; // Номер юнита + 1; 0 — свободная ячейка
+        private int[] healths;
+        private boolean[] removed;
+        private int changed;
+        private int playerLiving;
+        private int computerLiving;
+        private int playerHealth;
+        private int computerHealth;
+        private Object occupancy; // Меняется при каждой гибели юнита в ветви
+
+        private Branch(BattleSnapshot snapshot) {
+            this.snapshot = snapshot;
+            this.epoch = snapshot.epoch;
+            this.keys = new int[INITIAL_CAPACITY];
+            this.healths = new int[INITIAL_CAPACITY];
+            this.removed = new boolean[INITIAL_CAPACITY];
+            this.playerLiving = snapshot.playerLiving;
+            this.computerLiving = snapshot.computerLiving;
+            this.playerHealth = snapshot.playerHealth;
+            this.computerHealth = snapshot.computerHealth;
+            this.occupancy = snapshot.baseOccupancy;
+        }
+
+        private Branch(Branch parent) {
+            this.snapshot = parent.snapshot;
+            this.epoch = parent.epoch;
+            this.keys = parent.keys.clone();
+            this.healths = parent.healths.clone();
+            this.removed = parent.removed.clone();
+            this.changed = parent.changed;
+            this.playerLiving = parent.playerLiving;
+            this.computerLiving = parent.computerLiving;
+            this.playerHealth = parent.playerHealth;
+            this.computerHealth = parent.computerHealth;
+            this.occupancy = parent.occupancy;
+        }
+
+        /**
+         * Создает независимую копию ветви. Изменения копии не видны в этой ветви и наоборот.
+         *
+         * @return Копия ветви.
+         * @throws IllegalStateException Если снимок обновлен после создания ветви.
+         *
+         * Сложность: O(k), где k — количество измененных в ветви юнитов.
+         */
+        public Branch fork() {
+            checkEpoch();
+            return new Branch(this);
+        }
+
+        /**
+         * Выполняет атаку юнита по выбранной цели, как ее выполняют программа юнита и симуляция.
+         * Если юнит ближнего боя не может дойти до цели, он, кроме рыцаря компьютера,
+         * атакует сам себя и остается в армии.
+         *
+         * @param attacker Номер атакующего юнита.
+         * @param target   Номер цели.
+         * @return true, если цель получила урон.
+         * @throws IllegalStateException Если снимок обновлен после создания ветви.
+         * @complexity Временная сложность: O(1) амортизированно, если компоненты связности объединены
+         * для этой ветви, иначе O(L + k * α): компоненты базы объединяются с клетками, освобожденными в ветви.
+         */
+        public boolean attack(int attacker, int target) {
+            checkEpoch();
+            return strike(attacker, target);
+        }
+
+        /**
+         * Доигрывает ход армии атакующего юнита, начиная со следующего за ним юнита,
+         * и затем еще {@code turns} ходов армий. Цели выбираются генератором, как в {@link BattleCore}.
+         *
+         * @param attacker   Номер юнита, который только что атаковал.
+         * @param turns      Количество ходов армий после текущего.
+         * @param random     Генератор выбора целей.
+         * @param maxAttacks Наибольшее количество атак.
+         * @return Количество выполненных атак.
+         * @throws IllegalStateException Если снимок обновлен после создания ветви.
+         * @complexity Временная сложность: O(A * h + D * (L + k)), где A — количество атак,
+         * h — наибольшее количество юнитов в колонке, D — количество погибших юнитов,
+         * L — количество компонент свободных клеток базы, k — количество измененных юнитов.
+         */
+        public int simulateTurns(int attacker, int turns, SplittableRandom random, int maxAttacks) {
+            checkEpoch();
+            int playerCount = snapshot.playerCount;
+            int unitCount = snapshot.unitCount;
+            int id = attacker + 1;
+            int turnEnd = attacker < playerCount ? playerCount : unitCount;
+            int remaining = turns;
+            int attacks = 0;
+            while (playerLiving > 0 && computerLiving > 0 && attacks < maxAttacks) {
+                if (id == turnEnd) {
+                    if (remaining-- == 0) {
+                        break;
+                    }
+                    if (id == unitCount) {
+                        id = 0;
+                    }
+                    turnEnd = id < playerCount ? playerCount : unitCount;
+                    continue;
+                }
+                if (isLiving(id)) {
+                    int target = snapshot.ranged[id] ? chooseRangedTarget(id, random) : chooseMeleeTarget(id, random);
+                    if (target != FREE) {
+                        strike(id, target);
+                    }
+                    attacks++;
+                }
+                id++;
+            }
+            return attacks;
+        }
+
+        /**
+         * @param id Номер юнита.
+         * @return Здоровье юнита в ветви.
+         */
+        public int getHealth(int id) {
+            int slot = find(id);
+            return slot < 0 ? snapshot.health[id] : healths[slot];
+        }
+
+        /**
+         * @param id Номер юнита.
+         * @return true, если юнит в ветви остается в армии.
+         */
+        public boolean isLiving(int id) {
+            int slot = find(id);
+            return slot < 0 ? snapshot.living[id] : !removed[slot];
+        }
+
+        public int getPlayerLiving() {
+            return playerLiving;
+        }
+
+        public int getComputerLiving() {
+            return computerLiving;
+        }
+
+        /**
+         * @return Суммарное здоровье оставшихся юнитов армии игрока.
+         */
+        public int getPlayerHealth() {
+            return playerHealth;
+        }
+
+        /**
+         * @return Суммарное здоровье оставшихся юнитов армии компьютера.
+         */
+        public int getComputerHealth() {
+            return computerHealth;
+        }
+
+        /**
+         * @return Количество юнитов, измененных в ветви относительно базового состояния.
+         */
+        public int getChangedUnits() {
+            return changed;
+        }
+
+        private boolean strike(int attacker, int target) {
+            if (!snapshot.ranged[attacker] && !isReachable(snapshot.cell[attacker], snapshot.cell[target])) {
+                if (snapshot.attacksSelfWhenBlocked[attacker]) {
+                    // Программа вернула сам юнит: урон получает атакующий, и он не удаляется из армии
+                    damage(attacker, snapshot.damageToType[attacker * snapshot.typeCount + snapshot.type[attacker]], false);
+                }
+                return false;
+            }
+            damage(target, snapshot.attack[attacker] // Урон программы юнита, бонусы не учитываются
+                    + snapshot.damageToType[attacker * snapshot.typeCount + snapshot.type[target]], true); // Урон симуляции
+            return true;
+        }
+
+        /**
+         * Уменьшает здоровье юнита и удаляет его из армии, если здоровье кончилось.
+         *
+         * @param removable false для урона, который атакующий нанес сам себе: такой юнит остается в армии.
+         * @complexity Временная сложность: O(1) амортизированно.
+         */
+        private void damage(int id, int amount, boolean removable) {
+            int slot = slotFor(id);
+            healths[slot] -= amount;
+            boolean player = id < snapshot.playerCount;
+            if (player) {
+                playerHealth -= amount;
+            } else {
+                computerHealth -= amount;
+            }
+            if (healths[slot] > 0 || !removable) {
+                return;
+            }
+            removed[slot] = true;
+            if (player) {
+                playerLiving--;
+                playerHealth -= healths[slot];
+            } else {
+                computerLiving--;
+                computerHealth -= healths[slot];
+            }
+            occupancy = new Object();
+        }
+
+        /**
+         * Выбирает цель лучника: случайный живой юнит армии противника. Номер выбирается
+         * среди живых в базовом состоянии и отбрасывается, если юнит погиб в ветви;
+         * после нескольких неудач k-й живой юнит находится перебором.
+         *
+         * @complexity Временная сложность: O(1) в среднем, O(N) в худшем случае.
+         */
+        private int chooseRangedTarget(int attacker, SplittableRandom random) {
+            boolean player = attacker < snapshot.playerCount;
+            int[] enemies = player ? snapshot.computerLivingIds : snapshot.playerLivingIds;
+            int baseLiving = player ? snapshot.computerLiving : snapshot.playerLiving;
+            for (int attempt = 0; attempt < RANGED_ATTEMPTS; attempt++) {
+                int target = enemies[random.nextInt(baseLiving)];
+                if (isLiving(target)) {
+                    return target;
+                }
+            }
+            int k = random.nextInt(player ? computerLiving : playerLiving);
+            for (int i = 0; i < baseLiving; i++) {
+                if (isLiving(enemies[i]) && k-- == 0) {
+                    return enemies[i];
+                }
+            }
+            return FREE;
+        }
+
+        /**
+         * Выбирает цель юнита ближнего боя: случайный из крайних живых юнитов колонок
+         * зоны развертывания противника.
+         *
+         * @complexity Временная сложность: O(h), где h — наибольшее количество юнитов в колонке.
+         */
+        private int chooseMeleeTarget(int attacker, SplittableRandom random) {
+            boolean player = attacker < snapshot.playerCount;
+            int[] candidates = snapshot.candidates;
+            int count = 0;
+            for (int column = 0; column < COLUMNS; column++) {
+                int candidate = player ? lastLiving(snapshot.columns[column]) : firstLiving(snapshot.columns[COLUMNS + column]);
+                if (candidate != FREE) {
+                    candidates[count++] = candidate;
+                }
+            }
+            return count == 0 ? FREE : candidates[random.nextInt(count)];
+        }
+
+        private int lastLiving(int[] column) {
+            for (int i = column.length - 1; i >= 0; i--) {
+                if (isLiving(column[i])) {
+                    return column[i];
+                }
+            }
+            return FREE;
+        }
+
+        private int firstLiving(int[] column) {
+            for (int id : column) {
+                if (isLiving(id)) {
+                    return id;
+                }
+            }
+            return FREE;
+        }
+
+        /**
+         * Проверяет, есть ли путь из клетки атакующего в клетку цели по клеткам, свободным в ветви.
+         *
+         * @complexity Временная сложность: O(α), если компоненты объединены для этой ветви, иначе O(L + k * α).
+         */
+        private boolean isReachable(int start, int target) {
+            if (start == target || BattleCore.isAdjacent(start, target)) {
+                return true;
+            }
+            snapshot.updateComponents(this);
+            int startX = start / BattleCore.HEIGHT;
+            int startY = start - startX * BattleCore.HEIGHT;
+            int targetX = target / BattleCore.HEIGHT;
+            int targetY = target - targetX * BattleCore.HEIGHT;
+            for (int i = 0; i < 4; i++) {
+                int from = BattleCore.neighbor(startX, startY, i);
+                int fromComponent = from == FREE ? FREE : snapshot.componentOf(from);
+                if (fromComponent == FREE) {
+                    continue;
+                }
+                for (int j = 0; j < 4; j++) {
+                    int to = BattleCore.neighbor(targetX, targetY, j);
+                    if (to != FREE && snapshot.componentOf(to) == fromComponent) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        /**
+         * @return Ячейка таблицы изменений с юнитом или -1, если юнит в ветви не менялся.
+         */
+        private int find(int id) {
+            int mask = keys.length - 1;
+            for (int slot = hash(id) & mask; ; slot = (slot + 1) & mask) {
+                if (keys[slot] == id + 1) {
+                    return slot;
+                }
+                if (keys[slot] == 0) {
+                    return -1;
+                }
+            }
+        }
+
+        /**
+         * @return Ячейка таблицы изменений с юнитом; при первом изменении юнит копируется из базы.
+         */
+        private int slotFor(int id) {
+            int slot = find(id);
+            if (slot >= 0) {
+                return slot;
+            }
+            if (2 * (changed + 1) > keys.length) {
+                grow();
+            }
+            int mask = keys.length - 1;
+            slot = hash(id) & mask;
+            while (keys[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = id + 1;
+            healths[slot] = snapshot.health[id];
+            removed[slot] = !snapshot.living[id];
+            changed++;
+            return slot;
+        }
+
+        private void grow() {
+            int[] oldKeys = keys;
+            int[] oldHealths = healths;
+            boolean[] oldRemoved = removed;
+            keys = new int[oldKeys.length * 2];
+            healths = new int[keys.length];
+            removed = new boolean[keys.length];
+            int mask = keys.length - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] == 0) {
+                    continue;
+                }
+                int slot = hash(oldKeys[i] - 1) & mask;
+                while (keys[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                healths[slot] = oldHealths[i];
+                removed[slot] = oldRemoved[i];
+            }
+        }
+
+        private static int hash(int id) {
+            return id * 0x9E3779B9 >>> 16;
+        }
+
+        private void checkEpoch() {
+            if (epoch != snapshot.epoch) {
+                throw new IllegalStateException("Ветвь создана до обновления снимка");
+            }
+        }
+    }
+}
@@ -0,0 +1,355 @@
+package main.java.com.heroes_task.programs.events;
+
+import com.battle.heroes.army.Army;
+import com.battle.heroes.army.Unit;
+
+import java.io.PrintStream;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Асинхронный вывод событий пакетами через кольцевой буфер.
+ * Источник только копирует поля события в заранее выделенную ячейку буфера;
+ * форматирование и запись выполняет отдельный поток, который забирает
+ * все накопленные события разом и печатает их одной записью в поток вывода.
+ * Формат строк совпадает с {@link ConsoleBattleEventSink}.
+ * <p>
+ * Буфер — кольцо для многих источников и одного потока записи без блокировок:
+ * источник занимает номер события сравнением с обменом и публикует ячейку номером
+ * последовательности ячейки, поток записи освобождает ячейку тем же номером, увеличенным
+ * на емкость. Блокировка берется источником, только если поток записи спит или буфер
+ * заполнен, а потоком записи — один раз на пакет.
+ * <p>
+ * События фиксируются в момент вызова: в лог попадает здоровье цели на момент атаки.
+ * Если буфер заполнен, источник ждет, пока поток записи освободит место.
+ * Источников может быть несколько; порядок событий одного потока сохраняется.
+ * Если поток записи завершился с ошибкой, вывод считается закрытым: ожидающие источники
+ * и {@link #flush()} возвращаются, новые события отбрасываются.
+ */
+public class AsyncBattleEventSink implements BattleEventSink, AutoCloseable {
+    /** Емкость буфера по умолчанию. */
+    public static final int DEFAULT_CAPACITY = 8192;
+
+    private final PrintStream out;
+    private final int capacity;
+    private final Slots buffer;
+    private final AtomicLongArray sequences; // Номер события, которого ждет ячейка, + 1, если ячейка опубликована
+    private final Slots batch; // Принадлежит потоку записи
+    private final AtomicLong tail = new AtomicLong(); // Номер следующего публикуемого события
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private final Condition written = lock.newCondition();
+    private final Thread writer;
+    private long head; // Номер следующего события для записи; принадлежит потоку записи
+    private volatile long writtenCount;
+    private volatile boolean writerWaiting;
+    private volatile boolean closed;
+    private volatile boolean stopped; // Поток записи завершен
+
+    /**
+     * Создает вывод в {@code System.out} с буфером по умолчанию.
+     */
+    public AsyncBattleEventSink() {
+        this(System.out, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Создает вывод и запускает поток записи.
+     *
+     * @param out      Поток вывода.
+     * @param capacity Емкость буфера в событиях.
+     */
+    public AsyncBattleEventSink(PrintStream out, int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Емкость буфера должна быть положительной: " + capacity);
+        }
+        this.out = out;
+        this.capacity = capacity;
+        this.buffer = new Slots(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        for (int slot = 0; slot < capacity; slot++) {
+            sequences.set(slot, slot);
+        }
+        this.batch = new Slots(capacity);
+        this.writer = new Thread(this::writeLoop, "battle-event-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    @Override
+    public void onAttack(Unit attacker, Unit target) {
+        publish(BattleEventType.ATTACK, attacker.getName(), target.getName(), target.getHealth(), 0);
+    }
+
+    @Override
+    public void onDeath(Unit unit) {
+        publish(BattleEventType.DEATH, unit.getName(), null, 0, 0);
+    }
+
+    @Override
+    public void onPathFound(Unit attacker, Unit target, int pathLength) {
+        publish(BattleEventType.PATH_FOUND, attacker.getName(), target.getName(), pathLength, 0);
+    }
+
+    @Override
+    public void onUnitSelected(Unit unit, int position) {
+        publish(BattleEventType.UNIT_SELECTED, unit.getName(), null, position, 0);
+    }
+
+    @Override
+    public void onPresetBuilt(Army army, int maxPoints) {
+        publish(BattleEventType.PRESET_BUILT, null, null, army.getUnits().size(), army.getPoints(), maxPoints);
+    }
+
+    @Override
+    public void onMessage(String message) {
+        publish(BattleEventType.MESSAGE, message, null, 0, 0);
+    }
+
+    /**
+     * Ждет, пока все опубликованные к этому моменту события будут записаны
+     * или поток записи завершится.
+     */
+    public void flush() {
+        long target = tail.get();
+        lock.lock();
+        try {
+            while (writtenCount < target && !stopped) {
+                written.awaitUninterruptibly();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Записывает оставшиеся события и останавливает поток записи.
+     * События, опубликованные после закрытия, отбрасываются.
+     * Если ожидание прервано, флаг прерывания потока восстанавливается.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        signalAll();
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void publish(BattleEventType type, String first, String second, int firstValue, int secondValue) {
+        publish(type, first, second, firstValue, secondValue, 0);
+    }
+
+    /**
+     * Копирует событие в буфер.
+     *
+     * @complexity Временная сложность: O(1) без блокировки, если буфер не заполнен
+     * и поток записи не ждет событий.
+     */
+    private void publish(BattleEventType type, String first, String second,
+                         int firstValue, int secondValue, int thirdValue) {
+        while (!closed) {
+            long number = tail.get();
+            int slot = (int) (number % capacity);
+            long sequence = sequences.get(slot);
+            if (sequence == number) {
+                if (tail.compareAndSet(number, number + 1)) {
+                    buffer.set(slot, type, first, second, firstValue, secondValue, thirdValue);
+                    sequences.set(slot, number + 1); // Публикация ячейки
+                    if (writerWaiting) {
+                        signal(notEmpty);
+                    }
+                    return;
+                }
+            } else if (sequence < number) {
+                awaitNotFull(number); // Ячейку еще не освободил поток записи
+            }
+        }
+    }
+
+    /**
+     * Ждет, пока поток записи освободит ячейку события с номером {@code number} или вывод закроется.
+     */
+    private void awaitNotFull(long number) {
+        int slot = (int) (number % capacity);
+        lock.lock();
+        try {
+            while (sequences.get(slot) < number && !closed) {
+                notFull.awaitUninterruptibly();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Цикл потока записи: забирает все накопленные события, форматирует и печатает их одной записью.
+     * При любом завершении, в том числе с ошибкой, вывод закрывается и ожидающие потоки будятся.
+     */
+    private void writeLoop() {
+        try {
+            StringBuilder text = new StringBuilder();
+            while (true) {
+                int count = takeBatch();
+                if (count == 0) {
+                    if (closed && head == tail.get()) {
+                        return; // Буфер пуст и вывод закрыт
+                    }
+                    if (!closed) {
+                        awaitNotEmpty();
+                    } else {
+                        Thread.onSpinWait(); // Источник занял номер до закрытия и дописывает ячейку
+                    }
+                    continue;
+                }
+                text.setLength(0);
+                for (int i = 0; i < count; i++) {
+                    batch.format(i, text).append(System.lineSeparator());
+                    batch.clear(i);
+                }
+                out.print(text);
+                out.flush();
+
+                lock.lock();
+                try {
+                    writtenCount += count;
+                    written.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+            }
+        } finally {
+            closed = true;
+            stopped = true;
+            signalAll();
+        }
+    }
+
+    /**
+     * Переносит опубликованные события из буфера в пакет и освобождает их ячейки.
+     *
+     * @return Количество перенесенных событий.
+     */
+    private int takeBatch() {
+        int count = 0;
+        while (count < capacity) {
+            long number = head + count;
+            int slot = (int) (number % capacity);
+            if (sequences.get(slot) != number + 1) {
+                break;
+            }
+            batch.copyFrom(buffer, slot, count);
+            buffer.clear(slot); // Не удерживаем строки
+            sequences.set(slot, number + capacity); // Ячейка свободна для события на круг дальше
+            count++;
+        }
+        if (count > 0) {
+            head += count;
+            signal(notFull);
+        }
+        return count;
+    }
+
+    /**
+     * Ждет публикации следующего события или закрытия вывода.
+     * Флаг ожидания выставляется до проверки буфера, а источник читает его после публикации,
+     * поэтому хотя бы одна из сторон видит другую и сигнал не теряется.
+     */
+    private void awaitNotEmpty() {
+        int slot = (int) (head % capacity);
+        lock.lock();
+        try {
+            writerWaiting = true;
+            while (sequences.get(slot) != head + 1 && !closed) {
+                notEmpty.awaitUninterruptibly();
+            }
+        } finally {
+            writerWaiting = false;
+            lock.unlock();
+        }
+    }
+
+    private void signal(Condition condition) {
+        lock.lock();
+        try {
+            condition.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void signalAll() {
+        lock.lock();
+        try {
+            notEmpty.signalAll();
+            notFull.signalAll();
+            written.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Ячейки событий в параллельных массивах.
+     */
+    private static final class Slots {
+        final BattleEventType[] types;
+        final String[] firstNames;
+        final String[] secondNames;
+        final int[] firstValues;
+        final int[] secondValues;
+        final int[] thirdValues;
+
+        Slots(int capacity) {
+            types = new BattleEventType[capacity];
+            firstNames = new String[capacity];
+            secondNames = new String[capacity];
+            firstValues = new int[capacity];
+            secondValues = new int[capacity];
+            thirdValues = new int[capacity];
+        }
+
+        void set(int slot, BattleEventType type, String first, String second,
+                 int firstValue, int secondValue, int thirdValue) {
+            types[slot] = type;
+            firstNames[slot] = first;
+            secondNames[slot] = second;
+            firstValues[slot] = firstValue;
+            secondValues[slot] = secondValue;
+            thirdValues[slot] = thirdValue;
+        }
+
+        void copyFrom(Slots source, int sourceSlot, int slot) {
+            set(slot, source.types[sourceSlot], source.firstNames[sourceSlot], source.secondNames[sourceSlot],
+                    source.firstValues[sourceSlot], source.secondValues[sourceSlot], source.thirdValues[sourceSlot]);
+        }
+
+        void clear(int slot) {
+            firstNames[slot] = null;
+            secondNames[slot] = null;
+        }
+
+        StringBuilder format(int slot, StringBuilder line) {
+            switch (types[slot]) {
+                case ATTACK:
+                    return BattleEventFormat.appendAttack(line, firstNames[slot], secondNames[slot], firstValues[slot]);
+                case DEATH:
+                    return BattleEventFormat.appendDeath(line, firstNames[slot]);
+                case PATH_FOUND:
+                    return BattleEventFormat.appendPathFound(line, firstValues[slot]);
+                case UNIT_SELECTED:
+                    return BattleEventFormat.appendUnitSelected(line, firstNames[slot], firstValues[slot]);
+                case PRESET_BUILT:
+                    return BattleEventFormat.appendPresetBuilt(line, firstValues[slot], secondValues[slot],
+                            thirdValues[slot]);
+                default:
+                    return line.append(firstNames[slot]);
+            }
+        }
+    }
+}
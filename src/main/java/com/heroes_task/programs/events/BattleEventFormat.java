@@ -0,0 +1,35 @@
+package main.java.com.heroes_task.programs.events;
+
+/**
+ * Текстовое представление событий, совпадающее с прежним выводом в консоль.
+ */
+final class BattleEventFormat {
+
+    private BattleEventFormat() {
+    }
+
+    static StringBuilder appendAttack(StringBuilder line, String attackerName, String targetName, int targetHealth) {
+        return line.append("Атакующий: ").append(attackerName).append(" атакует цель: ").append(targetName)
+                .append(". Здоровье цели: ").append(targetHealth);
+    }
+
+    static StringBuilder appendDeath(StringBuilder line, String unitName) {
+        return line.append("Цель ").append(unitName).append(" была уничтожена");
+    }
+
+    static StringBuilder appendPathFound(StringBuilder line, int pathLength) {
+        if (pathLength == 0) {
+            return line.append("Путь не найден. Полностью заблокировано");
+        }
+        return line.append("Путь найден. Количество шагов: ").append(pathLength);
+    }
+
+    static StringBuilder appendUnitSelected(StringBuilder line, String unitName, int position) {
+        return line.append("Подходящий юнит: ").append(unitName).append(" в позиции ").append(position);
+    }
+
+    static StringBuilder appendPresetBuilt(StringBuilder line, int units, int points, int maxPoints) {
+        return line.append("Генерация армии завершена. Общее количество юнитов: ").append(units)
+                .append(". Использовано очков: ").append(points).append('/').append(maxPoints).append('.');
+    }
+}
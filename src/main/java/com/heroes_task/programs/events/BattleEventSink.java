@@ -0,0 +1,105 @@
+package main.java.com.heroes_task.programs.events;
+
+import com.battle.heroes.army.Army;
+import com.battle.heroes.army.Unit;
+
+/**
+ * Получатель типизированных событий боя и генерации армии.
+ * События передаются аргументами методов, без создания объектов событий.
+ * <p>
+ * Типизированные события не требуют выделения памяти и передаются всегда.
+ * Текстовые сообщения источник собирает, только если {@link #isMessageEnabled()},
+ * поэтому отключенный получатель {@link #NONE} не приводит ни к выделению памяти,
+ * ни к конкатенации строк.
+ */
+public interface BattleEventSink {
+
+    /**
+     * Получатель, отбрасывающий все события.
+     */
+    BattleEventSink NONE = new BattleEventSink() {
+        @Override
+        public boolean isMessageEnabled() {
+            return false;
+        }
+
+        @Override
+        public void onAttack(Unit attacker, Unit target) {
+        }
+
+        @Override
+        public void onDeath(Unit unit) {
+        }
+
+        @Override
+        public void onPathFound(Unit attacker, Unit target, int pathLength) {
+        }
+
+        @Override
+        public void onUnitSelected(Unit unit, int position) {
+        }
+
+        @Override
+        public void onPresetBuilt(Army army, int maxPoints) {
+        }
+
+        @Override
+        public void onMessage(String message) {
+        }
+    };
+
+    /**
+     * @return true, если получатель обрабатывает текстовые сообщения {@link #onMessage};
+     * false, если их можно не формировать.
+     */
+    default boolean isMessageEnabled() {
+        return true;
+    }
+
+    /**
+     * Атакующий нанес урон цели. Здоровье цели уже уменьшено.
+     *
+     * @param attacker Атакующий юнит.
+     * @param target   Цель атаки.
+     */
+    void onAttack(Unit attacker, Unit target);
+
+    /**
+     * Юнит погиб и удален из армии.
+     *
+     * @param unit Погибший юнит.
+     */
+    void onDeath(Unit unit);
+
+    /**
+     * Поиск пути завершен.
+     *
+     * @param attacker   Юнит, начинающий движение.
+     * @param target     Целевой юнит.
+     * @param pathLength Количество клеток пути; 0, если путь не найден.
+     */
+    void onPathFound(Unit attacker, Unit target, int pathLength);
+
+    /**
+     * Юнит выбран как подходящий для атаки.
+     *
+     * @param unit     Юнит.
+     * @param position Позиция юнита в строке.
+     */
+    void onUnitSelected(Unit unit, int position);
+
+    /**
+     * Генерация армии завершена.
+     *
+     * @param army      Сгенерированная армия.
+     * @param maxPoints Лимит очков.
+     */
+    void onPresetBuilt(Army army, int maxPoints);
+
+    /**
+     * Текстовое сообщение о ходе работы.
+     *
+     * @param message Сообщение.
+     */
+    void onMessage(String message);
+}
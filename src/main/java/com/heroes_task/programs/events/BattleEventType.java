@@ -0,0 +1,19 @@
+package main.java.com.heroes_task.programs.events;
+
+/**
+ * Типы событий боя и генерации армии.
+ */
+public enum BattleEventType {
+    /** Атака юнита. */
+    ATTACK,
+    /** Гибель юнита. */
+    DEATH,
+    /** Завершение поиска пути, в том числе неудачное. */
+    PATH_FOUND,
+    /** Выбор юнита, подходящего для атаки. */
+    UNIT_SELECTED,
+    /** Завершение генерации армии. */
+    PRESET_BUILT,
+    /** Текстовое сообщение о ходе работы. */
+    MESSAGE
+}
@@ -0,0 +1,63 @@
+package main.java.com.heroes_task.programs.events;
+
+import com.battle.heroes.army.Army;
+import com.battle.heroes.army.Unit;
+
+import java.io.PrintStream;
+
+/**
+ * Синхронный вывод событий в консоль в прежнем формате.
+ * Каждое событие печатается отдельной строкой в момент вызова.
+ */
+public class ConsoleBattleEventSink implements BattleEventSink {
+
+    private final PrintStream out;
+
+    /**
+     * Создает вывод в {@code System.out}.
+     */
+    public ConsoleBattleEventSink() {
+        this(System.out);
+    }
+
+    /**
+     * Создает вывод в заданный поток.
+     *
+     * @param out Поток вывода.
+     */
+    public ConsoleBattleEventSink(PrintStream out) {
+        this.out = out;
+    }
+
+    @Override
+    public void onAttack(Unit attacker, Unit target) {
+        out.println(BattleEventFormat.appendAttack(new StringBuilder(), attacker.getName(), target.getName(),
+                target.getHealth()));
+    }
+
+    @Override
+    public void onDeath(Unit unit) {
+        out.println(BattleEventFormat.appendDeath(new StringBuilder(), unit.getName()));
+    }
+
+    @Override
+    public void onPathFound(Unit attacker, Unit target, int pathLength) {
+        out.println(BattleEventFormat.appendPathFound(new StringBuilder(), pathLength));
+    }
+
+    @Override
+    public void onUnitSelected(Unit unit, int position) {
+        out.println(BattleEventFormat.appendUnitSelected(new StringBuilder(), unit.getName(), position));
+    }
+
+    @Override
+    public void onPresetBuilt(Army army, int maxPoints) {
+        out.println(BattleEventFormat.appendPresetBuilt(new StringBuilder(), army.getUnits().size(),
+                army.getPoints(), maxPoints));
+    }
+
+    @Override
+    public void onMessage(String message) {
+        out.println(message);
+    }
+}
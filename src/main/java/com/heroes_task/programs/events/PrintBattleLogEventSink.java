@@ -0,0 +1,51 @@
+package main.java.com.heroes_task.programs.events;
+
+import com.battle.heroes.army.Army;
+import com.battle.heroes.army.Unit;
+import com.battle.heroes.army.programs.PrintBattleLog;
+
+/**
+ * Адаптер {@link PrintBattleLog} к получателю событий: атаки передаются
+ * в {@link PrintBattleLog#printBattleLog}, остальные события игнорируются.
+ */
+public class PrintBattleLogEventSink implements BattleEventSink {
+
+    private final PrintBattleLog printBattleLog;
+
+    /**
+     * @param printBattleLog Реализация интерфейса PrintBattleLog.
+     */
+    public PrintBattleLogEventSink(PrintBattleLog printBattleLog) {
+        this.printBattleLog = printBattleLog;
+    }
+
+    @Override
+    public boolean isMessageEnabled() {
+        return false;
+    }
+
+    @Override
+    public void onAttack(Unit attacker, Unit target) {
+        printBattleLog.printBattleLog(attacker, target);
+    }
+
+    @Override
+    public void onDeath(Unit unit) {
+    }
+
+    @Override
+    public void onPathFound(Unit attacker, Unit target, int pathLength) {
+    }
+
+    @Override
+    public void onUnitSelected(Unit unit, int position) {
+    }
+
+    @Override
+    public void onPresetBuilt(Army army, int maxPoints) {
+    }
+
+    @Override
+    public void onMessage(String message) {
+    }
+}
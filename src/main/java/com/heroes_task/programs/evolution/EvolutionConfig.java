@@ -0,0 +1,150 @@
+package main.java.com.heroes_task.programs.evolution;
+
+import main.java.com.heroes_task.programs.batch.BatchBattleRunner;
+
+/**
+ * Параметры эволюционного поиска пресета.
+ * Поиск завершается по исчерпании количества поколений или бюджета времени —
+ * в зависимости от того, что наступит раньше.
+ */
+public class EvolutionConfig {
+    private int populationSize = 24;
+    private int generations = 20;
+    private long timeBudgetMillis = 0;
+    private int eliteCount = 2;
+    private int tournamentSize = 3;
+    private int battlesPerOpponent = 2;
+    private double mutationRate = 0.5;
+    private int maxRounds = BatchBattleRunner.DEFAULT_MAX_ROUNDS;
+    private long seed = System.nanoTime();
+
+    public int getPopulationSize() {
+        return populationSize;
+    }
+
+    /**
+     * @param populationSize Количество кандидатов в поколении; не меньше 2.
+     */
+    public void setPopulationSize(int populationSize) {
+        if (populationSize < 2) {
+            throw new IllegalArgumentException("Размер популяции должен быть не меньше 2: " + populationSize);
+        }
+        this.populationSize = populationSize;
+    }
+
+    public int getGenerations() {
+        return generations;
+    }
+
+    /**
+     * @param generations Максимальное количество поколений; не меньше 1.
+     */
+    public void setGenerations(int generations) {
+        if (generations < 1) {
+            throw new IllegalArgumentException("Количество поколений должно быть положительным: " + generations);
+        }
+        this.generations = generations;
+    }
+
+    public long getTimeBudgetMillis() {
+        return timeBudgetMillis;
+    }
+
+    /**
+     * Ограничивает время поиска. Бюджет проверяется между поколениями,
+     * первое поколение оценивается всегда.
+     *
+     * @param timeBudgetMillis Бюджет времени в миллисекундах; 0 — без ограничения.
+     */
+    public void setTimeBudgetMillis(long timeBudgetMillis) {
+        if (timeBudgetMillis < 0) {
+            throw new IllegalArgumentException("Бюджет времени не может быть отрицательным: " + timeBudgetMillis);
+        }
+        this.timeBudgetMillis = timeBudgetMillis;
+    }
+
+    public int getEliteCount() {
+        return eliteCount;
+    }
+
+    /**
+     * @param eliteCount Количество лучших кандидатов, переходящих в следующее поколение без изменений.
+     */
+    public void setEliteCount(int eliteCount) {
+        if (eliteCount < 0) {
+            throw new IllegalArgumentException("Количество элитных кандидатов не может быть отрицательным: " + eliteCount);
+        }
+        this.eliteCount = eliteCount;
+    }
+
+    public int getTournamentSize() {
+        return tournamentSize;
+    }
+
+    /**
+     * @param tournamentSize Количество кандидатов в турнире при выборе родителя; не меньше 1.
+     */
+    public void setTournamentSize(int tournamentSize) {
+        if (tournamentSize < 1) {
+            throw new IllegalArgumentException("Размер турнира должен быть положительным: " + tournamentSize);
+        }
+        this.tournamentSize = tournamentSize;
+    }
+
+    public int getBattlesPerOpponent() {
+        return battlesPerOpponent;
+    }
+
+    /**
+     * Бои случайны, поэтому против каждого противника кандидат играет несколько раз.
+     *
+     * @param battlesPerOpponent Количество боев кандидата против каждого противника; не меньше 1.
+     */
+    public void setBattlesPerOpponent(int battlesPerOpponent) {
+        if (battlesPerOpponent < 1) {
+            throw new IllegalArgumentException("Количество боев должно быть положительным: " + battlesPerOpponent);
+        }
+        this.battlesPerOpponent = battlesPerOpponent;
+    }
+
+    public double getMutationRate() {
+        return mutationRate;
+    }
+
+    /**
+     * @param mutationRate Вероятность мутации потомка, от 0 включительно до 1. После каждой мутации
+     *                     потомок мутирует еще раз с той же вероятностью.
+     */
+    public void setMutationRate(double mutationRate) {
+        if (!(mutationRate >= 0 && mutationRate < 1)) {
+            throw new IllegalArgumentException("Вероятность мутации должна быть в диапазоне [0, 1): " + mutationRate);
+        }
+        this.mutationRate = mutationRate;
+    }
+
+    public int getMaxRounds() {
+        return maxRounds;
+    }
+
+    /**
+     * @param maxRounds Лимит раундов одного боя; 0 — без ограничения.
+     */
+    public void setMaxRounds(int maxRounds) {
+        if (maxRounds < 0) {
+            throw new IllegalArgumentException("Лимит раундов не может быть отрицательным: " + maxRounds);
+        }
+        this.maxRounds = maxRounds;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * @param seed Зерно генератора случайных чисел эволюции. Бои оценки сами получают зерна заданий,
+     *             поэтому при одинаковом зерне и без ограничения по времени поиск воспроизводим.
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+}
@@ -0,0 +1,14 @@
+package main.java.com.heroes_task.programs.evolution;
+
+/**
+ * Получатель сводок эволюционного поиска. Вызывается в потоке поиска
+ * после оценки каждого поколения.
+ */
+@FunctionalInterface
+public interface EvolutionProgressListener {
+
+    /**
+     * @param report Сводка по оцененному поколению.
+     */
+    void onGeneration(GenerationReport report);
+}
@@ -0,0 +1,486 @@
+package main.java.com.heroes_task.programs.evolution;
+
+import com.battle.heroes.army.Army;
+import com.battle.heroes.army.Unit;
+import main.java.com.heroes_task.programs.AbstractPresetGenerator;
+import main.java.com.heroes_task.programs.BattlefieldGrid;
+import main.java.com.heroes_task.programs.GeneratePresetImpl;
+import main.java.com.heroes_task.programs.KnapsackGeneratePresetImpl;
+import main.java.com.heroes_task.programs.PresetObjective;
+import main.java.com.heroes_task.programs.batch.BatchBattleRunner;
+import main.java.com.heroes_task.programs.batch.BattleJob;
+import main.java.com.heroes_task.programs.batch.BattleStatistics;
+import main.java.com.heroes_task.programs.events.BattleEventSink;
+import main.java.com.heroes_task.programs.events.ConsoleBattleEventSink;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+
+import static main.java.com.heroes_task.programs.evolution.PresetGenome.CELLS;
+import static main.java.com.heroes_task.programs.evolution.PresetGenome.EMPTY;
+
+/**
+ * Генератор армии эволюционным поиском по результатам симулированных боев.
+ * Кандидат — состав армии вместе с расстановкой в зоне развертывания 3x21.
+ * Каждое поколение играет против пула противников через {@link BatchBattleRunner}
+ * на всех ядрах; приспособленность кандидата — доля побед, ничья считается
+ * половиной победы. Чтобы различать кандидатов с одинаковой долей побед, к ней
+ * добавляется разность оставшегося здоровья сторон, нормированная так, что
+ * поправка меньше четверти одной победы, то есть половины одной ничьей.
+ * Следующее поколение строится из лучших кандидатов (элиты) и потомков,
+ * полученных турнирным отбором, скрещиванием и мутациями.
+ * <p>
+ * Начальная популяция включает решения {@link KnapsackGeneratePresetImpl} для нескольких
+ * целевых функций и {@link GeneratePresetImpl}, остальные кандидаты случайны.
+ * Все кандидаты соблюдают лимит очков и не более {@value #MAX_UNITS_PER_TYPE}
+ * юнитов одного типа.
+ * <p>
+ * Генерируется армия компьютера (левая сторона поля), противники из пула
+ * должны быть расставлены как армия игрока — с координатами x от 24 до 26.
+ */
+public class EvolutionaryGeneratePresetImpl extends AbstractPresetGenerator {
+    private static final int MUTATIONS = 5; // Количество видов мутаций
+
+    private final List<Army> opponents;
+    private final EvolutionConfig config;
+    private final BatchBattleRunner batchBattleRunner;
+    private EvolutionProgressListener progressListener;
+
+    /**
+     * Создает генератор на общем пуле ForkJoin с выводом хода поиска в консоль.
+     *
+     * @param opponents Пул армий противника.
+     * @param config    Параметры поиска.
+     */
+    public EvolutionaryGeneratePresetImpl(List<Army> opponents, EvolutionConfig config) {
+        this(opponents, config, new BatchBattleRunner(ForkJoinPool.commonPool(), config.getMaxRounds()),
+                new ConsoleBattleEventSink());
+    }
+
+    /**
+     * Создает генератор.
+     *
+     * @param opponents         Пул армий противника.
+     * @param config            Параметры поиска.
+     * @param batchBattleRunner Пакетный прогон, на котором оцениваются кандидаты.
+     * @param eventSink         Получатель событий поиска.
+     */
+    public EvolutionaryGeneratePresetImpl(List<Army> opponents, EvolutionConfig config,
+                                          BatchBattleRunner batchBattleRunner, BattleEventSink eventSink) {
+        super(eventSink);
+        if (opponents.isEmpty()) {
+            throw new IllegalArgumentException("Пул противников пуст");
+        }
+        this.opponents = List.copyOf(opponents);
+        this.config = config;
+        this.batchBattleRunner = batchBattleRunner;
+    }
+
+    /**
+     * Устанавливает получателя сводок по поколениям.
+     *
+     * @param progressListener Получатель сводок или null.
+     */
+    public void setProgressListener(EvolutionProgressListener progressListener) {
+        this.progressListener = progressListener;
+    }
+
+    /**
+     * Геном пресета и оценка боями рассчитаны на поле игры, поэтому другое поле не принимается.
+     *
+     * @param battlefield Размеры поля; только {@link BattlefieldGrid#DEFAULT}.
+     */
+    @Override
+    public void setBattlefield(BattlefieldGrid battlefield) {
+        if (battlefield != null && !battlefield.isDefault()) {
+            throw new IllegalArgumentException("Эволюционный генератор поддерживает только поле по умолчанию: "
+                    + battlefield);
+        }
+        super.setBattlefield(battlefield);
+    }
+
+    /**
+     * Ищет армию, чаще всего побеждающую пул противников.
+     *
+     * @param unitList  Список доступных юнитов.
+     * @param maxPoints Максимальное количество очков для армии.
+     * @return Лучшая армия последнего оцененного поколения.
+     * @throws CancellationException Если поток поиска прерван.
+     * @complexity Временная сложность: O(G * S * K * T / P), где G — количество поколений, S — размер популяции,
+     * K — количество боев кандидата, T — стоимость одного боя, P — параллелизм пула.
+     */
+    @Override
+    public Army generate(List<Unit> unitList, int maxPoints) {
+        if (unitList.size() > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("Слишком много типов юнитов: " + unitList.size());
+        }
+        log("Начало эволюционного поиска армии...");
+        long startTime = System.nanoTime();
+        SplittableRandom random = new SplittableRandom(config.getSeed());
+        int[] costs = new int[unitList.size()];
+        for (int i = 0; i < costs.length; i++) {
+            costs[i] = unitList.get(i).getCost();
+        }
+
+        double opponentsHealth = 0;
+        for (Army opponent : opponents) {
+            opponentsHealth += totalHealth(opponent);
+        }
+        opponentsHealth /= opponents.size(); // Среднее здоровье армии противника
+
+        List<PresetGenome> population = createInitialPopulation(unitList, costs, maxPoints, random);
+        long battles = 0;
+        for (int generation = 0; ; generation++) {
+            battles += evaluate(population, unitList, opponentsHealth);
+            population.sort(Comparator.comparingDouble((PresetGenome genome) -> genome.fitness).reversed());
+            report(population, generation, battles, startTime);
+
+            long elapsedMillis = (System.nanoTime() - startTime) / 1_000_000;
+            if (generation + 1 >= config.getGenerations()
+                    || config.getTimeBudgetMillis() > 0 && elapsedMillis >= config.getTimeBudgetMillis()) {
+                break;
+            }
+            population = createNextGeneration(population, costs, maxPoints, random);
+        }
+
+        Army computerArmy = toArmy(population.get(0), unitList);
+        if (isLoggingEnabled()) {
+            log("Эволюционный поиск завершен. Приспособленность: " + population.get(0).fitness + ".");
+        }
+        presetBuilt(computerArmy, maxPoints);
+        return computerArmy;
+    }
+
+    /**
+     * Создает начальную популяцию из решений детерминированных генераторов и случайных кандидатов.
+     *
+     * @complexity Временная сложность: O(S * CELLS + n * P), где S — размер популяции,
+     * n — количество типов юнитов, P — лимит очков.
+     */
+    private List<PresetGenome> createInitialPopulation(List<Unit> unitList, int[] costs, int maxPoints, SplittableRandom random) {
+        List<Unit> opponentUnits = new ArrayList<>();
+        for (Army opponent : opponents) {
+            opponentUnits.addAll(opponent.getUnits());
+        }
+        List<PresetGenome> population = new ArrayList<>(config.getPopulationSize());
+        for (PresetObjective objective : List.of(PresetObjective.attack(),
+                PresetObjective.effectiveHealthAgainst(opponentUnits), PresetObjective.bonusDamageAgainst(opponentUnits))) {
+            int[] counts = new KnapsackGeneratePresetImpl(objective, false).calculateUnitCounts(unitList, maxPoints);
+            population.add(placeRandomly(counts, random));
+        }
+        GeneratePresetImpl greedy = new GeneratePresetImpl(false);
+        greedy.setRandom(random.split());
+        population.add(fromArmy(greedy.generate(unitList, maxPoints), unitList));
+
+        while (population.size() > config.getPopulationSize()) {
+            population.remove(population.size() - 1);
+        }
+        while (population.size() < config.getPopulationSize()) {
+            population.add(createRandomGenome(costs, maxPoints, random));
+        }
+        return population;
+    }
+
+    /**
+     * Строит следующее поколение: элита переходит без изменений, остальные места
+     * занимают потомки турнирного отбора.
+     *
+     * @param population Оцененная популяция, отсортированная по убыванию приспособленности.
+     * @complexity Временная сложность: O(S * (CELLS + K)), где S — размер популяции, K — размер турнира.
+     */
+    private List<PresetGenome> createNextGeneration(List<PresetGenome> population, int[] costs, int maxPoints,
+                                                    SplittableRandom random) {
+        List<PresetGenome> next = new ArrayList<>(population.size());
+        int elite = Math.min(config.getEliteCount(), population.size());
+        for (int i = 0; i < elite; i++) {
+            next.add(population.get(i));
+        }
+        while (next.size() < population.size()) {
+            PresetGenome child = crossover(select(population, random), select(population, random), random);
+            while (random.nextDouble() < config.getMutationRate()) {
+                mutate(child, costs.length, random);
+            }
+            repair(child, costs, maxPoints, random);
+            next.add(child);
+        }
+        return next;
+    }
+
+    /**
+     * Оценивает всех кандидатов популяции против пула противников.
+     *
+     * @param opponentsHealth Среднее суммарное здоровье армии противника.
+     * @return Количество сыгранных боев.
+     * @complexity Временная сложность: O(S * K * T / P), где S — размер популяции, K — количество боев кандидата,
+     * T — стоимость одного боя, P — параллелизм пула.
+     */
+    private long evaluate(List<PresetGenome> population, List<Unit> unitList, double opponentsHealth) {
+        List<List<BattleJob>> groups = new ArrayList<>(population.size());
+        double[] totalHealth = new double[population.size()];
+        long seed = 0;
+        for (int i = 0; i < population.size(); i++) {
+            Army candidate = toArmy(population.get(i), unitList);
+            totalHealth[i] = opponentsHealth + totalHealth(candidate);
+            List<BattleJob> jobs = new ArrayList<>(opponents.size() * config.getBattlesPerOpponent());
+            for (Army opponent : opponents) {
+                for (int battle = 0; battle < config.getBattlesPerOpponent(); battle++) {
+                    jobs.add(new BattleJob(opponent, candidate, seed++));
+                }
+            }
+            groups.add(jobs);
+        }
+
+        List<BattleStatistics> statistics;
+        try {
+            statistics = batchBattleRunner.runGroups(groups);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Эволюционный поиск прерван");
+        }
+        long battles = 0;
+        for (int i = 0; i < population.size(); i++) {
+            BattleStatistics candidate = statistics.get(i);
+            double margin = (candidate.getComputerSurvivingHealth() - candidate.getPlayerSurvivingHealth())
+                    / (double) candidate.getBattles() / Math.max(1.0, totalHealth[i]); // От -1 до 1
+            population.get(i).fitness = (candidate.getComputerWins() + 0.5 * candidate.getDraws() + margin / 4)
+                    / candidate.getBattles();
+            battles += candidate.getBattles();
+        }
+        return battles;
+    }
+
+    /**
+     * Выбирает родителя турниром: лучший из нескольких случайных кандидатов.
+     *
+     * @complexity Временная сложность: O(K), где K — размер турнира.
+     */
+    private PresetGenome select(List<PresetGenome> population, SplittableRandom random) {
+        PresetGenome best = population.get(random.nextInt(population.size()));
+        for (int i = 1; i < config.getTournamentSize(); i++) {
+            PresetGenome contender = population.get(random.nextInt(population.size()));
+            if (contender.fitness > best.fitness) {
+                best = contender;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Скрещивает родителей: строки зоны развертывания до случайной границы берутся
+     * от первого родителя, остальные — от второго. Так сохраняются удачные
+     * фрагменты построения обоих родителей.
+     *
+     * @complexity Временная сложность: O(CELLS).
+     */
+    private PresetGenome crossover(PresetGenome first, PresetGenome second, SplittableRandom random) {
+        PresetGenome child = new PresetGenome(first);
+        int border = random.nextInt(DEPLOYMENT_HEIGHT + 1);
+        for (int cell = 0; cell < CELLS; cell++) {
+            if (cell % DEPLOYMENT_HEIGHT >= border) {
+                child.cells[cell] = second.cells[cell];
+            }
+        }
+        return child;
+    }
+
+    /**
+     * Применяет к кандидату одну случайную мутацию: перемещение юнита, обмен клеток,
+     * добавление, удаление или смену типа юнита. Ограничения восстанавливает {@link #repair}.
+     *
+     * @complexity Временная сложность: O(1).
+     */
+    private void mutate(PresetGenome genome, int unitTypes, SplittableRandom random) {
+        byte[] cells = genome.cells;
+        int cell = random.nextInt(CELLS);
+        int other = random.nextInt(CELLS);
+        switch (random.nextInt(MUTATIONS)) {
+            case 0: // Перемещение юнита в свободную клетку
+                if (cells[cell] != EMPTY && cells[other] == EMPTY) {
+                    cells[other] = cells[cell];
+                    cells[cell] = EMPTY;
+                }
+                break;
+            case 1: // Обмен содержимого двух клеток
+                byte swapped = cells[cell];
+                cells[cell] = cells[other];
+                cells[other] = swapped;
+                break;
+            case 2: // Добавление юнита
+                if (cells[cell] == EMPTY) {
+                    cells[cell] = (byte) random.nextInt(unitTypes);
+                }
+                break;
+            case 3: // Удаление юнита
+                cells[cell] = EMPTY;
+                break;
+            default: // Смена типа юнита
+                if (cells[cell] != EMPTY) {
+                    cells[cell] = (byte) random.nextInt(unitTypes);
+                }
+                break;
+        }
+    }
+
+    /**
+     * Удаляет случайных юнитов, пока кандидат не уложится в лимит очков
+     * и ограничение на количество юнитов одного типа.
+     *
+     * @complexity Временная сложность: O(CELLS).
+     */
+    private void repair(PresetGenome genome, int[] costs, int maxPoints, SplittableRandom random) {
+        byte[] cells = genome.cells;
+        int[] counts = genome.countUnits(costs.length);
+        int cost = genome.cost(costs);
+        int[] occupied = new int[CELLS];
+        int size = 0;
+        for (int cell = 0; cell < CELLS; cell++) {
+            if (cells[cell] != EMPTY) {
+                occupied[size++] = cell;
+            }
+        }
+        int offset = random.nextInt(CELLS);
+        for (int i = 0; i < size && (cost > maxPoints || exceedsLimit(counts)); i++) {
+            int cell = occupied[(offset + i) % size];
+            int type = cells[cell];
+            if (cost > maxPoints || counts[type] > MAX_UNITS_PER_TYPE) {
+                cells[cell] = EMPTY;
+                counts[type]--;
+                cost -= costs[type];
+            }
+        }
+    }
+
+    private static boolean exceedsLimit(int[] counts) {
+        for (int count : counts) {
+            if (count > MAX_UNITS_PER_TYPE) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Создает случайного кандидата: юниты случайных типов добавляются,
+     * пока хватает очков и свободных клеток.
+     *
+     * @complexity Временная сложность: O(CELLS * n), где n — количество типов юнитов.
+     */
+    private PresetGenome createRandomGenome(int[] costs, int maxPoints, SplittableRandom random) {
+        int[] counts = new int[costs.length];
+        int[] affordable = new int[costs.length];
+        int points = maxPoints;
+        for (int units = 0; units < CELLS; units++) {
+            int size = 0;
+            for (int type = 0; type < costs.length; type++) {
+                if (costs[type] <= points && counts[type] < MAX_UNITS_PER_TYPE) {
+                    affordable[size++] = type;
+                }
+            }
+            if (size == 0) {
+                break;
+            }
+            int type = affordable[random.nextInt(size)];
+            counts[type]++;
+            points -= costs[type];
+        }
+        return placeRandomly(counts, random);
+    }
+
+    /**
+     * Расставляет заданное количество юнитов каждого типа в случайные клетки.
+     *
+     * @complexity Временная сложность: O(CELLS).
+     */
+    private PresetGenome placeRandomly(int[] counts, SplittableRandom random) {
+        int[] order = new int[CELLS];
+        for (int i = 0; i < CELLS; i++) {
+            order[i] = i;
+        }
+        PresetGenome genome = new PresetGenome();
+        int next = 0;
+        for (int type = 0; type < counts.length; type++) {
+            for (int i = 0; i < counts[type] && next < CELLS; i++, next++) {
+                int j = next + random.nextInt(CELLS - next); // Частичное перемешивание Фишера — Йетса
+                int cell = order[j];
+                order[j] = order[next];
+                order[next] = cell;
+                genome.cells[cell] = (byte) type;
+            }
+        }
+        return genome;
+    }
+
+    /**
+     * Переводит армию, сгенерированную другим генератором, в кандидата.
+     *
+     * @complexity Временная сложность: O(N * n), где N — количество юнитов армии, n — количество типов юнитов.
+     */
+    private PresetGenome fromArmy(Army army, List<Unit> unitList) {
+        PresetGenome genome = new PresetGenome();
+        for (Unit unit : army.getUnits()) {
+            for (int type = 0; type < unitList.size(); type++) {
+                if (unitList.get(type).getUnitType().equals(unit.getUnitType())) {
+                    genome.cells[unit.getxCoordinate() * DEPLOYMENT_HEIGHT + unit.getyCoordinate()] = (byte) type;
+                    break;
+                }
+            }
+        }
+        return genome;
+    }
+
+    /**
+     * Создает армию по кандидату.
+     *
+     * @complexity Временная сложность: O(CELLS).
+     */
+    private Army toArmy(PresetGenome genome, List<Unit> unitList) {
+        int[] counts = new int[unitList.size()];
+        List<Unit> units = new ArrayList<>();
+        int points = 0;
+        for (int cell = 0; cell < CELLS; cell++) {
+            int type = genome.cells[cell];
+            if (type != EMPTY) {
+                Unit prototype = unitList.get(type);
+                Unit unit = createNewUnit(prototype, counts[type]++);
+                unit.setxCoordinate(cell / DEPLOYMENT_HEIGHT);
+                unit.setyCoordinate(cell % DEPLOYMENT_HEIGHT);
+                units.add(unit);
+                points += prototype.getCost();
+            }
+        }
+        Army army = new Army(units);
+        army.setPoints(points);
+        return army;
+    }
+
+    private static int totalHealth(Army army) {
+        int health = 0;
+        for (Unit unit : army.getUnits()) {
+            health += unit.getHealth();
+        }
+        return health;
+    }
+
+    /**
+     * Передает сводку по поколению получателю и выводит ее в консоль.
+     */
+    private void report(List<PresetGenome> population, int generation, long battles, long startTime) {
+        double total = 0;
+        for (PresetGenome genome : population) {
+            total += genome.fitness;
+        }
+        GenerationReport report = new GenerationReport(generation, population.get(0).fitness,
+                total / population.size(), population.get(population.size() - 1).fitness,
+                battles, (System.nanoTime() - startTime) / 1_000_000);
+        if (isLoggingEnabled()) {
+            log(report.toString());
+        }
+        if (progressListener != null) {
+            progressListener.onGeneration(report);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package main.java.com.heroes_task.programs.evolution;
+
+/**
+ * Сводка по одному оцененному поколению эволюционного поиска.
+ * Приспособленность кандидата — доля побед против пула противников,
+ * ничья засчитывается как половина победы; небольшая поправка на оставшееся
+ * здоровье различает кандидатов с одинаковой долей побед.
+ */
+public final class GenerationReport {
+
+    private final int generation;
+    private final double bestFitness;
+    private final double averageFitness;
+    private final double worstFitness;
+    private final long battles;
+    private final long elapsedMillis;
+
+    /**
+     * @param generation     Номер поколения, начиная с 0.
+     * @param bestFitness    Лучшая приспособленность в поколении.
+     * @param averageFitness Средняя приспособленность в поколении.
+     * @param worstFitness   Худшая приспособленность в поколении.
+     * @param battles        Количество боев, сыгранных с начала поиска.
+     * @param elapsedMillis  Время с начала поиска в миллисекундах.
+     */
+    public GenerationReport(int generation, double bestFitness, double averageFitness, double worstFitness,
+                            long battles, long elapsedMillis) {
+        this.generation = generation;
+        this.bestFitness = bestFitness;
+        this.averageFitness = averageFitness;
+        this.worstFitness = worstFitness;
+        this.battles = battles;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public int getGeneration() {
+        return generation;
+    }
+
+    public double getBestFitness() {
+        return bestFitness;
+    }
+
+    public double getAverageFitness() {
+        return averageFitness;
+    }
+
+    public double getWorstFitness() {
+        return worstFitness;
+    }
+
+    public long getBattles() {
+        return battles;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Поколение %d: лучшая %.3f, средняя %.3f, худшая %.3f; боев %d, %d мс",
+                generation, bestFitness, averageFitness, worstFitness, battles, elapsedMillis);
+    }
+}
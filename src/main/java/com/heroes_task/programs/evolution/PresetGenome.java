@@ -0,0 +1,58 @@
+package main.java.com.heroes_task.programs.evolution;
+
+import java.util.Arrays;
+
+import static main.java.com.heroes_task.programs.AbstractPresetGenerator.DEPLOYMENT_CELLS;
+
+/**
+ * Кандидат эволюционного поиска: расстановка юнитов в зоне развертывания.
+ * Клетка {@code x * DEPLOYMENT_HEIGHT + y} хранит индекс прототипа юнита
+ * или {@link #EMPTY}, поэтому количество юнитов каждого типа и их позиции
+ * задаются одним массивом, а в одной клетке не может оказаться двух юнитов.
+ */
+final class PresetGenome {
+    static final int CELLS = DEPLOYMENT_CELLS; // Количество клеток зоны развертывания
+    static final byte EMPTY = -1;
+
+    final byte[] cells;
+    double fitness;
+
+    PresetGenome() {
+        this.cells = new byte[CELLS];
+        Arrays.fill(cells, EMPTY);
+    }
+
+    PresetGenome(PresetGenome parent) {
+        this.cells = parent.cells.clone();
+    }
+
+    /**
+     * @param unitTypes Количество прототипов юнитов.
+     * @return Количество юнитов каждого прототипа.
+     * @complexity Временная сложность: O(CELLS).
+     */
+    int[] countUnits(int unitTypes) {
+        int[] counts = new int[unitTypes];
+        for (byte cell : cells) {
+            if (cell != EMPTY) {
+                counts[cell]++;
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * @param costs Стоимости прототипов юнитов.
+     * @return Суммарная стоимость армии.
+     * @complexity Временная сложность: O(CELLS).
+     */
+    int cost(int[] costs) {
+        int cost = 0;
+        for (byte cell : cells) {
+            if (cell != EMPTY) {
+                cost += costs[cell];
+            }
+        }
+        return cost;
+    }
+}
@@ -0,0 +1,152 @@
+package main.java.com.heroes_task.programs.metrics;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Счетчики и гистограммы горячих путей: поиска пути, поиска целей, симуляции боя
+ * и генерации армии.
+ * <p>
+ * Один экземпляр разделяется всеми боями и потоками: счетчики — {@link LongAdder},
+ * гистограммы — {@link Histogram}. Метрики подключаются к компонентам через
+ * {@code setMetrics}; без них компоненты выполняют только проверку на null,
+ * поэтому отключенные метрики ничего не стоят.
+ * <p>
+ * Значения читаются снимком {@link #snapshot()} или через JMX ({@link #registerMBean}).
+ */
+public final class BattleMetrics {
+
+    private static final long MAX_CELLS = 1 << 16; // Предел гистограмм по клеткам поля
+    private static final long MAX_UNITS = 1 << 16; // Предел гистограмм по юнитам и ходам
+    private static final long MAX_LATENCY_NANOS = 60_000_000_000L; // Предел гистограммы длительности хода
+    private static final long PERMILLE = 1000;
+
+    private final LongAdder pathSearches = new LongAdder();
+    private final LongAdder suitableUnitScans = new LongAdder();
+    private final LongAdder battles = new LongAdder();
+    private final LongAdder turns = new LongAdder();
+    private final LongAdder presets = new LongAdder();
+    private final Histogram pathNodesExpanded = new Histogram(MAX_CELLS);
+    private final Histogram pathLength = new Histogram(MAX_CELLS);
+    private final Histogram pathSearchesPerTurn = new Histogram(MAX_UNITS);
+    private final Histogram candidatesScanned = new Histogram(MAX_UNITS);
+    private final Histogram turnsPerBattle = new Histogram(MAX_UNITS);
+    private final Histogram turnLatencyNanos = new Histogram(MAX_LATENCY_NANOS);
+    private final Histogram pointsUtilizationPermille = new Histogram(PERMILLE);
+    private final ThreadLocal<long[]> threadPathSearches = ThreadLocal.withInitial(() -> new long[1]);
+
+    /**
+     * Учитывает один поиск пути.
+     *
+     * @param nodesExpanded Количество раскрытых клеток.
+     * @param length        Количество клеток пути; 0, если путь не найден.
+     * @complexity Временная сложность: O(1).
+     */
+    public void recordPathSearch(int nodesExpanded, int length) {
+        pathSearches.increment();
+        threadPathSearches.get()[0]++;
+        pathNodesExpanded.record(nodesExpanded);
+        pathLength.record(length);
+    }
+
+    /**
+     * Учитывает один поиск подходящих для атаки юнитов.
+     *
+     * @param scanned Количество просмотренных юнитов или клеток.
+     * @complexity Временная сложность: O(1).
+     */
+    public void recordSuitableUnitScan(int scanned) {
+        suitableUnitScans.increment();
+        candidatesScanned.record(scanned);
+    }
+
+    /**
+     * @return Количество поисков пути, выполненных текущим потоком. Бой выполняется
+     * в одном потоке, поэтому разность двух значений — поиски пути одного хода.
+     */
+    public long getThreadPathSearches() {
+        return threadPathSearches.get()[0];
+    }
+
+    /**
+     * Учитывает один ход армии.
+     *
+     * @param latencyNanos Длительность хода в наносекундах.
+     * @param searches     Количество поисков пути за ход.
+     * @complexity Временная сложность: O(1).
+     */
+    public void recordTurn(long latencyNanos, long searches) {
+        turns.increment();
+        turnLatencyNanos.record(Math.max(0, latencyNanos));
+        pathSearchesPerTurn.record(searches);
+    }
+
+    /**
+     * Учитывает завершенный бой.
+     *
+     * @param battleTurns Количество ходов армий в бою.
+     * @complexity Временная сложность: O(1).
+     */
+    public void recordBattle(int battleTurns) {
+        battles.increment();
+        turnsPerBattle.record(battleTurns);
+    }
+
+    /**
+     * Учитывает сгенерированную армию.
+     *
+     * @param usedPoints Очки, потраченные на армию.
+     * @param maxPoints  Лимит очков.
+     * @complexity Временная сложность: O(1).
+     */
+    public void recordPreset(int usedPoints, int maxPoints) {
+        presets.increment();
+        pointsUtilizationPermille.record(maxPoints <= 0 ? 0 : Math.min(PERMILLE, usedPoints * PERMILLE / maxPoints));
+    }
+
+    /**
+     * Снимает текущие значения всех метрик.
+     *
+     * @return Снимок метрик.
+     * @complexity Временная сложность: O(B), где B — суммарное количество корзин гистограмм.
+     */
+    public MetricsSnapshot snapshot() {
+        Map<String, Long> counters = new LinkedHashMap<>();
+        counters.put("pathSearches", pathSearches.sum());
+        counters.put("suitableUnitScans", suitableUnitScans.sum());
+        counters.put("battles", battles.sum());
+        counters.put("turns", turns.sum());
+        counters.put("presets", presets.sum());
+        Map<String, HistogramSnapshot> histograms = new LinkedHashMap<>();
+        histograms.put("pathNodesExpanded", pathNodesExpanded.snapshot());
+        histograms.put("pathLength", pathLength.snapshot());
+        histograms.put("pathSearchesPerTurn", pathSearchesPerTurn.snapshot());
+        histograms.put("candidatesScanned", candidatesScanned.snapshot());
+        histograms.put("turnsPerBattle", turnsPerBattle.snapshot());
+        histograms.put("turnLatencyNanos", turnLatencyNanos.snapshot());
+        histograms.put("pointsUtilizationPermille", pointsUtilizationPermille.snapshot());
+        return new MetricsSnapshot(counters, histograms);
+    }
+
+    /**
+     * Регистрирует метрики в платформенном сервере MBean под именем
+     * {@code heroes_task:type=BattleMetrics,name=<name>}.
+     *
+     * @param name Имя экземпляра метрик.
+     * @return Имя зарегистрированного MBean.
+     * @throws IllegalStateException Если MBean не удалось зарегистрировать.
+     */
+    public ObjectName registerMBean(String name) {
+        try {
+            ObjectName objectName = new ObjectName("heroes_task:type=BattleMetrics,name=" + ObjectName.quote(name));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new BattleMetricsView(this), objectName);
+            return objectName;
+        } catch (JMException e) {
+            throw new IllegalStateException("Не удалось зарегистрировать метрики в JMX: " + name, e);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package main.java.com.heroes_task.programs.metrics;
+
+import java.util.Map;
+
+/**
+ * Представление {@link BattleMetrics} для JMX. Гистограммы отдаются сводкой:
+ * ключи вида {@code <имя>.count}, {@code .mean}, {@code .p50}, {@code .p90}, {@code .p99}, {@code .max}.
+ */
+public interface BattleMetricsMXBean {
+
+    /**
+     * @return Счетчики по именам.
+     */
+    Map<String, Long> getCounters();
+
+    /**
+     * @return Сводка гистограмм по ключам {@code <имя>.<статистика>}.
+     */
+    Map<String, Double> getHistograms();
+}
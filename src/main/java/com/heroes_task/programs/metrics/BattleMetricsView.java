@@ -0,0 +1,35 @@
+package main.java.com.heroes_task.programs.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * MBean метрик: каждое чтение атрибута снимает метрики заново.
+ */
+final class BattleMetricsView implements BattleMetricsMXBean {
+
+    private final BattleMetrics metrics;
+
+    BattleMetricsView(BattleMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Map<String, Long> getCounters() {
+        return metrics.snapshot().getCounters();
+    }
+
+    @Override
+    public Map<String, Double> getHistograms() {
+        Map<String, Double> summary = new LinkedHashMap<>();
+        metrics.snapshot().getHistograms().forEach((name, histogram) -> {
+            summary.put(name + ".count", (double) histogram.getCount());
+            summary.put(name + ".mean", histogram.getMean());
+            summary.put(name + ".p50", (double) histogram.getValueAtPercentile(50));
+            summary.put(name + ".p90", (double) histogram.getValueAtPercentile(90));
+            summary.put(name + ".p99", (double) histogram.getValueAtPercentile(99));
+            summary.put(name + ".max", (double) histogram.getMax());
+        });
+        return summary;
+    }
+}
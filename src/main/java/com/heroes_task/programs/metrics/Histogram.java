@@ -0,0 +1,93 @@
+package main.java.com.heroes_task.programs.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Потокобезопасная гистограмма неотрицательных значений с логарифмически-линейными
+ * корзинами, как в HdrHistogram: значения меньше 16 хранятся точно, каждый следующий
+ * интервал [2^k, 2^(k+1)) делится на 16 равных корзин. Относительная погрешность
+ * квантилей не превышает 1/16.
+ * <p>
+ * Каждая корзина — отдельный {@link LongAdder}, поэтому запись из многих потоков
+ * не упирается в одну ячейку памяти. Значения больше наибольшего отслеживаемого
+ * попадают в последнюю корзину; максимум хранится точно.
+ */
+public final class Histogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS; // Корзин на один интервал [2^k, 2^(k+1))
+
+    private final long highestTrackableValue;
+    private final LongAdder[] buckets;
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * @param highestTrackableValue Наибольшее значение, которое различает гистограмма.
+     */
+    public Histogram(long highestTrackableValue) {
+        if (highestTrackableValue < 1) {
+            throw new IllegalArgumentException("Наибольшее значение гистограммы должно быть положительным: "
+                    + highestTrackableValue);
+        }
+        this.highestTrackableValue = highestTrackableValue;
+        this.buckets = new LongAdder[indexOf(highestTrackableValue) + 1];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Учитывает значение.
+     *
+     * @param value Неотрицательное значение.
+     * @complexity Временная сложность: O(1).
+     */
+    public void record(long value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Значение гистограммы не может быть отрицательным: " + value);
+        }
+        buckets[indexOf(Math.min(value, highestTrackableValue))].increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    /**
+     * Снимает текущие значения гистограммы. Запись в это время не блокируется,
+     * поэтому снимок может частично включать одновременные записи.
+     *
+     * @return Снимок гистограммы.
+     * @complexity Временная сложность: O(B), где B — количество корзин.
+     */
+    public HistogramSnapshot snapshot() {
+        long[] counts = new long[buckets.length];
+        for (int i = 0; i < buckets.length; i++) {
+            counts[i] = buckets[i].sum();
+        }
+        return new HistogramSnapshot(counts, sum.sum(), max.get());
+    }
+
+    /**
+     * @return Номер корзины значения.
+     */
+    static int indexOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return ((shift + 1) << SUB_BUCKET_BITS) + (int) ((value >>> shift) - SUB_BUCKETS);
+    }
+
+    /**
+     * @return Наибольшее значение, попадающее в корзину.
+     */
+    static long highestValueOf(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = (index >>> SUB_BUCKET_BITS) - 1;
+        long lowest = (long) (SUB_BUCKETS + (index & (SUB_BUCKETS - 1))) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,61 @@
+package main.java.com.heroes_task.programs.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Неизменяемый снимок {@link BattleMetrics}: счетчики и гистограммы по именам
+ * в фиксированном порядке.
+ */
+public final class MetricsSnapshot {
+
+    private final Map<String, Long> counters;
+    private final Map<String, HistogramSnapshot> histograms;
+
+    MetricsSnapshot(Map<String, Long> counters, Map<String, HistogramSnapshot> histograms) {
+        this.counters = Collections.unmodifiableMap(counters);
+        this.histograms = Collections.unmodifiableMap(histograms);
+    }
+
+    public Map<String, Long> getCounters() {
+        return counters;
+    }
+
+    public Map<String, HistogramSnapshot> getHistograms() {
+        return histograms;
+    }
+
+    /**
+     * @param name Имя счетчика.
+     * @return Значение счетчика.
+     * @throws IllegalArgumentException Если счетчика нет.
+     */
+    public long getCounter(String name) {
+        Long value = counters.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException("Неизвестный счетчик: " + name);
+        }
+        return value;
+    }
+
+    /**
+     * @param name Имя гистограммы.
+     * @return Снимок гистограммы.
+     * @throws IllegalArgumentException Если гистограммы нет.
+     */
+    public HistogramSnapshot getHistogram(String name) {
+        HistogramSnapshot histogram = histograms.get(name);
+        if (histogram == null) {
+            throw new IllegalArgumentException("Неизвестная гистограмма: " + name);
+        }
+        return histogram;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        counters.forEach((name, value) -> builder.append(name).append(": ").append(value).append('\n'));
+        histograms.forEach((name, value) -> builder.append(name).append(": ").append(value).append('\n'));
+        return builder.toString();
+    }
+}
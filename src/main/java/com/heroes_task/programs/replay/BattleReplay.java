@@ -0,0 +1,160 @@
+package main.java.com.heroes_task.programs.replay;
+
+import main.java.com.heroes_task.programs.BattleOutcome;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Записанный бой, читаемый из отображенного в память файла повторов.
+ * Начальная расстановка разбирается при открытии; ходы читаются по таблице
+ * смещений, поэтому переход к любому ходу выполняется за O(1).
+ */
+public final class BattleReplay {
+
+    private final ByteBuffer buffer;
+    private final long seed;
+    private final BattleOutcome outcome;
+    private final int rounds;
+    private final List<ReplayUnit> units;
+    private final int turnCount;
+    private final int turnTable;
+
+    /**
+     * Разбирает запись боя.
+     *
+     * @param buffer Содержимое записи боя после поля длины.
+     *
+     * Сложность: O(n), где n — количество юнитов.
+     */
+    BattleReplay(ByteBuffer buffer) {
+        this.buffer = buffer;
+        int position = 0;
+        this.seed = buffer.getLong(position);
+        position += Long.BYTES;
+        this.outcome = BattleOutcome.values()[buffer.get(position)];
+        position += Byte.BYTES;
+        this.rounds = buffer.getInt(position);
+        position += Integer.BYTES;
+
+        int unitCount = buffer.getShort(position);
+        position += Short.BYTES;
+        List<ReplayUnit> parsed = new ArrayList<>(unitCount);
+        for (int id = 0; id < unitCount; id++) {
+            boolean playerUnit = buffer.get(position) == BattleReplayFormat.PLAYER_SIDE;
+            int x = buffer.get(position + 1);
+            int y = buffer.get(position + 2);
+            int health = buffer.getInt(position + 3);
+            int baseAttack = buffer.getInt(position + 3 + Integer.BYTES);
+            position += 3 + 2 * Integer.BYTES;
+            String unitType = readString(position);
+            position += Short.BYTES + buffer.getShort(position);
+            String name = readString(position);
+            position += Short.BYTES + buffer.getShort(position);
+            parsed.add(new ReplayUnit(id, playerUnit, x, y, health, baseAttack, unitType, name));
+        }
+        this.units = Collections.unmodifiableList(parsed);
+        this.turnCount = buffer.getInt(position);
+        this.turnTable = position + Integer.BYTES;
+    }
+
+    /**
+     * @return Зерно, с которым был сыгран бой.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    public BattleOutcome getOutcome() {
+        return outcome;
+    }
+
+    public int getRounds() {
+        return rounds;
+    }
+
+    /**
+     * @return Начальная расстановка обеих армий; индекс юнита в списке равен его идентификатору.
+     */
+    public List<ReplayUnit> getUnits() {
+        return units;
+    }
+
+    public int getTurnCount() {
+        return turnCount;
+    }
+
+    /**
+     * Возвращает ход по номеру.
+     *
+     * @param turn Номер хода, начиная с 0.
+     * @return Ход.
+     *
+     * Сложность: O(1).
+     */
+    public ReplayTurn getTurn(int turn) {
+        if (turn < 0 || turn >= turnCount) {
+            throw new IndexOutOfBoundsException("Ход " + turn + " вне диапазона [0, " + turnCount + ")");
+        }
+        return new ReplayTurn(buffer, buffer.getInt(turnTable + turn * Integer.BYTES));
+    }
+
+    /**
+     * Восстанавливает здоровье юнитов перед заданным ходом.
+     *
+     * @param turn Номер хода от 0 до {@link #getTurnCount()} включительно.
+     * @return Здоровье юнитов по идентификаторам.
+     *
+     * Сложность: O(n + turn), где n — количество юнитов.
+     */
+    public int[] getHealthBeforeTurn(int turn) {
+        if (turn < 0 || turn > turnCount) {
+            throw new IndexOutOfBoundsException("Ход " + turn + " вне диапазона [0, " + turnCount + "]");
+        }
+        int[] health = new int[units.size()];
+        for (ReplayUnit unit : units) {
+            health[unit.getId()] = unit.getHealth();
+        }
+        for (int i = 0; i < turn; i++) {
+            ReplayTurn replayTurn = getTurn(i);
+            if (replayTurn.getTargetId() >= 0) {
+                health[replayTurn.getTargetId()] = replayTurn.getRemainingHealth();
+            }
+        }
+        return health;
+    }
+
+    /**
+     * Находит первый ход раунда двоичным поиском.
+     *
+     * @param round Номер раунда.
+     * @return Номер первого хода раунда или {@link #getTurnCount()}, если таких ходов нет.
+     *
+     * Сложность: O(log T), где T — количество ходов.
+     */
+    public int findFirstTurnOfRound(int round) {
+        int low = 0;
+        int high = turnCount;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (getTurn(middle).getRound() < round) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private String readString(int position) {
+        int length = buffer.getShort(position);
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = buffer.get(position + Short.BYTES + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,30 @@
+package main.java.com.heroes_task.programs.replay;
+
+/**
+ * Двоичный формат файла повторов. Все числа записываются в порядке big-endian.
+ * <pre>
+ * Файл:   int MAGIC, short VERSION, далее записи боев подряд.
+ * Бой:    int length (байт после этого поля),
+ *         long seed, byte outcome, int rounds,
+ *         short unitCount, unitCount x юнит,
+ *         int turnCount, turnCount x int смещение хода от начала боя (после поля length),
+ *         turnCount x ход.
+ * Юнит:   byte side (0 — игрок, 1 — компьютер), byte x, byte y, int health, int baseAttack,
+ *         строка unitType, строка name.
+ * Ход:    int round, short attackerId, short targetId, int damage, int remainingHealth,
+ *         short pathLength, pathLength x (byte x, byte y).
+ * Строка: short длина в байтах, байты UTF-8.
+ * </pre>
+ * Идентификатор юнита — его номер в списке юнитов боя: сначала армия игрока, затем армия компьютера.
+ */
+final class BattleReplayFormat {
+    static final int MAGIC = 0x48425250; // "HBRP"
+    static final short VERSION = 1;
+    static final int FILE_HEADER_BYTES = Integer.BYTES + Short.BYTES;
+
+    static final byte PLAYER_SIDE = 0;
+    static final byte COMPUTER_SIDE = 1;
+
+    private BattleReplayFormat() {
+    }
+}
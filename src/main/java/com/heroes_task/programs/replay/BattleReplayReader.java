@@ -0,0 +1,107 @@
+package main.java.com.heroes_task.programs.replay;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Чтение файла повторов без загрузки его в память.
+ * При открытии читаются только поля длины записей, чтобы построить индекс боев;
+ * запись выбранного боя отображается в память ({@link FileChannel#map}) по запросу.
+ * Размер файла не ограничен, ограничен только размер записи одного боя (2 ГБ).
+ */
+public class BattleReplayReader implements AutoCloseable {
+
+    private final FileChannel channel;
+    private long[] battleOffsets = new long[16];
+    private int battleCount;
+
+    /**
+     * Открывает файл повторов и строит индекс боев.
+     *
+     * @param path Путь к файлу.
+     * @throws IOException Если файл не удалось прочитать или он не является файлом повторов.
+     *
+     * Сложность: O(B), где B — количество боев в файле.
+     */
+    public BattleReplayReader(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(BattleReplayFormat.FILE_HEADER_BYTES);
+            readFully(header, 0);
+            if (header.getInt(0) != BattleReplayFormat.MAGIC) {
+                throw new IOException("Файл не является файлом повторов: " + path);
+            }
+            if (header.getShort(Integer.BYTES) != BattleReplayFormat.VERSION) {
+                throw new IOException("Неподдерживаемая версия файла повторов: " + header.getShort(Integer.BYTES));
+            }
+            indexBattles();
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return Количество боев в файле.
+     */
+    public int getBattleCount() {
+        return battleCount;
+    }
+
+    /**
+     * Отображает запись боя в память и разбирает его начальную расстановку.
+     *
+     * @param battle Номер боя, начиная с 0.
+     * @return Записанный бой.
+     * @throws IOException Если запись не удалось отобразить.
+     *
+     * Сложность: O(n), где n — количество юнитов боя.
+     */
+    public BattleReplay getBattle(int battle) throws IOException {
+        if (battle < 0 || battle >= battleCount) {
+            throw new IndexOutOfBoundsException("Бой " + battle + " вне диапазона [0, " + battleCount + ")");
+        }
+        long offset = battleOffsets[battle];
+        int length = readInt(offset);
+        return new BattleReplay(channel.map(FileChannel.MapMode.READ_ONLY, offset + Integer.BYTES, length));
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void indexBattles() throws IOException {
+        long size = channel.size();
+        long offset = BattleReplayFormat.FILE_HEADER_BYTES;
+        while (offset + Integer.BYTES <= size) {
+            int length = readInt(offset);
+            if (length < 0 || offset + Integer.BYTES + length > size) {
+                break; // Незавершенная запись в конце файла
+            }
+            if (battleCount == battleOffsets.length) {
+                battleOffsets = Arrays.copyOf(battleOffsets, battleCount * 2);
+            }
+            battleOffsets[battleCount++] = offset;
+            offset += Integer.BYTES + length;
+        }
+    }
+
+    private int readInt(long position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES);
+        readFully(buffer, position);
+        return buffer.getInt(0);
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Неожиданный конец файла повторов");
+            }
+        }
+    }
+}
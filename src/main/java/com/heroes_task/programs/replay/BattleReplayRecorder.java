@@ -0,0 +1,207 @@
+package main.java.com.heroes_task.programs.replay;
+
+import com.battle.heroes.army.Army;
+import com.battle.heroes.army.Unit;
+import com.battle.heroes.army.programs.Edge;
+import com.battle.heroes.army.programs.UnitTargetPathFinder;
+import main.java.com.heroes_task.programs.BattleResult;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Запись одного боя в двоичном формате повторов (см. {@link BattleReplayFormat}).
+ * Подключается к симуляции через {@link main.java.com.heroes_task.programs.SimulateBattleImpl#setReplayRecorder};
+ * пути юнитов перехватываются декоратором поиска пути из {@link #recordPaths}.
+ * Бой накапливается в памяти и передается в {@link BattleReplayWriter} целиком по окончании.
+ * <p>
+ * Экземпляр не потокобезопасен и используется одним боем за раз; после окончания боя
+ * его можно использовать для следующего.
+ */
+public class BattleReplayRecorder {
+
+    private final BattleReplayWriter writer;
+    private final ByteArrayOutputStream unitBytes = new ByteArrayOutputStream();
+    private final ByteArrayOutputStream turnBytes = new ByteArrayOutputStream();
+    private final DataOutputStream units = new DataOutputStream(unitBytes);
+    private final DataOutputStream turns = new DataOutputStream(turnBytes);
+    private final Map<Unit, Integer> unitIds = new IdentityHashMap<>();
+    private int[] health = new int[0];
+    private int[] turnOffsets = new int[64];
+    private int turnCount;
+    private int round;
+    private long seed;
+    private Unit pathAttacker;
+    private List<Edge> path = Collections.emptyList();
+
+    /**
+     * @param writer Файл, в который записываются завершенные бои.
+     */
+    public BattleReplayRecorder(BattleReplayWriter writer) {
+        this.writer = writer;
+    }
+
+    /**
+     * Оборачивает поиск пути так, чтобы найденный путь атакующего попадал в запись его хода.
+     *
+     * @param unitTargetPathFinder Поиск пути.
+     * @return Поиск пути с записью путей.
+     */
+    public UnitTargetPathFinder recordPaths(UnitTargetPathFinder unitTargetPathFinder) {
+        return (attackUnit, targetUnit, existingUnitList) -> {
+            List<Edge> found = unitTargetPathFinder.getTargetPath(attackUnit, targetUnit, existingUnitList);
+            pathAttacker = attackUnit;
+            path = found;
+            return found;
+        };
+    }
+
+    /**
+     * Начинает запись боя и записывает начальную расстановку армий.
+     *
+     * @param seed         Зерно боя.
+     * @param playerArmy   Армия игрока.
+     * @param computerArmy Армия компьютера.
+     *
+     * Сложность: O(n), где n — количество юнитов.
+     */
+    public void beginBattle(long seed, Army playerArmy, Army computerArmy) {
+        this.seed = seed;
+        unitBytes.reset();
+        turnBytes.reset();
+        unitIds.clear();
+        turnCount = 0;
+        round = 0;
+        pathAttacker = null;
+        path = Collections.emptyList();
+
+        int unitCount = playerArmy.getUnits().size() + computerArmy.getUnits().size();
+        if (unitCount > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Слишком много юнитов для записи повтора: " + unitCount);
+        }
+        if (health.length < unitCount) {
+            health = new int[unitCount];
+        }
+        try {
+            units.writeShort(unitCount);
+            writeUnits(playerArmy.getUnits(), BattleReplayFormat.PLAYER_SIDE);
+            writeUnits(computerArmy.getUnits(), BattleReplayFormat.COMPUTER_SIDE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // Запись в память не выбрасывает IOException
+        }
+    }
+
+    /**
+     * Отмечает начало раунда.
+     *
+     * @param round Номер раунда, начиная с 0.
+     */
+    public void beginRound(int round) {
+        this.round = round;
+    }
+
+    /**
+     * Записывает ход: атаку, урон, оставшееся здоровье цели и путь атакующего.
+     * Урон считается по здоровью цели, известному записи, поэтому учитывает
+     * весь урон хода, в том числе нанесенный программой юнита.
+     *
+     * @param attacker Атакующий юнит.
+     * @param target   Цель атаки.
+     *
+     * Сложность: O(L), где L — длина пути атакующего.
+     */
+    public void recordAttack(Unit attacker, Unit target) {
+        int attackerId = idOf(attacker);
+        int targetId = idOf(target);
+        int remaining = target.getHealth();
+        int damage = targetId >= 0 ? health[targetId] - remaining : 0;
+        if (targetId >= 0) {
+            health[targetId] = remaining;
+        }
+        List<Edge> moves = pathAttacker == attacker ? path : Collections.<Edge>emptyList();
+        pathAttacker = null;
+        path = Collections.emptyList();
+
+        if (turnCount == turnOffsets.length) {
+            turnOffsets = Arrays.copyOf(turnOffsets, turnCount * 2);
+        }
+        turnOffsets[turnCount++] = turnBytes.size();
+        try {
+            turns.writeInt(round);
+            turns.writeShort(attackerId);
+            turns.writeShort(targetId);
+            turns.writeInt(damage);
+            turns.writeInt(remaining);
+            turns.writeShort(moves.size());
+            for (Edge edge : moves) {
+                turns.writeByte(edge.getX());
+                turns.writeByte(edge.getY());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Завершает запись боя и передает ее в файл.
+     *
+     * @param result Итог боя.
+     *
+     * Сложность: O(B), где B — размер записи в байтах.
+     */
+    public void endBattle(BattleResult result) {
+        int headerBytes = Long.BYTES + Byte.BYTES + Integer.BYTES;
+        int tableBytes = Integer.BYTES + turnCount * Integer.BYTES;
+        int turnsStart = headerBytes + unitBytes.size() + tableBytes;
+        int length = turnsStart + turnBytes.size();
+
+        ByteBuffer record = ByteBuffer.allocate(Integer.BYTES + length);
+        record.putInt(length);
+        record.putLong(seed);
+        record.put((byte) result.getOutcome().ordinal());
+        record.putInt(result.getRounds());
+        record.put(unitBytes.toByteArray());
+        record.putInt(turnCount);
+        for (int i = 0; i < turnCount; i++) {
+            record.putInt(turnsStart + turnOffsets[i]);
+        }
+        record.put(turnBytes.toByteArray());
+        record.flip();
+        writer.write(record);
+    }
+
+    private void writeUnits(List<Unit> army, byte side) throws IOException {
+        for (Unit unit : army) {
+            int id = unitIds.size();
+            unitIds.put(unit, id);
+            health[id] = unit.getHealth();
+            units.writeByte(side);
+            units.writeByte(unit.getxCoordinate());
+            units.writeByte(unit.getyCoordinate());
+            units.writeInt(unit.getHealth());
+            units.writeInt(unit.getBaseAttack());
+            writeString(units, unit.getUnitType());
+            writeString(units, unit.getName());
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = (value == null ? "" : value).getBytes(StandardCharsets.UTF_8);
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    private int idOf(Unit unit) {
+        Integer id = unitIds.get(unit);
+        return id == null ? -1 : id;
+    }
+}
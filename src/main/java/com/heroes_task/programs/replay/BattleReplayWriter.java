@@ -0,0 +1,66 @@
+package main.java.com.heroes_task.programs.replay;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Файл повторов боев. Записи боев добавляются целиком, поэтому один файл
+ * может заполняться параллельно из многих потоков пакетного прогона.
+ * Записи накапливает {@link BattleReplayRecorder}, по одному на бой.
+ */
+public class BattleReplayWriter implements AutoCloseable {
+
+    private final FileChannel channel;
+    private long battles;
+
+    /**
+     * Создает файл повторов, перезаписывая существующий.
+     *
+     * @param path Путь к файлу.
+     * @throws IOException Если файл не удалось создать.
+     */
+    public BattleReplayWriter(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        ByteBuffer header = ByteBuffer.allocate(BattleReplayFormat.FILE_HEADER_BYTES);
+        header.putInt(BattleReplayFormat.MAGIC).putShort(BattleReplayFormat.VERSION).flip();
+        writeFully(header);
+    }
+
+    /**
+     * Добавляет запись боя в конец файла.
+     *
+     * @param record Запись боя вместе с полем длины.
+     * @throws UncheckedIOException Если запись не удалась.
+     */
+    synchronized void write(ByteBuffer record) {
+        try {
+            writeFully(record);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось записать повтор боя", e);
+        }
+        battles++;
+    }
+
+    /**
+     * @return Количество записанных боев.
+     */
+    public synchronized long getBattles() {
+        return battles;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    private void writeFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package main.java.com.heroes_task.programs.replay;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Ход записанного боя. Читает поля прямо из отображенного в память файла;
+ * путь атакующего не копируется.
+ */
+public final class ReplayTurn {
+    private static final int PATH_OFFSET = Integer.BYTES + 2 * Short.BYTES + 2 * Integer.BYTES;
+
+    private final ByteBuffer buffer;
+    private final int offset;
+
+    ReplayTurn(ByteBuffer buffer, int offset) {
+        this.buffer = buffer;
+        this.offset = offset;
+    }
+
+    /**
+     * @return Номер раунда, начиная с 0.
+     */
+    public int getRound() {
+        return buffer.getInt(offset);
+    }
+
+    public int getAttackerId() {
+        return buffer.getShort(offset + Integer.BYTES);
+    }
+
+    /**
+     * @return Идентификатор цели или -1, если цель не входила в начальную расстановку.
+     */
+    public int getTargetId() {
+        return buffer.getShort(offset + Integer.BYTES + Short.BYTES);
+    }
+
+    /**
+     * @return Здоровье, потерянное целью за ход.
+     */
+    public int getDamage() {
+        return buffer.getInt(offset + Integer.BYTES + 2 * Short.BYTES);
+    }
+
+    public int getRemainingHealth() {
+        return buffer.getInt(offset + 2 * Integer.BYTES + 2 * Short.BYTES);
+    }
+
+    /**
+     * @return Количество клеток пути атакующего; 0, если атакующий не двигался.
+     */
+    public int getPathLength() {
+        return buffer.getShort(offset + PATH_OFFSET);
+    }
+
+    public int getPathX(int step) {
+        return buffer.get(offset + PATH_OFFSET + Short.BYTES + 2 * step);
+    }
+
+    public int getPathY(int step) {
+        return buffer.get(offset + PATH_OFFSET + Short.BYTES + 2 * step + 1);
+    }
+
+    @Override
+    public String toString() {
+        return "ReplayTurn{round=" + getRound() + ", attacker=" + getAttackerId() + ", target=" + getTargetId()
+                + ", damage=" + getDamage() + ", remainingHealth=" + getRemainingHealth()
+                + ", pathLength=" + getPathLength() + "}";
+    }
+}
@@ -0,0 +1,68 @@
+package main.java.com.heroes_task.programs.replay;
+
+/**
+ * Юнит в начальной расстановке записанного боя.
+ */
+public final class ReplayUnit {
+
+    private final int id;
+    private final boolean playerUnit;
+    private final int x;
+    private final int y;
+    private final int health;
+    private final int baseAttack;
+    private final String unitType;
+    private final String name;
+
+    ReplayUnit(int id, boolean playerUnit, int x, int y, int health, int baseAttack, String unitType, String name) {
+        this.id = id;
+        this.playerUnit = playerUnit;
+        this.x = x;
+        this.y = y;
+        this.health = health;
+        this.baseAttack = baseAttack;
+        this.unitType = unitType;
+        this.name = name;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * @return true для юнита армии игрока, false для юнита армии компьютера.
+     */
+    public boolean isPlayerUnit() {
+        return playerUnit;
+    }
+
+    public int getX() {
+        return x;
+    }
+
+    public int getY() {
+        return y;
+    }
+
+    public int getHealth() {
+        return health;
+    }
+
+    public int getBaseAttack() {
+        return baseAttack;
+    }
+
+    public String getUnitType() {
+        return unitType;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String toString() {
+        return "ReplayUnit{id=" + id + ", name=" + name + ", type=" + unitType
+                + ", player=" + playerUnit + ", x=" + x + ", y=" + y + ", health=" + health + "}";
+    }
+}
@@ -0,0 +1,288 @@
+package main.java.com.heroes_task.programs.tournament;
+
+import com.battle.heroes.army.Army;
+import com.battle.heroes.army.Unit;
+import main.java.com.heroes_task.programs.BattleOutcome;
+import main.java.com.heroes_task.programs.BattleResult;
+import main.java.com.heroes_task.programs.BattlefieldGrid;
+import main.java.com.heroes_task.programs.batch.ArmyCopier;
+import main.java.com.heroes_task.programs.batch.BatchBattleRunner;
+import main.java.com.heroes_task.programs.batch.BattleJob;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Круговой турнир пресетов в виде потокового конвейера:
+ * ленивый генератор пар → ограниченная очередь заданий → потоки симуляции боев →
+ * накопление итогов в {@link TournamentStandings}.
+ * <p>
+ * Пресеты задаются в зоне развертывания компьютера, как их строит {@link
+ * main.java.com.heroes_task.programs.GeneratePresetImpl}; для игры справа берется зеркальная копия.
+ * Бои нумеруются: пара пресетов {@code i < j} играет {@code 2 * battlesPerSide} боев подряд,
+ * в первой половине пресет i слева. Бой с номером m играется с зерном {@code seed + m},
+ * поэтому его результат не зависит от потока и порядка выполнения.
+ * <p>
+ * Генератор пар создает задания по одному и ждет, если впереди учтенных боев уже
+ * {@code queueCapacity + workers} заданий: очередь не растет, а бои, завершенные не по порядку,
+ * ждут учета в буфере того же размера. Итоги учитываются строго по номерам боев, поэтому
+ * рейтинг Эло одинаков при любом количестве потоков и после возобновления.
+ * Память не зависит от количества боев.
+ * <p>
+ * Если задан файл контрольной точки, итоги записываются в него каждые
+ * {@code checkpointInterval} боев и по завершении турнира; при запуске турнир
+ * продолжается с записанной точки.
+ */
+public class StreamingTournamentRunner {
+    private static final Match END = new Match(-1, -1, -1); // Сигнал остановки потока симуляции
+
+    private final List<Army> presets;
+    private final List<Army> mirroredPresets;
+    private final TournamentConfig config;
+    private final BatchBattleRunner batchBattleRunner;
+    private final List<String> unitTypes;
+    private final Map<String, Integer> unitTypeIndex = new HashMap<>();
+    private final int[][] presetUnitCounts; // Количество юнитов каждого типа в пресете
+    private final long presetsFingerprint;
+    private Path checkpointPath;
+
+    /**
+     * @param presets           Пресеты в зоне развертывания компьютера; не меньше двух.
+     * @param config            Параметры турнира.
+     * @param batchBattleRunner Прогон, которым симулируется каждый бой.
+     */
+    public StreamingTournamentRunner(List<Army> presets, TournamentConfig config, BatchBattleRunner batchBattleRunner) {
+        if (presets.size() < 2) {
+            throw new IllegalArgumentException("Для турнира нужно не меньше двух пресетов: " + presets.size());
+        }
+        this.presets = List.copyOf(presets);
+        this.config = config;
+        this.batchBattleRunner = batchBattleRunner;
+        this.mirroredPresets = new ArrayList<>(presets.size());
+        this.unitTypes = new ArrayList<>();
+        long fingerprint = presets.size();
+        for (Army preset : this.presets) {
+            mirroredPresets.add(mirror(preset));
+            for (Unit unit : preset.getUnits()) {
+                if (unitTypeIndex.putIfAbsent(unit.getUnitType(), unitTypes.size()) == null) {
+                    unitTypes.add(unit.getUnitType());
+                }
+                fingerprint = fingerprint * 31 + unit.getUnitType().hashCode();
+                fingerprint = fingerprint * 31 + unit.getHealth();
+                fingerprint = fingerprint * 31 + unit.getBaseAttack();
+                fingerprint = fingerprint * 31 + unit.getxCoordinate() * BattlefieldGrid.DEFAULT.getHeight()
+                        + unit.getyCoordinate();
+            }
+            fingerprint = fingerprint * 31 + preset.getUnits().size();
+        }
+        this.presetsFingerprint = fingerprint;
+        this.presetUnitCounts = new int[this.presets.size()][unitTypes.size()];
+        for (int i = 0; i < this.presets.size(); i++) {
+            countUnits(this.presets.get(i), presetUnitCounts[i]);
+        }
+    }
+
+    /**
+     * Включает контрольные точки.
+     *
+     * @param checkpointPath Файл контрольной точки или null, чтобы не записывать итоги.
+     */
+    public void setCheckpointPath(Path checkpointPath) {
+        this.checkpointPath = checkpointPath;
+    }
+
+    /**
+     * @return Количество боев турнира.
+     */
+    public long getTotalBattles() {
+        long pairs = (long) presets.size() * (presets.size() - 1) / 2;
+        return pairs * 2 * config.getBattlesPerSide();
+    }
+
+    /**
+     * Проводит турнир или продолжает его с контрольной точки.
+     *
+     * @return Итоги турнира.
+     * @throws InterruptedException Если ожидание результатов прервано; итоги до последней
+     *                              контрольной точки сохраняются.
+     * @throws IOException          Если контрольную точку не удалось прочитать или записать.
+     * @throws IllegalStateException Если симуляция боя завершилась с ошибкой.
+     * @complexity Временная сложность: O(B * T / W + P^2 * B / C), где B — количество боев,
+     * T — стоимость боя, W — количество потоков, P — количество пресетов, C — интервал контрольных точек.
+     * Память: O(P^2 + Q), где Q — емкость очереди заданий.
+     */
+    public TournamentStandings run() throws InterruptedException, IOException {
+        TournamentStandings standings = new TournamentStandings(presets.size(), unitTypes,
+                config.getEloKFactor(), config.getInitialRating());
+        if (checkpointPath != null && Files.exists(checkpointPath)) {
+            TournamentCheckpoint.load(checkpointPath, config, presetsFingerprint, standings);
+        }
+        long total = getTotalBattles();
+        long first = standings.getBattles();
+        int window = config.getQueueCapacity() + config.getWorkers();
+        Semaphore permits = new Semaphore(window);
+        BlockingQueue<Match> jobs = new ArrayBlockingQueue<>(config.getQueueCapacity());
+        BlockingQueue<Match> completed = new LinkedBlockingQueue<>(); // Не больше window: ограничено разрешениями
+        Match[] pending = new Match[window];
+
+        List<Thread> threads = new ArrayList<>();
+        threads.add(new Thread(() -> producePairings(first, total, permits, jobs), "tournament-pairings"));
+        for (int i = 0; i < config.getWorkers(); i++) {
+            threads.add(new Thread(() -> simulate(jobs, completed), "tournament-worker-" + i));
+        }
+        for (Thread thread : threads) {
+            thread.setDaemon(true);
+            thread.start();
+        }
+        try {
+            for (long next = first; next < total; ) {
+                Match match = completed.take();
+                if (match.failure != null) {
+                    throw new IllegalStateException("Бой турнира " + match.number + " завершился с ошибкой",
+                            match.failure);
+                }
+                pending[(int) (match.number % window)] = match;
+                for (Match ready = pending[(int) (next % window)];
+                     ready != null && ready.number == next;
+                     ready = pending[(int) (next % window)]) {
+                    pending[(int) (next % window)] = null;
+                    standings.record(ready.left, ready.right, ready.outcome, ready.fielded, ready.survived);
+                    permits.release();
+                    next++;
+                    if (checkpointPath != null && config.getCheckpointInterval() > 0
+                            && next % config.getCheckpointInterval() == 0 && next < total) {
+                        TournamentCheckpoint.save(checkpointPath, config, presetsFingerprint, standings);
+                    }
+                }
+            }
+        } finally {
+            for (Thread thread : threads) {
+                thread.interrupt();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        }
+        if (checkpointPath != null) {
+            TournamentCheckpoint.save(checkpointPath, config, presetsFingerprint, standings);
+        }
+        return standings;
+    }
+
+    /**
+     * Создает задания по номерам боев, начиная с {@code first}, и ставит их в очередь.
+     * Пара пресетов вычисляется один раз для начального номера, дальше — сдвигом.
+     *
+     * Сложность: O(P + B), где B — количество созданных заданий.
+     */
+    private void producePairings(long first, long total, Semaphore permits, BlockingQueue<Match> jobs) {
+        int presetCount = presets.size();
+        long battlesPerPair = 2L * config.getBattlesPerSide();
+        long pair = first / battlesPerPair;
+        long battle = first % battlesPerPair;
+        int lower = 0;
+        while (lower < presetCount - 1 && pair >= presetCount - 1 - lower) { // Турнир может быть уже сыгран
+            pair -= presetCount - 1 - lower;
+            lower++;
+        }
+        int upper = lower + 1 + (int) pair;
+        try {
+            for (long number = first; number < total; number++) {
+                permits.acquire();
+                boolean swapped = battle >= config.getBattlesPerSide();
+                jobs.put(new Match(number, swapped ? upper : lower, swapped ? lower : upper));
+                if (++battle == battlesPerPair) {
+                    battle = 0;
+                    if (++upper == presetCount) {
+                        lower++;
+                        upper = lower + 1;
+                    }
+                }
+            }
+            for (int i = 0; i < config.getWorkers(); i++) {
+                jobs.put(END);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // Турнир остановлен
+        }
+    }
+
+    /**
+     * Симулирует бои из очереди, пока не получит сигнал остановки.
+     */
+    private void simulate(BlockingQueue<Match> jobs, BlockingQueue<Match> completed) {
+        try {
+            while (true) {
+                Match match = jobs.take();
+                if (match == END) {
+                    return;
+                }
+                try {
+                    BattleJob job = new BattleJob(mirroredPresets.get(match.right), presets.get(match.left),
+                            config.getSeed() + match.number);
+                    match.fielded = new int[unitTypes.size()];
+                    match.survived = new int[unitTypes.size()];
+                    for (int type = 0; type < unitTypes.size(); type++) {
+                        match.fielded[type] = presetUnitCounts[match.left][type] + presetUnitCounts[match.right][type];
+                    }
+                    BattleResult result = batchBattleRunner.runJob(job, (playerArmy, computerArmy) -> {
+                        countUnits(playerArmy, match.survived); // В армиях после боя остаются только выжившие
+                        countUnits(computerArmy, match.survived);
+                    });
+                    match.outcome = result.getOutcome();
+                } catch (Throwable e) { // И Error: иначе поток погибнет, а run() будет вечно ждать его боя
+                    match.failure = e;
+                }
+                completed.put(match);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // Турнир остановлен
+        }
+    }
+
+    private void countUnits(Army army, int[] counts) {
+        for (Unit unit : army.getUnits()) {
+            counts[unitTypeIndex.get(unit.getUnitType())]++;
+        }
+    }
+
+    /**
+     * @return Копия пресета, отраженная на правую сторону поля.
+     */
+    private static Army mirror(Army preset) {
+        Army mirrored = ArmyCopier.copy(preset);
+        int lastColumn = BattlefieldGrid.DEFAULT.getWidth() - 1;
+        for (Unit unit : mirrored.getUnits()) {
+            unit.setxCoordinate(lastColumn - unit.getxCoordinate());
+        }
+        return mirrored;
+    }
+
+    /**
+     * Бой турнира: номер, пресеты сторон и, после симуляции, итог и выживаемость по типам.
+     */
+    private static final class Match {
+        final long number;
+        final int left;
+        final int right;
+        BattleOutcome outcome;
+        int[] fielded;
+        int[] survived;
+        Throwable failure;
+
+        Match(long number, int left, int right) {
+            this.number = number;
+            this.left = left;
+            this.right = right;
+        }
+    }
+}
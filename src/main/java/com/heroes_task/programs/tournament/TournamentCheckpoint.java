@@ -0,0 +1,110 @@
+package main.java.com.heroes_task.programs.tournament;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+
+/**
+ * Двоичный формат контрольной точки турнира. Все числа записываются в порядке big-endian.
+ * <pre>
+ * Файл:    int MAGIC, short VERSION, заголовок, итоги.
+ * Заголовок: long seed, int battlesPerSide, double eloKFactor, double initialRating,
+ *          int presetCount, long presetsFingerprint, short typeCount, typeCount x строка (writeUTF).
+ * Итоги:   long battles, presetCount x (double rating, long wins, long draws, long losses),
+ *          presetCount * (presetCount - 1) / 2 x int очки пары,
+ *          typeCount x (long fielded, long survived).
+ * </pre>
+ * Контрольная точка сначала пишется во временный файл рядом с целевым и затем
+ * переименовывается, поэтому прерванная запись не портит предыдущую точку.
+ */
+final class TournamentCheckpoint {
+    static final int MAGIC = 0x4842544E; // "HBTN"
+    static final short VERSION = 1;
+
+    private TournamentCheckpoint() {
+    }
+
+    /**
+     * Записывает итоги турнира.
+     *
+     * @param path               Файл контрольной точки.
+     * @param config             Параметры турнира.
+     * @param presetsFingerprint Отпечаток списка пресетов.
+     * @param standings          Итоги.
+     * @throws IOException Если файл не удалось записать.
+     *
+     * Сложность: O(P^2 + T), где P — количество пресетов, T — количество типов юнитов.
+     */
+    static void save(Path path, TournamentConfig config, long presetsFingerprint, TournamentStandings standings)
+            throws IOException {
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeLong(config.getSeed());
+            out.writeInt(config.getBattlesPerSide());
+            out.writeDouble(config.getEloKFactor());
+            out.writeDouble(config.getInitialRating());
+            out.writeInt(standings.getPresetCount());
+            out.writeLong(presetsFingerprint);
+            List<String> unitTypes = standings.getUnitTypes();
+            out.writeShort(unitTypes.size());
+            for (String unitType : unitTypes) {
+                out.writeUTF(unitType);
+            }
+            standings.writeTo(out);
+        }
+        try {
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Читает итоги турнира поверх начальных.
+     *
+     * @param path               Файл контрольной точки.
+     * @param config             Параметры турнира.
+     * @param presetsFingerprint Отпечаток списка пресетов.
+     * @param standings          Начальные итоги с теми же пресетами и типами юнитов.
+     * @throws IOException Если файл не удалось прочитать или он записан другим турниром.
+     *
+     * Сложность: O(P^2 + T).
+     */
+    static void load(Path path, TournamentConfig config, long presetsFingerprint, TournamentStandings standings)
+            throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Файл не является контрольной точкой турнира: " + path);
+            }
+            short version = in.readShort();
+            if (version != VERSION) {
+                throw new IOException("Неподдерживаемая версия контрольной точки: " + version);
+            }
+            // Операция & без сокращенного вычисления: поля заголовка читаются все и по порядку
+            boolean sameTournament = in.readLong() == config.getSeed()
+                    & in.readInt() == config.getBattlesPerSide()
+                    & in.readDouble() == config.getEloKFactor()
+                    & in.readDouble() == config.getInitialRating()
+                    & in.readInt() == standings.getPresetCount()
+                    & in.readLong() == presetsFingerprint;
+            int typeCount = in.readShort();
+            sameTournament &= typeCount == standings.getUnitTypes().size();
+            for (int type = 0; type < typeCount && sameTournament; type++) {
+                sameTournament = in.readUTF().equals(standings.getUnitTypes().get(type));
+            }
+            if (!sameTournament) {
+                throw new IOException("Контрольная точка записана другим турниром: " + path);
+            }
+            standings.readFrom(in);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package main.java.com.heroes_task.programs.tournament;
+
+/**
+ * Параметры кругового турнира пресетов.
+ * Каждая пара пресетов играет {@code battlesPerSide} боев, в которых первый пресет
+ * стоит слева (армия компьютера), и столько же боев со сменой сторон.
+ */
+public class TournamentConfig {
+    /** Наибольшее количество боев пары на одной стороне: очки пары хранятся в 16 битах. */
+    public static final int MAX_BATTLES_PER_SIDE = 16_383;
+
+    private int battlesPerSide = 1;
+    private int workers = Runtime.getRuntime().availableProcessors();
+    private int queueCapacity = 256;
+    private long checkpointInterval = 10_000;
+    private double eloKFactor = 16;
+    private double initialRating = 1500;
+    private long seed = 0;
+
+    public int getBattlesPerSide() {
+        return battlesPerSide;
+    }
+
+    /**
+     * @param battlesPerSide Количество боев пары на каждой стороне поля; от 1 до {@value #MAX_BATTLES_PER_SIDE}.
+     */
+    public void setBattlesPerSide(int battlesPerSide) {
+        if (battlesPerSide < 1 || battlesPerSide > MAX_BATTLES_PER_SIDE) {
+            throw new IllegalArgumentException("Количество боев на сторону должно быть от 1 до "
+                    + MAX_BATTLES_PER_SIDE + ": " + battlesPerSide);
+        }
+        this.battlesPerSide = battlesPerSide;
+    }
+
+    public int getWorkers() {
+        return workers;
+    }
+
+    /**
+     * @param workers Количество потоков, симулирующих бои; не меньше 1.
+     */
+    public void setWorkers(int workers) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("Количество потоков должно быть положительным: " + workers);
+        }
+        this.workers = workers;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    /**
+     * Ограничивает очередь заданий. Генератор пар ждет, пока в очереди освободится место,
+     * поэтому в памяти одновременно находится не больше {@code queueCapacity + workers} боев.
+     *
+     * @param queueCapacity Емкость очереди заданий; не меньше 1.
+     */
+    public void setQueueCapacity(int queueCapacity) {
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("Емкость очереди должна быть положительной: " + queueCapacity);
+        }
+        this.queueCapacity = queueCapacity;
+    }
+
+    public long getCheckpointInterval() {
+        return checkpointInterval;
+    }
+
+    /**
+     * @param checkpointInterval Количество боев между записями контрольной точки; 0 — записывать
+     *                           только по завершении турнира.
+     */
+    public void setCheckpointInterval(long checkpointInterval) {
+        if (checkpointInterval < 0) {
+            throw new IllegalArgumentException("Интервал контрольных точек не может быть отрицательным: "
+                    + checkpointInterval);
+        }
+        this.checkpointInterval = checkpointInterval;
+    }
+
+    public double getEloKFactor() {
+        return eloKFactor;
+    }
+
+    /**
+     * @param eloKFactor Коэффициент K рейтинга Эло: наибольшее изменение рейтинга за один бой.
+     */
+    public void setEloKFactor(double eloKFactor) {
+        if (!(eloKFactor > 0)) {
+            throw new IllegalArgumentException("Коэффициент K должен быть положительным: " + eloKFactor);
+        }
+        this.eloKFactor = eloKFactor;
+    }
+
+    public double getInitialRating() {
+        return initialRating;
+    }
+
+    public void setInitialRating(double initialRating) {
+        this.initialRating = initialRating;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * @param seed Зерно турнира: бой с номером m играется с зерном {@code seed + m}.
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+}
@@ -0,0 +1,235 @@
+package main.java.com.heroes_task.programs.tournament;
+
+import main.java.com.heroes_task.programs.BattleOutcome;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Итоги кругового турнира, накапливаемые по одному бою: рейтинг Эло, победы, ничьи
+ * и поражения каждого пресета, матрица очков пар и выживаемость юнитов по типам.
+ * Результаты отдельных боев не хранятся, поэтому память зависит только от количества
+ * пресетов P: O(P) на пресеты и O(P^2 / 2) на матрицу пар — и не растет с количеством боев.
+ * <p>
+ * Рейтинг Эло зависит от порядка боев, поэтому {@link StreamingTournamentRunner}
+ * учитывает бои строго по номерам. Экземпляр не потокобезопасен.
+ */
+public final class TournamentStandings {
+    private final int presetCount;
+    private final String[] unitTypes;
+    private final double eloKFactor;
+    private final double[] ratings;
+    private final long[] wins;
+    private final long[] draws;
+    private final long[] losses;
+    private final int[] pairPoints; // Очки пар в половинах победы; младшие 16 бит — у пресета с меньшим номером
+    private final long[] fielded;
+    private final long[] survived;
+    private long battles;
+
+    /**
+     * @param presetCount   Количество пресетов.
+     * @param unitTypes     Типы юнитов, выживаемость которых учитывается.
+     * @param eloKFactor    Коэффициент K рейтинга Эло.
+     * @param initialRating Начальный рейтинг каждого пресета.
+     */
+    TournamentStandings(int presetCount, List<String> unitTypes, double eloKFactor, double initialRating) {
+        this.presetCount = presetCount;
+        this.unitTypes = unitTypes.toArray(new String[0]);
+        this.eloKFactor = eloKFactor;
+        this.ratings = new double[presetCount];
+        Arrays.fill(ratings, initialRating);
+        this.wins = new long[presetCount];
+        this.draws = new long[presetCount];
+        this.losses = new long[presetCount];
+        this.pairPoints = new int[Math.toIntExact((long) presetCount * (presetCount - 1) / 2)];
+        this.fielded = new long[this.unitTypes.length];
+        this.survived = new long[this.unitTypes.length];
+    }
+
+    /**
+     * Учитывает результат боя.
+     *
+     * @param left     Пресет, игравший слева (армия компьютера).
+     * @param right    Пресет, игравший справа (армия игрока).
+     * @param outcome  Итог боя.
+     * @param fielded  Количество выставленных юнитов каждого типа в обеих армиях.
+     * @param survived Количество выживших юнитов каждого типа в обеих армиях.
+     *
+     * Сложность: O(T), где T — количество типов юнитов.
+     */
+    void record(int left, int right, BattleOutcome outcome, int[] fielded, int[] survived) {
+        double leftScore;
+        switch (outcome) {
+            case COMPUTER_WON:
+                leftScore = 1;
+                wins[left]++;
+                losses[right]++;
+                break;
+            case PLAYER_WON:
+                leftScore = 0;
+                losses[left]++;
+                wins[right]++;
+                break;
+            default:
+                leftScore = 0.5;
+                draws[left]++;
+                draws[right]++;
+                break;
+        }
+        int leftPoints = (int) (leftScore * 2);
+        int lowerPoints = left < right ? leftPoints : 2 - leftPoints;
+        pairPoints[pairIndex(Math.min(left, right), Math.max(left, right))] += lowerPoints | (2 - lowerPoints) << 16;
+
+        double expected = 1 / (1 + Math.pow(10, (ratings[right] - ratings[left]) / 400));
+        double change = eloKFactor * (leftScore - expected);
+        ratings[left] += change;
+        ratings[right] -= change;
+
+        for (int type = 0; type < unitTypes.length; type++) {
+            this.fielded[type] += fielded[type];
+            this.survived[type] += survived[type];
+        }
+        battles++;
+    }
+
+    /**
+     * @return Количество учтенных боев.
+     */
+    public long getBattles() {
+        return battles;
+    }
+
+    public int getPresetCount() {
+        return presetCount;
+    }
+
+    public double getRating(int preset) {
+        return ratings[preset];
+    }
+
+    public long getWins(int preset) {
+        return wins[preset];
+    }
+
+    public long getDraws(int preset) {
+        return draws[preset];
+    }
+
+    public long getLosses(int preset) {
+        return losses[preset];
+    }
+
+    /**
+     * @return Доля очков пресета во всех его боях (ничья — половина победы) или 0, если боев не было.
+     */
+    public double getWinRate(int preset) {
+        long played = wins[preset] + draws[preset] + losses[preset];
+        return played == 0 ? 0 : (wins[preset] + draws[preset] * 0.5) / played;
+    }
+
+    /**
+     * Возвращает очки первого пресета в боях против второго.
+     *
+     * @param preset   Пресет.
+     * @param opponent Противник.
+     * @return Сумма очков: победа — 1, ничья — 0,5.
+     */
+    public double getScore(int preset, int opponent) {
+        if (preset == opponent) {
+            throw new IllegalArgumentException("Пресет не играет сам с собой: " + preset);
+        }
+        int points = pairPoints[pairIndex(Math.min(preset, opponent), Math.max(preset, opponent))];
+        return (preset < opponent ? points & 0xFFFF : points >>> 16) / 2.0;
+    }
+
+    /**
+     * @return Типы юнитов в порядке учета выживаемости.
+     */
+    public List<String> getUnitTypes() {
+        return List.of(unitTypes);
+    }
+
+    /**
+     * @return Доля выживших юнитов типа среди выставленных во всех боях или 0, если тип не выставлялся.
+     */
+    public double getSurvivalRate(String unitType) {
+        int type = Arrays.asList(unitTypes).indexOf(unitType);
+        if (type < 0) {
+            throw new IllegalArgumentException("Неизвестный тип юнита: " + unitType);
+        }
+        return fielded[type] == 0 ? 0 : (double) survived[type] / fielded[type];
+    }
+
+    /**
+     * @return Номера пресетов по убыванию рейтинга Эло.
+     *
+     * Сложность: O(P log P).
+     */
+    public int[] getRanking() {
+        Integer[] order = new Integer[presetCount];
+        for (int i = 0; i < presetCount; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (first, second) -> Double.compare(ratings[second], ratings[first]));
+        int[] ranking = new int[presetCount];
+        for (int i = 0; i < presetCount; i++) {
+            ranking[i] = order[i];
+        }
+        return ranking;
+    }
+
+    /**
+     * Записывает накопленные итоги в формате {@link TournamentCheckpoint}.
+     *
+     * Сложность: O(P^2 + T).
+     */
+    void writeTo(DataOutputStream out) throws IOException {
+        out.writeLong(battles);
+        for (int i = 0; i < presetCount; i++) {
+            out.writeDouble(ratings[i]);
+            out.writeLong(wins[i]);
+            out.writeLong(draws[i]);
+            out.writeLong(losses[i]);
+        }
+        for (int points : pairPoints) {
+            out.writeInt(points);
+        }
+        for (int type = 0; type < unitTypes.length; type++) {
+            out.writeLong(fielded[type]);
+            out.writeLong(survived[type]);
+        }
+    }
+
+    /**
+     * Читает итоги, записанные {@link #writeTo}, поверх начальных.
+     *
+     * Сложность: O(P^2 + T).
+     */
+    void readFrom(DataInputStream in) throws IOException {
+        battles = in.readLong();
+        for (int i = 0; i < presetCount; i++) {
+            ratings[i] = in.readDouble();
+            wins[i] = in.readLong();
+            draws[i] = in.readLong();
+            losses[i] = in.readLong();
+        }
+        for (int i = 0; i < pairPoints.length; i++) {
+            pairPoints[i] = in.readInt();
+        }
+        for (int type = 0; type < unitTypes.length; type++) {
+            fielded[type] = in.readLong();
+            survived[type] = in.readLong();
+        }
+    }
+
+    /**
+     * @return Индекс пары {@code lower < upper} в треугольной матрице.
+     */
+    private int pairIndex(int lower, int upper) {
+        return (int) ((long) lower * (2L * presetCount - lower - 1) / 2) + upper - lower - 1;
+    }
+}
@@ -0,0 +1,87 @@
+package main.java.com.heroes_task.programs;
+
+import com.battle.heroes.army.Unit;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static main.java.com.heroes_task.programs.AbstractPresetGenerator.MAX_UNITS_PER_TYPE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Динамическое программирование {@link KnapsackGeneratePresetImpl} находит тот же оптимум,
+ * что и полный перебор количеств юнитов каждого типа.
+ */
+class KnapsackGeneratePresetImplTest {
+
+    private static final double EPSILON = 1e-9;
+    private static final int[] MAX_POINTS = {0, 12, 13, 50, 97, 250, 500, 777, 1000, 1500};
+
+    @Test
+    void attackMatchesBruteForce() {
+        assertMatchesBruteForce(PresetObjective.attack());
+    }
+
+    @Test
+    void healthMatchesBruteForce() {
+        assertMatchesBruteForce(PresetObjective.health());
+    }
+
+    @Test
+    void effectiveHealthMatchesBruteForce() {
+        List<Unit> enemies = TestFixtures.preset(1500, 7, false).getUnits();
+        assertMatchesBruteForce(PresetObjective.effectiveHealthAgainst(enemies));
+    }
+
+    @Test
+    void bonusDamageMatchesBruteForce() {
+        List<Unit> enemies = TestFixtures.preset(1500, 7, false).getUnits();
+        assertMatchesBruteForce(PresetObjective.bonusDamageAgainst(enemies));
+    }
+
+    private static void assertMatchesBruteForce(PresetObjective objective) {
+        List<Unit> prototypes = TestFixtures.prototypes();
+        KnapsackGeneratePresetImpl generator = new KnapsackGeneratePresetImpl(objective, false);
+        for (int maxPoints : MAX_POINTS) {
+            int[] counts = generator.calculateUnitCounts(prototypes, maxPoints);
+            int points = 0;
+            for (int i = 0; i < counts.length; i++) {
+                assertTrue(counts[i] >= 0 && counts[i] <= MAX_UNITS_PER_TYPE, "Количество вне диапазона: " + counts[i]);
+                points += counts[i] * prototypes.get(i).getCost();
+            }
+            assertTrue(points <= maxPoints, "Превышен лимит очков " + maxPoints + ": " + points);
+            double expected = bruteForce(prototypes, objective, maxPoints, new int[prototypes.size()], 0);
+            assertEquals(expected, value(prototypes, objective, counts), EPSILON, "Лимит очков " + maxPoints);
+        }
+    }
+
+    /**
+     * Перебирает все количества от 0 до {@value AbstractPresetGenerator#MAX_UNITS_PER_TYPE}
+     * для типов, начиная с {@code index}.
+     *
+     * @complexity Временная сложность: O((MAX_UNITS_PER_TYPE + 1)^n * n).
+     */
+    private static double bruteForce(List<Unit> prototypes, PresetObjective objective, int budget,
+                                     int[] counts, int index) {
+        if (index == counts.length) {
+            return value(prototypes, objective, counts);
+        }
+        double best = 0;
+        int cost = prototypes.get(index).getCost();
+        for (int count = 0; count <= MAX_UNITS_PER_TYPE && count * cost <= budget; count++) {
+            counts[index] = count;
+            best = Math.max(best, bruteForce(prototypes, objective, budget - count * cost, counts, index + 1));
+        }
+        counts[index] = 0;
+        return best;
+    }
+
+    private static double value(List<Unit> prototypes, PresetObjective objective, int[] counts) {
+        double value = 0;
+        for (int i = 0; i < counts.length; i++) {
+            value += counts[i] * objective.getValue(prototypes.get(i));
+        }
+        return value;
+    }
+}
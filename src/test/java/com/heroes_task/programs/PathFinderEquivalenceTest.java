@@ -0,0 +1,93 @@
+package main.java.com.heroes_task.programs;
+
+import com.battle.heroes.army.Unit;
+import com.battle.heroes.army.programs.Edge;
+import com.battle.heroes.army.programs.UnitTargetPathFinder;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static main.java.com.heroes_task.programs.UnitTargetPathFinderImpl.HEIGHT;
+import static main.java.com.heroes_task.programs.UnitTargetPathFinderImpl.WIDTH;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Поиски пути Дейкстры, в ширину, по полю расстояний и A* находят пути одинаковой длины
+ * на полях со случайными препятствиями.
+ */
+class PathFinderEquivalenceTest {
+
+    private static final int FIELDS = 40;
+    private static final int SEARCHES_PER_FIELD = 25;
+
+    @Test
+    void allPathFindersFindPathsOfEqualLength() {
+        SplittableRandom random = new SplittableRandom(19);
+        int reachable = 0;
+        int unreachable = 0;
+        for (int field = 0; field < FIELDS; field++) {
+            double density = 0.1 + 0.5 * field / FIELDS;
+            List<Unit> units = obstacles(random, density);
+            OccupancyIndex occupancyIndex = new OccupancyIndex();
+            occupancyIndex.rebuild(units, Collections.emptyList());
+            List<UnitTargetPathFinder> pathFinders = List.of(
+                    new UnitTargetPathFinderImpl(false),
+                    new BfsUnitTargetPathFinderImpl(false),
+                    new DistanceFieldPathFinderImpl(occupancyIndex, DistanceFieldPathFinderImpl.DEFAULT_CACHE_SIZE, false),
+                    new AStarUnitTargetPathFinderImpl(BattlefieldGrid.DEFAULT, false));
+            for (int search = 0; search < SEARCHES_PER_FIELD; search++) {
+                Unit attacker = units.get(random.nextInt(units.size()));
+                Unit target = units.get(random.nextInt(units.size()));
+                if (attacker == target) {
+                    continue;
+                }
+                List<Edge> expected = pathFinders.get(0).getTargetPath(attacker, target, units);
+                for (UnitTargetPathFinder pathFinder : pathFinders) {
+                    List<Edge> path = pathFinder.getTargetPath(attacker, target, units);
+                    assertEquals(expected.size(), path.size(),
+                            pathFinder.getClass().getSimpleName() + ": " + attacker.getName() + " -> " + target.getName());
+                    assertConnected(path);
+                }
+                if (expected.isEmpty()) {
+                    unreachable++;
+                } else {
+                    reachable++;
+                }
+            }
+        }
+        assertTrue(reachable > 0 && unreachable > 0, "Нужны и достижимые, и недостижимые цели");
+    }
+
+    /**
+     * Заполняет поле юнитами с заданной плотностью; клетки выбираются без повторов.
+     */
+    private static List<Unit> obstacles(SplittableRandom random, double density) {
+        int cells = WIDTH * HEIGHT;
+        int[] order = new int[cells];
+        for (int i = 0; i < cells; i++) {
+            order[i] = i;
+        }
+        int count = Math.max(2, (int) (cells * density));
+        List<Unit> units = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int j = i + random.nextInt(cells - i);
+            int cell = order[j];
+            order[j] = order[i];
+            order[i] = cell;
+            units.add(TestFixtures.unitAt("u" + i, cell / HEIGHT, cell % HEIGHT));
+        }
+        return units;
+    }
+
+    private static void assertConnected(List<Edge> path) {
+        for (int i = 1; i < path.size(); i++) {
+            int dx = Math.abs(path.get(i).getX() - path.get(i - 1).getX());
+            int dy = Math.abs(path.get(i).getY() - path.get(i - 1).getY());
+            assertTrue(dx <= 1 && dy <= 1 && dx + dy > 0, "Соседние клетки пути не смежны: " + path);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package main.java.com.heroes_task.programs;
+
+import com.battle.heroes.army.Army;
+import com.battle.heroes.army.Unit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Общие данные тестов: прототипы юнитов игры и пресеты армий с фиксированным зерном.
+ */
+public final class TestFixtures {
+
+    /** Смещение зоны развертывания армии игрока по x. */
+    public static final int PLAYER_OFFSET_X = 24;
+
+    private TestFixtures() {
+    }
+
+    /**
+     * @return Прототипы четырех типов юнитов игры с бонусами атаки и защиты.
+     */
+    public static List<Unit> prototypes() {
+        List<Unit> prototypes = new ArrayList<>();
+        prototypes.add(new Unit("Knight", "Knight", 100, 30, 20, "Close combat",
+                Map.of("Archer", 1.5), Map.of("Pikeman", 1.2), 0, 0));
+        prototypes.add(new Unit("Archer", "Archer", 50, 20, 19, "Ranged combat",
+                Map.of("Knight", 1.2), Map.of(), 0, 0));
+        prototypes.add(new Unit("Swordsman", "Swordsman", 70, 25, 15, "Close combat",
+                Map.of(), Map.of("Archer", 1.3), 0, 0));
+        prototypes.add(new Unit("Pikeman", "Pikeman", 60, 20, 13, "Close combat",
+                Map.of("Knight", 2.0), Map.of(), 0, 0));
+        return prototypes;
+    }
+
+    /**
+     * Строит пресет жадным генератором с заданным зерном расстановки.
+     *
+     * @param maxPoints Лимит очков.
+     * @param seed      Зерно расстановки.
+     * @param player    true, если пресет нужно сдвинуть в зону развертывания игрока.
+     * @return Пресет армии.
+     */
+    public static Army preset(int maxPoints, long seed, boolean player) {
+        GeneratePresetImpl generator = new GeneratePresetImpl(false);
+        generator.setRandom(new SplittableRandom(seed));
+        Army army = generator.generate(prototypes(), maxPoints);
+        if (player) {
+            for (Unit unit : army.getUnits()) {
+                unit.setxCoordinate(unit.getxCoordinate() + PLAYER_OFFSET_X);
+            }
+        }
+        return army;
+    }
+
+    /**
+     * Создает юнит ближнего боя в заданной клетке.
+     */
+    public static Unit unitAt(String name, int x, int y) {
+        return new Unit(name, "Swordsman", 70, 25, 15, "Close combat", Map.of(), Map.of(), x, y);
+    }
+}
@@ -0,0 +1,68 @@
+package main.java.com.heroes_task.programs.batch;
+
+import main.java.com.heroes_task.programs.BattleResult;
+import main.java.com.heroes_task.programs.TestFixtures;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Режимы {@link BatchBattleRunner}, которые не должны менять итог боя:
+ * ядро на массивах и кэш путей.
+ */
+class BatchBattleRunnerTest {
+
+    private static final int JOBS = 24;
+
+    static List<BattleJob> jobs(int maxPoints) {
+        List<BattleJob> jobs = new ArrayList<>();
+        for (int i = 0; i < JOBS; i++) {
+            jobs.add(new BattleJob(TestFixtures.preset(maxPoints, 1000 + i, true),
+                    TestFixtures.preset(maxPoints, 2000 + i, false), i));
+        }
+        return jobs;
+    }
+
+    private static List<BattleResult> run(List<BattleJob> jobs, Consumer<BatchBattleRunner> configuration) {
+        BatchBattleRunner runner = new BatchBattleRunner();
+        configuration.accept(runner);
+        List<BattleResult> results = new ArrayList<>();
+        for (BattleJob job : jobs) {
+            results.add(runner.runJob(job));
+        }
+        return results;
+    }
+
+    @Test
+    void battleCoreMatchesObjectSimulation() {
+        assertBattleCoreMatches(false);
+    }
+
+    @Test
+    void battleCoreMatchesObjectSimulationWithBonuses() {
+        assertBattleCoreMatches(true);
+    }
+
+    private static void assertBattleCoreMatches(boolean bonusesApplied) {
+        List<BattleJob> jobs = jobs(1500);
+        List<BattleResult> objects = run(jobs, runner -> runner.setBonusesApplied(bonusesApplied));
+        List<BattleResult> core = run(jobs, runner -> {
+            runner.setBonusesApplied(bonusesApplied);
+            runner.setBattleCoreEnabled(true);
+        });
+        assertEquals(objects, core);
+    }
+
+    @Test
+    void pathCacheDoesNotChangeResults() {
+        List<BattleJob> jobs = jobs(1500);
+        List<BattleResult> uncached = run(jobs, runner -> { });
+        List<BattleResult> cached = run(jobs, runner -> runner.setPathCacheCapacity(256));
+        assertEquals(uncached, cached);
+        assertEquals(cached, run(jobs, runner -> runner.setPathCacheCapacity(256))); // Кэш переходит из боя в бой
+    }
+}
@@ -0,0 +1,65 @@
+package main.java.com.heroes_task.programs.batch;
+
+import com.battle.heroes.army.Army;
+import main.java.com.heroes_task.programs.BattleResult;
+import main.java.com.heroes_task.programs.OccupancyIndex;
+import main.java.com.heroes_task.programs.ParallelTurnPlanner;
+import main.java.com.heroes_task.programs.SimulateBattleImpl;
+import main.java.com.heroes_task.programs.SuitableForAttackUnitsFinderImpl;
+import main.java.com.heroes_task.programs.clock.VirtualBattleClock;
+import main.java.com.heroes_task.programs.events.BattleEventSink;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Бой с {@link ParallelTurnPlanner} дает тот же итог, что и бой с последовательным поиском
+ * в ширину в {@link BatchBattleRunner}.
+ */
+class ParallelTurnPlannerTest {
+
+    @Test
+    void parallelTurnsDoNotChangeResults() throws InterruptedException {
+        BatchBattleRunner runner = new BatchBattleRunner();
+        ForkJoinPool planningPool = new ForkJoinPool(4);
+        long servedPaths = 0;
+        try {
+            for (BattleJob job : BatchBattleRunnerTest.jobs(3000)) {
+                OccupancyIndex occupancyIndex = new OccupancyIndex();
+                ParallelTurnPlanner turnPlanner = new ParallelTurnPlanner(occupancyIndex, planningPool,
+                        BattleEventSink.NONE);
+                assertEquals(runner.runJob(job), simulate(job, occupancyIndex, turnPlanner));
+                servedPaths += turnPlanner.getServedPaths();
+            }
+        } finally {
+            planningPool.shutdown();
+        }
+        assertTrue(servedPaths > 0, "Планировщик не отдал ни одного пути из плана");
+    }
+
+    /**
+     * Играет бой задания так же, как {@link BatchBattleRunner#runJob}, но с поиском пути планировщиком.
+     */
+    private static BattleResult simulate(BattleJob job, OccupancyIndex occupancyIndex, ParallelTurnPlanner turnPlanner)
+            throws InterruptedException {
+        Army playerArmy = ArmyCopier.copy(job.getPlayerPreset());
+        Army computerArmy = ArmyCopier.copy(job.getComputerPreset());
+        SplittableRandom random = new SplittableRandom(job.getSeed());
+        SuitableForAttackUnitsFinderImpl suitableForAttackUnitsFinder = new SuitableForAttackUnitsFinderImpl(false);
+        suitableForAttackUnitsFinder.setRandom(random);
+        SimulateBattleImpl simulateBattle = new SimulateBattleImpl();
+        simulateBattle.setBattleClock(new VirtualBattleClock());
+        UnitProgramFactory.assignPrograms(playerArmy, computerArmy, suitableForAttackUnitsFinder, turnPlanner,
+                simulateBattle.getGameSpeed(), random);
+        simulateBattle.setLoggingEnabled(false);
+        simulateBattle.setOccupancyIndex(occupancyIndex);
+        simulateBattle.setMaxRounds(BatchBattleRunner.DEFAULT_MAX_ROUNDS);
+        simulateBattle.setTurnPlanner(turnPlanner);
+        simulateBattle.setSeed(job.getSeed());
+        return simulateBattle.simulateBattle(playerArmy, computerArmy);
+    }
+}
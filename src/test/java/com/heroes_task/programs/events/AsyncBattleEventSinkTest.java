@@ -0,0 +1,71 @@
+package main.java.com.heroes_task.programs.events;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+/**
+ * {@link AsyncBattleEventSink}: события многих источников записываются без потерь в порядке
+ * каждого источника, а ошибка потока записи не оставляет источники и {@code flush()} ждать вечно.
+ */
+class AsyncBattleEventSinkTest {
+
+    private static final int PRODUCERS = 4;
+    private static final int EVENTS_PER_PRODUCER = 20_000;
+
+    @Test
+    void keepsOrderOfEachProducer() throws InterruptedException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (AsyncBattleEventSink sink = new AsyncBattleEventSink(new PrintStream(bytes, true, StandardCharsets.UTF_8), 64)) {
+            List<Thread> producers = new ArrayList<>();
+            for (int producer = 0; producer < PRODUCERS; producer++) {
+                String prefix = producer + ":";
+                producers.add(new Thread(() -> {
+                    for (int event = 0; event < EVENTS_PER_PRODUCER; event++) {
+                        sink.onMessage(prefix + event);
+                    }
+                }));
+            }
+            producers.forEach(Thread::start);
+            for (Thread producer : producers) {
+                producer.join();
+            }
+            sink.flush();
+        }
+
+        int[] next = new int[PRODUCERS];
+        String[] lines = bytes.toString(StandardCharsets.UTF_8).split(System.lineSeparator());
+        assertEquals(PRODUCERS * EVENTS_PER_PRODUCER, lines.length);
+        for (String line : lines) {
+            int separator = line.indexOf(':');
+            int producer = Integer.parseInt(line.substring(0, separator));
+            assertEquals(next[producer]++, Integer.parseInt(line.substring(separator + 1)), line);
+        }
+    }
+
+    @Test
+    void writerFailureDoesNotBlockProducers() {
+        PrintStream failing = new PrintStream(new ByteArrayOutputStream()) {
+            @Override
+            public void print(Object text) {
+                throw new IllegalStateException("Сбой вывода");
+            }
+        };
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            try (AsyncBattleEventSink sink = new AsyncBattleEventSink(failing, 4)) {
+                for (int event = 0; event < 1000; event++) { // Больше емкости: без закрытия источник ждал бы места
+                    sink.onMessage("событие " + event);
+                }
+                sink.flush();
+            }
+        });
+    }
+}
@@ -0,0 +1,114 @@
+package main.java.com.heroes_task.programs.replay;
+
+import com.battle.heroes.army.Unit;
+import main.java.com.heroes_task.programs.BattleResult;
+import main.java.com.heroes_task.programs.TestFixtures;
+import main.java.com.heroes_task.programs.batch.BatchBattleRunner;
+import main.java.com.heroes_task.programs.batch.BattleJob;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Бои, записанные {@link BattleReplayWriter}, читаются {@link BattleReplayReader}
+ * с той же расстановкой, теми же ходами и тем же итогом.
+ */
+class BattleReplayRoundTripTest {
+
+    private static final int BATTLES = 6;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void writtenBattlesAreReadBack() throws IOException {
+        Path path = directory.resolve("battles.replay");
+        List<BattleJob> jobs = new ArrayList<>();
+        List<BattleResult> results = new ArrayList<>();
+        List<Map<String, Integer>> survivors = new ArrayList<>();
+        BatchBattleRunner runner = new BatchBattleRunner();
+        try (BattleReplayWriter writer = new BattleReplayWriter(path)) {
+            runner.setReplayWriter(writer);
+            for (int i = 0; i < BATTLES; i++) {
+                BattleJob job = new BattleJob(TestFixtures.preset(600, 100 + i, true),
+                        TestFixtures.preset(600, 200 + i, false), 42 + i);
+                Map<String, Integer> health = new HashMap<>();
+                jobs.add(job);
+                results.add(runner.runJob(job, (playerArmy, computerArmy) -> {
+                    playerArmy.getUnits().forEach(unit -> health.put(key(true, unit.getName()), unit.getHealth()));
+                    computerArmy.getUnits().forEach(unit -> health.put(key(false, unit.getName()), unit.getHealth()));
+                }));
+                survivors.add(health);
+            }
+            assertEquals(BATTLES, writer.getBattles());
+        }
+
+        try (BattleReplayReader reader = new BattleReplayReader(path)) {
+            assertEquals(BATTLES, reader.getBattleCount());
+            for (int i = BATTLES - 1; i >= 0; i--) { // Произвольный доступ не зависит от порядка чтения
+                assertReplayMatches(jobs.get(i), results.get(i), survivors.get(i), reader.getBattle(i));
+            }
+        }
+    }
+
+    private static void assertReplayMatches(BattleJob job, BattleResult result, Map<String, Integer> survivors,
+                                            BattleReplay replay) {
+        assertEquals(job.getSeed(), replay.getSeed());
+        assertEquals(result.getOutcome(), replay.getOutcome());
+        assertEquals(result.getRounds(), replay.getRounds());
+
+        List<Unit> units = new ArrayList<>(job.getPlayerPreset().getUnits());
+        units.addAll(job.getComputerPreset().getUnits());
+        assertEquals(units.size(), replay.getUnits().size());
+        for (int id = 0; id < units.size(); id++) {
+            Unit unit = units.get(id);
+            ReplayUnit replayUnit = replay.getUnits().get(id);
+            assertEquals(id, replayUnit.getId());
+            assertEquals(id < job.getPlayerPreset().getUnits().size(), replayUnit.isPlayerUnit());
+            assertEquals(unit.getxCoordinate(), replayUnit.getX());
+            assertEquals(unit.getyCoordinate(), replayUnit.getY());
+            assertEquals(unit.getHealth(), replayUnit.getHealth());
+            assertEquals(unit.getBaseAttack(), replayUnit.getBaseAttack());
+            assertEquals(unit.getUnitType(), replayUnit.getUnitType());
+            assertEquals(unit.getName(), replayUnit.getName());
+        }
+
+        assertTrue(replay.getTurnCount() > 0);
+        int previousRound = 0;
+        for (int turn = 0; turn < replay.getTurnCount(); turn++) {
+            ReplayTurn replayTurn = replay.getTurn(turn);
+            assertTrue(replayTurn.getRound() >= previousRound, "Раунды ходов не убывают");
+            previousRound = replayTurn.getRound();
+            int first = replay.findFirstTurnOfRound(replayTurn.getRound());
+            assertTrue(first <= turn && replay.getTurn(first).getRound() == replayTurn.getRound()
+                    && (first == 0 || replay.getTurn(first - 1).getRound() < replayTurn.getRound()));
+        }
+
+        // Здоровье, восстановленное по ходам, совпадает со здоровьем юнитов, оставшихся в армиях после боя
+        int[] health = replay.getHealthBeforeTurn(replay.getTurnCount());
+        for (ReplayUnit replayUnit : replay.getUnits()) {
+            Integer survivor = survivors.get(key(replayUnit.isPlayerUnit(), replayUnit.getName()));
+            if (survivor == null) {
+                assertTrue(health[replayUnit.getId()] <= 0, "Погибший юнит жив в повторе: " + replayUnit);
+            } else {
+                assertEquals(survivor.intValue(), health[replayUnit.getId()], replayUnit.toString());
+            }
+        }
+    }
+
+    /**
+     * @return Ключ юнита: имена уникальны только в пределах армии.
+     */
+    private static String key(boolean playerUnit, String name) {
+        return (playerUnit ? "P:" : "C:") + name;
+    }
+}
@@ -0,0 +1,115 @@
+package main.java.com.heroes_task.programs.tournament;
+
+import com.battle.heroes.army.Army;
+import main.java.com.heroes_task.programs.BattleResult;
+import main.java.com.heroes_task.programs.TestFixtures;
+import main.java.com.heroes_task.programs.batch.BatchBattleRunner;
+import main.java.com.heroes_task.programs.batch.BattleJob;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Турнир, прерванный ошибкой боя, продолжается с контрольной точки и приходит
+ * к тем же итогам, что и турнир без перерыва.
+ */
+class StreamingTournamentRunnerTest {
+
+    private static final long SEED = 500;
+    private static final long CHECKPOINT_INTERVAL = 5;
+    private static final long FAILING_BATTLE = 13;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void resumesFromCheckpoint() throws Exception {
+        List<Army> presets = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            presets.add(TestFixtures.preset(300, 300 + i, false));
+        }
+        TournamentStandings expected = new StreamingTournamentRunner(presets, config(2), new BatchBattleRunner()).run();
+
+        Path checkpoint = directory.resolve("tournament.checkpoint");
+        StreamingTournamentRunner interrupted = new StreamingTournamentRunner(presets, config(1), new FailingRunner());
+        interrupted.setCheckpointPath(checkpoint);
+        assertThrows(IllegalStateException.class, interrupted::run);
+        assertTrue(Files.exists(checkpoint));
+
+        CountingRunner countingRunner = new CountingRunner();
+        StreamingTournamentRunner resumed = new StreamingTournamentRunner(presets, config(2), countingRunner);
+        resumed.setCheckpointPath(checkpoint);
+        TournamentStandings actual = resumed.run();
+
+        long recorded = FAILING_BATTLE / CHECKPOINT_INTERVAL * CHECKPOINT_INTERVAL;
+        assertEquals(resumed.getTotalBattles() - recorded, countingRunner.jobs.get());
+        assertStandingsEqual(expected, actual);
+    }
+
+    private static TournamentConfig config(int workers) {
+        TournamentConfig config = new TournamentConfig();
+        config.setWorkers(workers); // Один поток учитывает бои до сбойного строго по порядку
+        config.setQueueCapacity(4);
+        config.setCheckpointInterval(CHECKPOINT_INTERVAL);
+        config.setBattlesPerSide(2);
+        config.setSeed(SEED);
+        return config;
+    }
+
+    private static void assertStandingsEqual(TournamentStandings expected, TournamentStandings actual) {
+        assertEquals(expected.getBattles(), actual.getBattles());
+        assertEquals(expected.getPresetCount(), actual.getPresetCount());
+        for (int i = 0; i < expected.getPresetCount(); i++) {
+            assertEquals(expected.getRating(i), actual.getRating(i), "Рейтинг пресета " + i);
+            assertEquals(expected.getWins(i), actual.getWins(i));
+            assertEquals(expected.getDraws(i), actual.getDraws(i));
+            assertEquals(expected.getLosses(i), actual.getLosses(i));
+            for (int j = 0; j < expected.getPresetCount(); j++) {
+                if (i != j) {
+                    assertEquals(expected.getScore(i, j), actual.getScore(i, j));
+                }
+            }
+        }
+        assertEquals(expected.getUnitTypes(), actual.getUnitTypes());
+        for (String unitType : expected.getUnitTypes()) {
+            assertEquals(expected.getSurvivalRate(unitType), actual.getSurvivalRate(unitType), unitType);
+        }
+    }
+
+    /**
+     * Прогон, падающий на бою с номером {@link #FAILING_BATTLE} и всех последующих.
+     */
+    private static final class FailingRunner extends BatchBattleRunner {
+        @Override
+        public BattleResult runJob(BattleJob job, BiConsumer<Army, Army> armiesAfterBattle) {
+            if (job.getSeed() - SEED >= FAILING_BATTLE) {
+                throw new IllegalStateException("Сбой боя " + (job.getSeed() - SEED));
+            }
+            return super.runJob(job, armiesAfterBattle);
+        }
+    }
+
+    /**
+     * Прогон, считающий сыгранные бои.
+     */
+    private static final class CountingRunner extends BatchBattleRunner {
+        final AtomicLong jobs = new AtomicLong();
+
+        @Override
+        public BattleResult runJob(BattleJob job, BiConsumer<Army, Army> armiesAfterBattle) {
+            jobs.incrementAndGet();
+            return super.runJob(job, armiesAfterBattle);
+        }
+    }
+}